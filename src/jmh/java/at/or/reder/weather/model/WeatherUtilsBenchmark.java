@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and unit conversion done for every ingested sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherUtilsBenchmark {
+
+    private final String dateutc = "2024-06-01 13:45:00";
+    private final String doubleValue = "29.921";
+    private final String longValue = "915";
+    private final String isoDateTime = "2024-06-01T13:45:00";
+    private double fahrenheit = 68.4;
+    private double inHg = 29.921;
+
+    @Benchmark
+    public ZonedDateTime parseUTCDateTime() {
+        return WeatherUtils.parseUTCDateTime(dateutc);
+    }
+
+    @Benchmark
+    public Optional<Double> parseDoubleValue() {
+        return WeatherUtils.parseDoubleValue(doubleValue);
+    }
+
+    @Benchmark
+    public Optional<Long> parseLongValue() {
+        return WeatherUtils.parseLongValue(longValue);
+    }
+
+    @Benchmark
+    public Optional<LocalDateTime> parseIsoDateTime() {
+        return WeatherUtils.parseIsoDateTime(isoDateTime);
+    }
+
+    @Benchmark
+    public double convertSample() {
+        // the conversions CurrentWeatherResource applies to one sample
+        return WeatherUtils.fahrenheitToCelsius(fahrenheit)
+                + WeatherUtils.fahrenheitToCelsius(fahrenheit)
+                + WeatherUtils.inHgToHPa(inHg)
+                + WeatherUtils.inHgToHPa(inHg)
+                + WeatherUtils.mphToKmh(fahrenheit)
+                + WeatherUtils.mphToKmh(fahrenheit)
+                + WeatherUtils.mphToKmh(fahrenheit)
+                + WeatherUtils.inchToMm(inHg) * 8;
+    }
+
+    @Benchmark
+    public LocalDateTime convertLocalToUTC() {
+        return WeatherUtils.convertLocalToUTC(LocalDateTime.of(2024, 6, 1, 13, 45));
+    }
+}
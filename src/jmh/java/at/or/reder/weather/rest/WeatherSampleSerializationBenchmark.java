@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.fixture.WeatherSeriesFixture;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.model.WeatherSample;
+import at.or.reder.weather.model.WeatherSeries;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Serialization of range query results, written to a discarding stream: JSON-B over the entities against
+ * {@link WeatherSeriesJsonWriter} over the primitive series of the same samples.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherSampleSerializationBenchmark {
+
+    @Param({"P1D", "P7D", "P30D"})
+    public String span;
+
+    private Jsonb jsonb;
+    private WeatherSample sample;
+    private WeatherSeries series;
+
+    @Setup
+    public void setup() {
+        jsonb = JsonbBuilder.create();
+        WeatherSeriesFixture fixture = new WeatherSeriesFixture();
+        List<WeatherRecord> records = fixture.build(Duration.parse(span));
+        LocalDateTime from = records.get(0).getSampleTime();
+        sample = new WeatherSample()
+                .setGenerated(from.plus(Duration.parse(span)))
+                .setQueryFrom(from)
+                .setQueryTo(from.plus(Duration.parse(span)))
+                .setRecords(records);
+        WeatherSeries.Builder builder = new WeatherSeries.Builder(records.size());
+        records.forEach(builder::add);
+        series = builder.build(sample.getGenerated(), sample.getQueryFrom(), sample.getQueryTo());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        jsonb.close();
+    }
+
+    @Benchmark
+    public void serialize(Blackhole blackhole) {
+        OutputStream out = OutputStream.nullOutputStream();
+        jsonb.toJson(sample, out);
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    public void serializeSeries(Blackhole blackhole) throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        WeatherSeriesJsonWriter.write(series, out);
+        blackhole.consume(out);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The per line parsing of a zone export, i.e. everything the import does before the entity lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeatpumpLineParsingBenchmark {
+
+    private static final int LINES = 1440;
+
+    private final HeatpumpServiceImpl service = new HeatpumpServiceImpl();
+    private final OptionalInt currentRoomIndex = OptionalInt.of(1);
+    private final OptionalInt setpointIndex = OptionalInt.of(2);
+    private String[] lines;
+
+    @Setup
+    public void setup() {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        LocalDateTime time = LocalDateTime.of(2024, 1, 15, 0, 0);
+        lines = new String[LINES];
+        for (int i = 0; i < LINES; ++i) {
+            lines[i] = time.plusMinutes(i).format(format) + ";" + (20 + (i % 30) / 10d) + ";21.5";
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parseZoneLines(Blackhole blackhole) {
+        for (String line : lines) {
+            String[] parts = line.split(";");
+            Optional<LocalDateTime> dt = service.parseLocalDateTime(parts[0]);
+            Optional<Double> currentRoom = service.parseDouble(parts, currentRoomIndex);
+            Optional<Double> roomSet = service.parseDouble(parts, setpointIndex);
+            blackhole.consume(dt);
+            blackhole.consume(currentRoom);
+            blackhole.consume(roomSet);
+        }
+    }
+}
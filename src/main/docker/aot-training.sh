@@ -0,0 +1,70 @@
+#!/bin/sh
+# ---------------------------------------------------------------------------
+# aot-training.sh – training run that records a JDK AOT cache (JEP 483/514)
+#
+# Starts the application with -XX:AOTCacheOutput, drives the startup path and
+# the ingest/query endpoints, then stops it. The JVM writes the cache on exit.
+#
+# The run needs no database: the datasource, dialect and driver are fixed at
+# build time and the cache is only valid for the identical class path, so an
+# H2 based run of the same artifact is not possible. Instead migrations are
+# skipped and connections fail fast; the requests still load and link the
+# JAX-RS, JSON-B, form decoding and Hibernate classes they pass through.
+#
+# Usage:
+#   aot-training.sh <quarkus-app dir> [cache file]
+# ---------------------------------------------------------------------------
+set -eu
+
+APP_DIR="${1:?quarkus-app directory required}"
+CACHE="${2:-${APP_DIR}/app.aot}"
+PORT="${AOT_TRAINING_PORT:-18080}"
+BASE="http://127.0.0.1:${PORT}"
+
+java -XX:AOTCacheOutput="${CACHE}" \
+     -Dquarkus.http.port="${PORT}" \
+     -Dquarkus.http.host=127.0.0.1 \
+     -Dquarkus.liquibase.weather.migrate-at-start=false \
+     -Dquarkus.hibernate-orm.database.version-check.enabled=false \
+     -Dquarkus.datasource.weather.jdbc.url=jdbc:firebirdsql://127.0.0.1:1/training \
+     -Dquarkus.datasource.weather.jdbc.min-size=0 \
+     -Dquarkus.datasource.weather.jdbc.acquisition-timeout=1S \
+     -Dweather.jfr.enabled=false \
+     -Djava.util.logging.manager=org.jboss.logmanager.LogManager \
+     -jar "${APP_DIR}/quarkus-run.jar" &
+PID=$!
+
+i=0
+until curl -sf -o /dev/null "${BASE}/q/health/live"; do
+  i=$((i + 1))
+  if [ "${i}" -gt 600 ] || ! kill -0 "${PID}" 2>/dev/null; then
+    echo "application did not start" >&2
+    kill "${PID}" 2>/dev/null || true
+    exit 1
+  fi
+  sleep 0.1
+done
+
+SAMPLE="PASSKEY=TRAINING&stationtype=EasyWeatherPro_V5.1.6&runtime=1&heap=24000\
+&tempinf=71.6&humidityin=45&baromrelin=29.92&baromabsin=29.76&tempf=53.2&humidity=81\
+&winddir=225&windspeedmph=4.2&windgustmph=6.9&maxdailygust=12.1&solarradiation=312.5&uv=3\
+&rainratein=0&eventrainin=0.012&hourlyrainin=0&dailyrainin=0.012&weeklyrainin=0.2\
+&monthlyrainin=1.1&yearlyrainin=12.4&totalrainin=40.2&wh65batt=0&freq=868M\
+&model=GW2000A_V3.1.4&interval=60"
+
+n=0
+while [ "${n}" -lt 50 ]; do
+  # samples are rejected without a database, the request path up to the connection is trained anyway
+  curl -s -o /dev/null -X POST -H 'Content-Type: application/x-www-form-urlencoded' \
+       --data "${SAMPLE}&dateutc=2025-01-01+00:$(printf '%02d' $((n % 60))):00" "${BASE}/weather/current" || true
+  curl -s -o /dev/null "${BASE}/weather/current" || true
+  curl -s -o /dev/null "${BASE}/weather/current/day?running=true&include=tempout" || true
+  n=$((n + 1))
+done
+curl -s -o /dev/null "${BASE}/q/health" || true
+curl -s -o /dev/null "${BASE}/q/metrics" || true
+
+kill -TERM "${PID}"
+wait "${PID}" || true
+test -s "${CACHE}"
+echo "AOT cache written to ${CACHE}"
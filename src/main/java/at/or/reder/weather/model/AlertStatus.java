@@ -0,0 +1,27 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * State of one alert rule for one station.
+ *
+ * @param field the column the rule watches
+ * @param value the value compared with the threshold: the sample value, or the change within the window
+ * for rise and drop rules; {@code null} before the first sample
+ * @param sampleTime {@code dateutc} of the sample that caused the last transition
+ * @param since when the alert last changed between firing and resolved
+ */
+public record AlertStatus(String rule,
+                          String stationkey,
+                          String field,
+                          boolean firing,
+                          Double value,
+                          double threshold,
+                          LocalDateTime sampleTime,
+                          Instant since) {
+}
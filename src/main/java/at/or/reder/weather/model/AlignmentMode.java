@@ -0,0 +1,25 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+/**
+ * How weather samples are matched to heatpump samples.
+ */
+public enum AlignmentMode {
+
+    /** Average both series over fixed time buckets. */
+    BUCKET,
+    /** Pick the weather sample closest to each heatpump sample. */
+    NEAREST;
+
+    public static AlignmentMode fromString(String strMode) {
+        for (AlignmentMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(strMode)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
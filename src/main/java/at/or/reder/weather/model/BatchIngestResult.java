@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response of {@code POST /current/batch}, with one item per non-empty line.
+ */
+public record BatchIngestResult(int accepted,
+                                int duplicates,
+                                int rejected,
+                                List<Item> items) {
+
+    /**
+     * @param line line number in the upload, starting with 1
+     * @param message why the sample was rejected
+     */
+    public record Item(int line,
+                       String stationkey,
+                       LocalDateTime sampleTime,
+                       IngestStatus status,
+                       String message) {
+    }
+
+    public static BatchIngestResult of(List<Item> items) {
+        int accepted = 0;
+        int duplicates = 0;
+        int rejected = 0;
+        for (Item item : items) {
+            switch (item.status()) {
+                case ACCEPTED -> ++accepted;
+                case DUPLICATE -> ++duplicates;
+                case REJECTED -> ++rejected;
+            }
+        }
+        return new BatchIngestResult(accepted, duplicates, rejected, items);
+    }
+}
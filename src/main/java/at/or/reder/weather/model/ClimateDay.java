@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import io.quarkus.panache.common.Sort;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Summary of one local calendar day of a station. A closed day without samples is kept with
+ * {@code samples} 0 and no values, so it is not summarized again.
+ */
+@Entity(name = "ClimateDay")
+@Table(name = "climateday")
+@SequenceGenerator(name = "climateday_seq", sequenceName = "climateday_seq", allocationSize = 1)
+public class ClimateDay extends PanacheEntityBase {
+
+    @Column(name = "id", updatable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "climateday_seq")
+    @Id
+    private long id;
+
+    @Column(name = "stationkey", length = 32, updatable = false)
+    private String stationkey;
+
+    @Column(name = "sampledate", updatable = false)
+    private LocalDate sampleDate;
+
+    /**
+     * {@code month * 100 + day}, the key of the same calendar day in all years.
+     */
+    @Column(name = "monthday", updatable = false)
+    private int monthDay;
+
+    @Column(name = "samples")
+    private int samples;
+
+    @Column(name = "tempmin")
+    private Double tempMin;
+
+    @Column(name = "tempmax")
+    private Double tempMax;
+
+    @Column(name = "tempmean")
+    private Double tempMean;
+
+    /**
+     * Highest {@code dailyrain} of the day, the station resets it at midnight.
+     */
+    @Column(name = "rain")
+    private Double rain;
+
+    @Column(name = "maxgust")
+    private Double maxGust;
+
+    public ClimateDay() {}
+
+    public ClimateDay(String stationkey, LocalDate sampleDate) {
+        this.stationkey = stationkey;
+        this.sampleDate = sampleDate;
+        this.monthDay = monthDay(sampleDate);
+    }
+
+    public static int monthDay(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * The same calendar day of the years before {@code before}, with samples, oldest first.
+     */
+    public static List<ClimateDay> findSameDay(String stationkey, int monthDay, LocalDate before) {
+        return list("stationkey = ?1 and monthDay = ?2 and sampleDate < ?3 and samples > 0",
+                    Sort.by("sampleDate"), stationkey, monthDay, before);
+    }
+
+    public static List<String> findStations() {
+        return getEntityManager()
+                .createQuery("select distinct stationkey from ClimateDay order by stationkey", String.class)
+                .getResultList();
+    }
+
+    public static Optional<ClimateDay> findLast(String stationkey) {
+        return find("stationkey", Sort.by("sampleDate").descending(), stationkey).firstResultOptional();
+    }
+
+    public static long deleteDay(String stationkey, LocalDate sampleDate) {
+        return delete("stationkey = ?1 and sampleDate = ?2", stationkey, sampleDate);
+    }
+
+    public long getId() { return id; }
+    public String getStationkey() { return stationkey; }
+    public LocalDate getSampleDate() { return sampleDate; }
+    public int getMonthDay() { return monthDay; }
+    public int getSamples() { return samples; }
+    public Double getTempMin() { return tempMin; }
+    public Double getTempMax() { return tempMax; }
+    public Double getTempMean() { return tempMean; }
+    public Double getRain() { return rain; }
+    public Double getMaxGust() { return maxGust; }
+
+    public void setSamples(int v) { this.samples = v; }
+    public void setTempMin(Double v) { this.tempMin = v; }
+    public void setTempMax(Double v) { this.tempMax = v; }
+    public void setTempMean(Double v) { this.tempMean = v; }
+    public void setRain(Double v) { this.rain = v; }
+    public void setMaxGust(Double v) { this.maxGust = v; }
+}
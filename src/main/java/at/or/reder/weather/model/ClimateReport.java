@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A day of a station against the same calendar day of the previous years. Statistics are {@code null} if
+ * no previous year has a value.
+ *
+ * @param years number of previous years with samples on this day
+ * @param history the previous years, oldest first
+ */
+public record ClimateReport(String stationkey,
+                            LocalDate date,
+                            int years,
+                            Values day,
+                            Statistic tempmin,
+                            Statistic tempmax,
+                            Statistic tempmean,
+                            Statistic rain,
+                            Statistic maxgust,
+                            List<Values> history) {
+
+    /**
+     * Temperatures in °C, rain in mm, gust in km/h.
+     */
+    public record Values(LocalDate date,
+                         int samples,
+                         Double tempmin,
+                         Double tempmax,
+                         Double tempmean,
+                         Double rain,
+                         Double maxgust) {}
+
+    /**
+     * Percentiles are linearly interpolated.
+     *
+     * @param recordLow year of the lowest value
+     * @param recordHigh year of the highest value
+     * @param rank percentage of the previous years below the value of {@link ClimateReport#day()},
+     * {@code null} if the day has no value
+     */
+    public record Statistic(double min,
+                            double p10,
+                            double p25,
+                            double median,
+                            double p75,
+                            double p90,
+                            double max,
+                            int recordLow,
+                            int recordHigh,
+                            Double rank) {}
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Downsampled heatpump values of one time bucket. The arrays are indexed like the requested field list,
+ * missing values are {@code NaN}.
+ */
+public record HeatpumpDataBucket(LocalDateTime time,
+                                 int samples,
+                                 double[] min,
+                                 double[] max,
+                                 double[] avg) {
+}
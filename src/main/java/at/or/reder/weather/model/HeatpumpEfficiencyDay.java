@@ -0,0 +1,19 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.LocalDate;
+
+/**
+ * Daily heating COP next to the heating degree days of the same day. Missing values are {@code NaN}.
+ */
+public record HeatpumpEfficiencyDay(LocalDate day,
+                                    int weatherSamples,
+                                    double meanOutdoorTemp,
+                                    double heatingDegreeDays,
+                                    double heatGenerated,
+                                    double electricalConsumed,
+                                    double cop) {
+}
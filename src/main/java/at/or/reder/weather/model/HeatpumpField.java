@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+/**
+ * The value columns of {@code heatpumpdata}.
+ */
+public enum HeatpumpField {
+
+    ROOM_TEMP("roomTemp"),
+    ROOM_TEMP_SET("roomTempSet"),
+    OUTDOOR_TEMP("outdoorTemp"),
+    HOT_WATER_TEMP("hotWaterTemp");
+
+    private final String column;
+
+    HeatpumpField(String column) {
+        this.column = column;
+    }
+
+    /**
+     * Column name, also used as the JSON name.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    public static HeatpumpField fromString(String strField) {
+        for (HeatpumpField field : values()) {
+            if (field.column.equalsIgnoreCase(strField) || field.name().equalsIgnoreCase(strField)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
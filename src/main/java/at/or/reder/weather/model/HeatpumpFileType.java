@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+/**
+ * The CSV exports of the heatpump portal, recognised by their file name prefix.
+ */
+public enum HeatpumpFileType {
+
+    HOT_WATER("domestic_hot_water"),
+    SYSTEM("system"),
+    ZONE("zone"),
+    ENERGY("energy");
+
+    private final String prefix;
+
+    HeatpumpFileType(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public static HeatpumpFileType fromFilename(String filename) {
+        if (filename != null) {
+            for (HeatpumpFileType type : values()) {
+                if (filename.startsWith(type.prefix)) {
+                    return type;
+                }
+            }
+        }
+        return null;
+    }
+}
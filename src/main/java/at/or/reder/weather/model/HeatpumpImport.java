@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.json.bind.annotation.JsonbTransient;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * One imported heatpump export file, identified by the SHA-256 of its content.
+ */
+@Entity(name = "HeatpumpImport")
+@Table(name = "heatpumpimport")
+@SequenceGenerator(name = "heatpumpimport_seq", sequenceName = "heatpumpimport_seq", allocationSize = 1)
+public class HeatpumpImport extends PanacheEntityBase {
+
+    @Column(name = "id", updatable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "heatpumpimport_seq")
+    @Id
+    @JsonbTransient
+    private long id;
+
+    @Column(name = "contenthash", length = 64, updatable = false)
+    private String contentHash;
+
+    @Column(name = "filetype", length = 16, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private HeatpumpFileType fileType;
+
+    @Column(name = "filename", length = 255, updatable = false)
+    private String fileName;
+
+    @Column(name = "rangefrom", updatable = false)
+    private LocalDateTime rangeFrom;
+
+    @Column(name = "rangeto", updatable = false)
+    private LocalDateTime rangeTo;
+
+    @Column(name = "totalrows", updatable = false)     private int totalRows;
+    @Column(name = "insertedrows", updatable = false)  private int insertedRows;
+    @Column(name = "updatedrows", updatable = false)   private int updatedRows;
+    @Column(name = "unchangedrows", updatable = false) private int unchangedRows;
+
+    @Column(name = "importtime", updatable = false)
+    private LocalDateTime importTime;
+
+    public HeatpumpImport() {}
+
+    public static boolean existsByHash(String contentHash) {
+        return count("contentHash", contentHash) > 0;
+    }
+
+    /**
+     * The end of the newest range already imported for this file type.
+     */
+    public static Optional<LocalDateTime> findHighWaterMark(HeatpumpFileType fileType) {
+        return Optional.ofNullable(getEntityManager()
+                .createQuery("select max(i.rangeTo) from HeatpumpImport i where i.fileType = ?1", LocalDateTime.class)
+                .setParameter(1, fileType)
+                .getSingleResult());
+    }
+
+    /**
+     * The ranges already imported for this file type as {@code [from, to]} pairs, overlapping ranges merged
+     * and ordered by start. The last {@code to} is the {@link #findHighWaterMark high-water mark}.
+     */
+    public static List<LocalDateTime[]> findImportedRanges(HeatpumpFileType fileType) {
+        List<Object[]> rows = getEntityManager()
+                .createQuery("select i.rangeFrom, i.rangeTo from HeatpumpImport i where i.fileType = ?1"
+                             + " and i.rangeFrom is not null order by i.rangeFrom", Object[].class)
+                .setParameter(1, fileType)
+                .getResultList();
+        List<LocalDateTime[]> result = new ArrayList<>();
+        for (Object[] row : rows) {
+            LocalDateTime from = (LocalDateTime) row[0];
+            LocalDateTime to = (LocalDateTime) row[1];
+            LocalDateTime[] last = result.isEmpty() ? null : result.get(result.size() - 1);
+            if (last != null && !from.isAfter(last[1])) {
+                if (to.isAfter(last[1])) {
+                    last[1] = to;
+                }
+            } else {
+                result.add(new LocalDateTime[]{from, to});
+            }
+        }
+        return result;
+    }
+
+    public long getId() { return id; }
+    public String getContentHash() { return contentHash; }
+    public HeatpumpFileType getFileType() { return fileType; }
+    public String getFileName() { return fileName; }
+    public LocalDateTime getRangeFrom() { return rangeFrom; }
+    public LocalDateTime getRangeTo() { return rangeTo; }
+    public int getTotalRows() { return totalRows; }
+    public int getInsertedRows() { return insertedRows; }
+    public int getUpdatedRows() { return updatedRows; }
+    public int getUnchangedRows() { return unchangedRows; }
+    public LocalDateTime getImportTime() { return importTime; }
+
+    public void setContentHash(String v) { this.contentHash = v; }
+    public void setFileType(HeatpumpFileType v) { this.fileType = v; }
+    public void setFileName(String v) { this.fileName = v; }
+    public void setRangeFrom(LocalDateTime v) { this.rangeFrom = v; }
+    public void setRangeTo(LocalDateTime v) { this.rangeTo = v; }
+    public void setTotalRows(int v) { this.totalRows = v; }
+    public void setInsertedRows(int v) { this.insertedRows = v; }
+    public void setUpdatedRows(int v) { this.updatedRows = v; }
+    public void setUnchangedRows(int v) { this.unchangedRows = v; }
+    public void setImportTime(LocalDateTime v) { this.importTime = v; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HeatpumpImport that)) return false;
+        return Objects.equals(contentHash, that.contentHash);
+    }
+
+    @Override
+    public int hashCode() { return Objects.hash(contentHash); }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One time-aligned row of heatpump and outdoor weather values. Missing values are {@code NaN}.
+ */
+public record HeatpumpWeatherRow(LocalDateTime time,
+                                 int heatpumpSamples,
+                                 double roomTemp,
+                                 double roomTempSet,
+                                 double heatpumpOutdoorTemp,
+                                 double hotWaterTemp,
+                                 int weatherSamples,
+                                 double tempout,
+                                 double solarradiation,
+                                 double windspeed) {
+}
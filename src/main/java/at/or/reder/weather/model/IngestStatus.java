@@ -0,0 +1,18 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+/**
+ * Outcome of one sample of a batch upload.
+ */
+public enum IngestStatus {
+
+    ACCEPTED,
+    /**
+     * The station already has a sample at this time, in the database or earlier in the batch.
+     */
+    DUPLICATE,
+    REJECTED
+}
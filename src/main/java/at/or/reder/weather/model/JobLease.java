@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * The instance that runs a scheduled job until {@code leaseUntil}, so that only one replica runs it.
+ * Written with plain JDBC, the entity only defines the table.
+ */
+@Entity(name = "JobLease")
+@Table(name = "joblease")
+public class JobLease extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "jobname", length = 32, updatable = false)
+    private String job;
+
+    @Column(name = "leaseowner", length = 64)
+    private String owner;
+
+    /**
+     * UTC.
+     */
+    @Column(name = "leaseuntil")
+    private LocalDateTime leaseUntil;
+
+    public String getJob() { return job; }
+    public String getOwner() { return owner; }
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.Instant;
+
+/**
+ * Progress of the background schema migration.
+ *
+ * @param pendingChangeSets change sets that were not applied when the migration started
+ * @param currentChangeSet id of the change set being applied, {@code null} if none
+ * @param spooledSamples station samples held back until the migration completed
+ */
+public record MigrationStatus(State state,
+                              int pendingChangeSets,
+                              int executedChangeSets,
+                              String currentChangeSet,
+                              Instant startedAt,
+                              Instant finishedAt,
+                              String error,
+                              int spooledSamples) {
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
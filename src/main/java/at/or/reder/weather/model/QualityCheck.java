@@ -0,0 +1,23 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+/**
+ * The data quality check a value failed.
+ */
+public enum QualityCheck {
+    /**
+     * Outside the plausible range of the field.
+     */
+    RANGE,
+    /**
+     * Changed faster than the field can change since the previous sample.
+     */
+    RATE,
+    /**
+     * Too far from the median of the recent samples, scaled by their median absolute deviation.
+     */
+    OUTLIER
+}
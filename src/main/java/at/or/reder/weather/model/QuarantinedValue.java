@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A value the data quality stage took out of a sample, the sample is stored without it.
+ */
+@Entity(name = "QuarantinedValue")
+@Table(name = "quarantine")
+@SequenceGenerator(name = "quarantine_seq", sequenceName = "quarantine_seq", allocationSize = 1)
+public class QuarantinedValue extends PanacheEntityBase {
+
+    @Column(name = "id", updatable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quarantine_seq")
+    @Id
+    private long id;
+
+    @Column(name = "stationkey", length = 32, updatable = false)
+    private String stationkey;
+
+    @Column(name = "sampletime", updatable = false)
+    private LocalDateTime sampleTime;
+
+    @Column(name = "fieldname", length = 16, updatable = false)
+    private String field;
+
+    @Column(name = "fieldvalue", updatable = false)
+    private double value;
+
+    @Column(name = "qualitycheck", length = 16, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private QualityCheck check;
+
+    public QuarantinedValue() {}
+
+    public QuarantinedValue(String stationkey, LocalDateTime sampleTime, WeatherField field, double value,
+                            QualityCheck check) {
+        this.stationkey = stationkey;
+        this.sampleTime = sampleTime;
+        this.field = field.getColumn();
+        this.value = value;
+        this.check = check;
+    }
+
+    public static List<QuarantinedValue> findByStation(String stationkey, LocalDateTime from, LocalDateTime to) {
+        return list("stationkey = ?1 and sampleTime >= ?2 and sampleTime < ?3 order by sampleTime",
+                    stationkey, from, to);
+    }
+
+    public long getId() { return id; }
+    public String getStationkey() { return stationkey; }
+    public LocalDateTime getSampleTime() { return sampleTime; }
+    public String getField() { return field; }
+    public double getValue() { return value; }
+    public QualityCheck getCheck() { return check; }
+}
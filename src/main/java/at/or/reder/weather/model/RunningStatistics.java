@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+/**
+ * Mutable count/sum/min/max accumulator. {@code NaN} values are ignored, so missing columns can be fed
+ * without special casing.
+ */
+public final class RunningStatistics {
+
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        ++count;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public long getCount() { return count; }
+    public double getSum() { return sum; }
+    public double getMean() { return count > 0 ? sum / count : Double.NaN; }
+    public double getMin() { return count > 0 ? min : Double.NaN; }
+    public double getMax() { return count > 0 ? max : Double.NaN; }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Completeness of a station's samples in a range, from the gap index.
+ *
+ * @param coverage percentage of the expected samples that exist
+ * @param missingSeconds time without samples beyond the expected interval
+ * @param gaps the gaps overlapping the range, not clipped
+ */
+public record StationCoverage(String stationkey,
+                              LocalDateTime from,
+                              LocalDateTime to,
+                              int intervalSeconds,
+                              double coverage,
+                              long missingSeconds,
+                              List<Gap> gaps) {
+
+    /**
+     * @param from last sample before the gap, or the start of the range before the first sample
+     * @param to first sample after the gap, or the end of the range while the gap lasts
+     * @param open the station has not posted since {@code from}
+     */
+    public record Gap(LocalDateTime from, LocalDateTime to, boolean open) {}
+}
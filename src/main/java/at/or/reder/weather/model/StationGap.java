@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.json.bind.annotation.JsonbTransient;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An interval without samples of a station: {@code gapStart} is the last sample before the gap,
+ * {@code gapEnd} the first sample after it.
+ */
+@Entity(name = "StationGap")
+@Table(name = "stationgap")
+@SequenceGenerator(name = "stationgap_seq", sequenceName = "stationgap_seq", allocationSize = 1)
+public class StationGap extends PanacheEntityBase {
+
+    @Column(name = "id", updatable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stationgap_seq")
+    @Id
+    @JsonbTransient
+    private long id;
+
+    @Column(name = "stationkey", length = 32, updatable = false)
+    private String stationkey;
+
+    @Column(name = "gapstart", updatable = false)
+    private LocalDateTime gapStart;
+
+    @Column(name = "gapend", updatable = false)
+    private LocalDateTime gapEnd;
+
+    public StationGap() {}
+
+    public StationGap(String stationkey, LocalDateTime gapStart, LocalDateTime gapEnd) {
+        this.stationkey = stationkey;
+        this.gapStart = gapStart;
+        this.gapEnd = gapEnd;
+    }
+
+    /**
+     * Gaps that overlap {@code from} to {@code to}, ordered by start.
+     */
+    public static List<StationGap> findOverlapping(String stationkey, LocalDateTime from, LocalDateTime to) {
+        return list("stationkey = ?1 and gapEnd > ?2 and gapStart < ?3 order by gapStart", stationkey, from, to);
+    }
+
+    /**
+     * The gap a late sample at {@code sampleTime} falls into.
+     */
+    public static Optional<StationGap> findContaining(String stationkey, LocalDateTime sampleTime) {
+        return find("stationkey = ?1 and gapStart < ?2 and gapEnd > ?2", stationkey, sampleTime).firstResultOptional();
+    }
+
+    /**
+     * Removes the gaps that end after {@code time}, all gaps of the station if it is {@code null}.
+     */
+    public static long deleteEndingAfter(String stationkey, LocalDateTime time) {
+        return time != null
+                ? delete("stationkey = ?1 and gapEnd > ?2", stationkey, time)
+                : delete("stationkey", stationkey);
+    }
+
+    public long getId() { return id; }
+    public String getStationkey() { return stationkey; }
+    public LocalDateTime getGapStart() { return gapStart; }
+    public LocalDateTime getGapEnd() { return gapEnd; }
+}
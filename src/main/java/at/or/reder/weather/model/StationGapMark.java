@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * How far the gap index of a station is complete: every gap up to the sample at {@code scannedTo} is
+ * recorded in {@link StationGap}.
+ */
+@Entity(name = "StationGapMark")
+@Table(name = "stationgapmark")
+public class StationGapMark extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "stationkey", length = 32, updatable = false)
+    private String stationkey;
+
+    @Column(name = "firstsample")
+    private LocalDateTime firstSample;
+
+    @Column(name = "scannedto")
+    private LocalDateTime scannedTo;
+
+    /**
+     * Expected seconds between two samples.
+     */
+    @Column(name = "sampleinterval")
+    private int sampleInterval;
+
+    public StationGapMark() {}
+
+    public StationGapMark(String stationkey) {
+        this.stationkey = stationkey;
+    }
+
+    public String getStationkey() { return stationkey; }
+    public LocalDateTime getFirstSample() { return firstSample; }
+    public LocalDateTime getScannedTo() { return scannedTo; }
+    public int getSampleInterval() { return sampleInterval; }
+
+    public void setFirstSample(LocalDateTime v) { this.firstSample = v; }
+    public void setScannedTo(LocalDateTime v) { this.scannedTo = v; }
+    public void setSampleInterval(int v) { this.sampleInterval = v; }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Freshness of one station.
+ *
+ * @param interval the reporting interval the station announced
+ * @param lastLag receive time minus {@code dateutc} of the last sample
+ * @param silentFor time since the last sample was received
+ * @param stale {@code silentFor} exceeds the configured multiple of {@code interval}
+ */
+public record StationStatus(String stationkey,
+                            Instant lastReceived,
+                            Duration interval,
+                            Duration lastLag,
+                            Duration silentFor,
+                            boolean stale) {
+}
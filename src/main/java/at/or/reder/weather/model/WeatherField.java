@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.util.function.Function;
+
+/**
+ * The value columns of {@code stationdata}, in metric units.
+ */
+public enum WeatherField {
+
+    TEMPIN("tempin", WeatherRecord::getTempin),
+    TEMPOUT("tempout", WeatherRecord::getTempout),
+    HUMIDITYIN("humidityin", WeatherRecord::getHumidityin),
+    HUMIDITYOUT("humidityout", WeatherRecord::getHumidityout),
+    PRESSUREREL("pressurerel", WeatherRecord::getPressurerel),
+    PRESSUREABS("pressureabs", WeatherRecord::getPressureabs),
+    WINDDIR("winddir", WeatherRecord::getWinddir),
+    WINDSPEED("windspeed", WeatherRecord::getWindspeed),
+    WINDGUST("windgust", WeatherRecord::getWindgust),
+    MAXDAILYGUST("maxdailygust", WeatherRecord::getMaxdailygust),
+    SOLARRADIATION("solarradiation", WeatherRecord::getSolarradiation),
+    UV("uv", WeatherRecord::getUv),
+    RAINRATE("rainrate", WeatherRecord::getRainrate),
+    EVENTRAIN("eventrain", WeatherRecord::getEventrain),
+    HOURLYRAIN("hourlyrain", WeatherRecord::getHourlyrain),
+    DAILYRAIN("dailyrain", WeatherRecord::getDailyrain),
+    WEEKLYRAIN("weeklyrain", WeatherRecord::getWeeklyrain),
+    MONTHLYRAIN("monthlyrain", WeatherRecord::getMonthlyrain),
+    YEARLYRAIN("yearlyrain", WeatherRecord::getYearlyrain),
+    TOTALRAIN("totalrain", WeatherRecord::getTotalrain);
+
+    private final String column;
+    private final Function<WeatherRecord, ? extends Number> getter;
+
+    WeatherField(String column, Function<WeatherRecord, ? extends Number> getter) {
+        this.column = column;
+        this.getter = getter;
+    }
+
+    /**
+     * Column name, also used as the JSON name.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * @return the value of this field, {@code NaN} if it is not set
+     */
+    public double valueOf(WeatherRecord record) {
+        Number value = getter.apply(record);
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    /**
+     * Unsets the value of this field.
+     */
+    public void clear(WeatherRecord record) {
+        set(record, null);
+    }
+
+    /**
+     * Sets the value of this field, {@code uv} is truncated to an integer.
+     */
+    public void set(WeatherRecord record, Double value) {
+        switch (this) {
+            case TEMPIN -> record.setTempin(value);
+            case TEMPOUT -> record.setTempout(value);
+            case HUMIDITYIN -> record.setHumidityin(value);
+            case HUMIDITYOUT -> record.setHumidityout(value);
+            case PRESSUREREL -> record.setPressurerel(value);
+            case PRESSUREABS -> record.setPressureabs(value);
+            case WINDDIR -> record.setWinddir(value);
+            case WINDSPEED -> record.setWindspeed(value);
+            case WINDGUST -> record.setWindgust(value);
+            case MAXDAILYGUST -> record.setMaxdailygust(value);
+            case SOLARRADIATION -> record.setSolarradiation(value);
+            case UV -> record.setUv(value != null ? value.intValue() : null);
+            case RAINRATE -> record.setRainrate(value);
+            case EVENTRAIN -> record.setEventrain(value);
+            case HOURLYRAIN -> record.setHourlyrain(value);
+            case DAILYRAIN -> record.setDailyrain(value);
+            case WEEKLYRAIN -> record.setWeeklyrain(value);
+            case MONTHLYRAIN -> record.setMonthlyrain(value);
+            case YEARLYRAIN -> record.setYearlyrain(value);
+            case TOTALRAIN -> record.setTotalrain(value);
+        }
+    }
+
+    public static WeatherField fromString(String strField) {
+        for (WeatherField field : values()) {
+            if (field.column.equalsIgnoreCase(strField) || field.name().equalsIgnoreCase(strField)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
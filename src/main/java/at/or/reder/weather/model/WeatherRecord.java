@@ -11,6 +11,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
@@ -18,7 +19,9 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity(name = "WeatherRecord")
-@Table(name = "stationdata")
+// the unique index of the changelog, so that tests on a generated schema reject duplicates as well
+@Table(name = "stationdata",
+       indexes = @Index(name = "ndx_stationdata_timestamp", columnList = "sampletime, stationkey", unique = true))
 @SequenceGenerator(name = "stationdata_seq", sequenceName = "stationdata_seq", allocationSize = 1)
 public class WeatherRecord extends PanacheEntityBase {
 
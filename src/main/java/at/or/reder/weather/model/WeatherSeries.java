@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Read-only range query result in primitive arrays, the counterpart of {@link WeatherSample} without an
+ * entity and about 20 boxed numbers per sample. Values are stored row by row in {@link WeatherField}
+ * order, sample times as UTC epoch seconds. A bit per field in {@link #presentMask(int)} tells which
+ * values are set, absent values read as {@code NaN}.
+ * <p>
+ * {@link #project(int, boolean)} restricts the fields that are reported as present, it shares the arrays.
+ * {@link #withBreaks(String[], long[])} adds the times where a station's line is to be interrupted, they are
+ * written as records with all projected values {@code null}.
+ * <p>
+ * A downsampled series has one row per station and {@link #stepSeconds()}, at the time of the first sample
+ * in the step.
+ */
+public final class WeatherSeries {
+
+    private static final WeatherField[] FIELDS = WeatherField.values();
+    public static final int ALL_FIELDS = (1 << FIELDS.length) - 1;
+
+    private final LocalDateTime generated;
+    private final LocalDateTime queryFrom;
+    private final LocalDateTime queryTo;
+    private final int stepSeconds;
+    private final int size;
+    private final String[] stationkeys;
+    private final long[] sampleTimes;
+    private final double[] values;
+    private final int[] present;
+    private final int fieldMask;
+    private final boolean withStationkey;
+    private final String[] breakStationkeys;
+    private final long[] breakTimes;
+
+    private WeatherSeries(LocalDateTime generated, LocalDateTime queryFrom, LocalDateTime queryTo,
+                          int stepSeconds, int size, String[] stationkeys, long[] sampleTimes, double[] values,
+                          int[] present, int fieldMask, boolean withStationkey, String[] breakStationkeys,
+                          long[] breakTimes) {
+        this.generated = generated;
+        this.queryFrom = queryFrom;
+        this.queryTo = queryTo;
+        this.stepSeconds = stepSeconds;
+        this.size = size;
+        this.stationkeys = stationkeys;
+        this.sampleTimes = sampleTimes;
+        this.values = values;
+        this.present = present;
+        this.fieldMask = fieldMask;
+        this.withStationkey = withStationkey;
+        this.breakStationkeys = breakStationkeys;
+        this.breakTimes = breakTimes;
+    }
+
+    public static int bit(WeatherField field) {
+        return 1 << field.ordinal();
+    }
+
+    public LocalDateTime getGenerated() { return generated; }
+    public LocalDateTime getQueryFrom() { return queryFrom; }
+    public LocalDateTime getQueryTo() { return queryTo; }
+    /**
+     * @return {@code 0} for the samples as stored
+     */
+    public int stepSeconds() { return stepSeconds; }
+    public int size() { return size; }
+    public int fieldMask() { return fieldMask; }
+
+    /**
+     * @return {@code null} if the series is projected without station key
+     */
+    public String stationkey(int row) {
+        return withStationkey ? stationkeys[row] : null;
+    }
+
+    public long sampleTime(int row) {
+        return sampleTimes[row];
+    }
+
+    public LocalDateTime sampleDateTime(int row) {
+        return LocalDateTime.ofEpochSecond(sampleTimes[row], 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * @return one bit per {@link WeatherField} ordinal for the values that are set and projected
+     */
+    public int presentMask(int row) {
+        return present[row] & fieldMask;
+    }
+
+    public boolean isPresent(int row, WeatherField field) {
+        return (presentMask(row) & bit(field)) != 0;
+    }
+
+    public double value(int row, WeatherField field) {
+        return isPresent(row, field) ? values[row * FIELDS.length + field.ordinal()] : Double.NaN;
+    }
+
+    /**
+     * @param fieldMask bits of the fields to keep, see {@link #bit(WeatherField)}
+     */
+    public WeatherSeries project(int fieldMask, boolean withStationkey) {
+        return new WeatherSeries(generated, queryFrom, queryTo, stepSeconds, size, stationkeys, sampleTimes, values,
+                                 present, this.fieldMask & fieldMask, this.withStationkey && withStationkey,
+                                 breakStationkeys, breakTimes);
+    }
+
+    /**
+     * @param stationkeys the station of each break
+     * @param times UTC epoch seconds, ascending
+     */
+    public WeatherSeries withBreaks(String[] stationkeys, long[] times) {
+        if (stationkeys.length != times.length) {
+            throw new IllegalArgumentException("Expected " + times.length + " station keys");
+        }
+        return new WeatherSeries(generated, queryFrom, queryTo, stepSeconds, size, this.stationkeys, sampleTimes,
+                                 values, present, fieldMask, withStationkey, stationkeys, times);
+    }
+
+    public int breakCount() {
+        return breakTimes.length;
+    }
+
+    public long breakTime(int index) {
+        return breakTimes[index];
+    }
+
+    /**
+     * @return {@code null} if the series is projected without station key
+     */
+    public String breakStationkey(int index) {
+        return withStationkey ? breakStationkeys[index] : null;
+    }
+
+    /**
+     * Collects rows in growing arrays.
+     */
+    public static final class Builder {
+
+        private String[] stationkeys;
+        private long[] sampleTimes;
+        private double[] values;
+        private int[] present;
+        private int size;
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            stationkeys = new String[capacity];
+            sampleTimes = new long[capacity];
+            values = new double[capacity * FIELDS.length];
+            present = new int[capacity];
+        }
+
+        /**
+         * @param row the values in {@link WeatherField} order, {@code NaN} if not set
+         */
+        public Builder add(String stationkey, long sampleTime, double[] row) {
+            if (size == sampleTimes.length) {
+                grow();
+            }
+            int mask = 0;
+            int offset = size * FIELDS.length;
+            for (int f = 0; f < FIELDS.length; ++f) {
+                double value = row[f];
+                values[offset + f] = value;
+                if (!Double.isNaN(value)) {
+                    mask |= 1 << f;
+                }
+            }
+            // consecutive rows of a station share one key instance
+            stationkeys[size] = size > 0 && stationkey != null && stationkey.equals(stationkeys[size - 1])
+                    ? stationkeys[size - 1]
+                    : stationkey;
+            sampleTimes[size] = sampleTime;
+            present[size] = mask;
+            ++size;
+            return this;
+        }
+
+        public Builder add(WeatherRecord record) {
+            double[] row = new double[FIELDS.length];
+            for (WeatherField field : FIELDS) {
+                row[field.ordinal()] = field.valueOf(record);
+            }
+            return add(record.getStationkey(), record.getSampleTime().toEpochSecond(ZoneOffset.UTC), row);
+        }
+
+        private void grow() {
+            int capacity = sampleTimes.length * 2;
+            stationkeys = Arrays.copyOf(stationkeys, capacity);
+            sampleTimes = Arrays.copyOf(sampleTimes, capacity);
+            values = Arrays.copyOf(values, capacity * FIELDS.length);
+            present = Arrays.copyOf(present, capacity);
+        }
+
+        public WeatherSeries build(LocalDateTime generated, LocalDateTime queryFrom, LocalDateTime queryTo) {
+            return build(generated, queryFrom, queryTo, 0);
+        }
+
+        public WeatherSeries build(LocalDateTime generated, LocalDateTime queryFrom, LocalDateTime queryTo,
+                                   int stepSeconds) {
+            return new WeatherSeries(generated, queryFrom, queryTo, stepSeconds, size, stationkeys, sampleTimes,
+                                     values, present, ALL_FIELDS, true, new String[0], new long[0]);
+        }
+    }
+}
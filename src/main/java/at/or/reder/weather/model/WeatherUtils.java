@@ -4,13 +4,19 @@
  */
 package at.or.reder.weather.model;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -55,6 +61,39 @@ public final class WeatherUtils {
         return Optional.empty();
     }
 
+    /**
+     * Parses an ISO date-time ({@code 2024-01-15T12:00:00}) or date ({@code 2024-01-15}, start of day).
+     */
+    public static Optional<LocalDateTime> parseIsoDateTime(String value) {
+        if (value == null || value.isBlank()) return Optional.empty();
+        try {
+            return Optional.of(value.length() <= 10
+                    ? LocalDate.parse(value).atStartOfDay()
+                    : LocalDateTime.parse(value));
+        } catch (DateTimeParseException ex) {
+            LOG.log(Level.FINE, "Cannot parse " + value, ex);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Hex encoded SHA-256 of the remaining content of {@code in}. The stream is not closed.
+     */
+    public static String sha256Hex(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
     public static double kmhToMs(double kmh) { return kmh * 3.6; }
     public static double mphToKmh(double mph) { return mph * 1.609344; }
     public static double inHgToHPa(double inhg) { return inhg * 33.863889532610884; }
@@ -72,4 +111,8 @@ public final class WeatherUtils {
     public static LocalDateTime convertLocalToUTC(LocalDateTime dt) {
         return convertToTimezone(dt, ZoneId.systemDefault(), ZoneId.of("UTC"));
     }
+
+    public static LocalDateTime convertUTCToLocal(LocalDateTime dt) {
+        return convertToTimezone(dt, ZoneId.of("UTC"), ZoneId.systemDefault());
+    }
 }
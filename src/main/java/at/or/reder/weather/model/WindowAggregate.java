@@ -0,0 +1,20 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.model;
+
+import java.time.Duration;
+
+/**
+ * Aggregate of one field of one station over a sliding window that ends now. Values are {@code NaN}
+ * while the window is empty; {@code winddir} has the vector mean and no minimum and maximum.
+ */
+public record WindowAggregate(String stationkey,
+                              WeatherField field,
+                              Duration window,
+                              int count,
+                              double mean,
+                              double min,
+                              double max) {
+}
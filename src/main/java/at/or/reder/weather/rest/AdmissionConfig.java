@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+
+/**
+ * Ingest admission per PASSKEY, e.g. {@code weather.admission.stations.<passkey>.rate=2} for a station
+ * that is known to post more often. Stations without an entry use the defaults.
+ */
+@ConfigMapping(prefix = "weather.admission")
+public interface AdmissionConfig {
+
+    enum Mode {
+        /**
+         * Keeps the latest sample above the rate and stores it as soon as the rate allows.
+         */
+        COALESCE,
+        /**
+         * Answers samples above the rate with 429 and {@code Retry-After}.
+         */
+        REJECT
+    }
+
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * Samples per minute a station may post on average.
+     */
+    @WithDefault("6")
+    double rate();
+
+    /**
+     * Samples a station may post back to back before the rate applies.
+     */
+    @WithDefault("10")
+    int burst();
+
+    @WithDefault("coalesce")
+    Mode mode();
+
+    /**
+     * Buckets kept at most. Further PASSKEYs share one bucket that rejects above the rate, so a client
+     * posting with a new PASSKEY every time gets no fresh burst.
+     */
+    @WithDefault("1000")
+    int maxStations();
+
+    /**
+     * A full bucket without a held sample is dropped after this time without a post.
+     */
+    @WithDefault("PT10M")
+    Duration idle();
+
+    Map<String, Station> stations();
+
+    interface Station {
+
+        OptionalDouble rate();
+
+        OptionalInt burst();
+
+        Optional<Mode> mode();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.model.AlertStatus;
+import at.or.reder.weather.service.AlertChanged;
+import at.or.reder.weather.service.AlertService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.util.List;
+
+@ApplicationScoped
+@Path("alerts")
+public class AlertResource {
+
+    @Inject
+    AlertService alertService;
+
+    private Sse sse;
+    private SseBroadcaster broadcaster;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<AlertStatus> getAlerts(@QueryParam("firing") boolean firingOnly) {
+        return alertService.getAlerts(firingOnly);
+    }
+
+    /**
+     * Server sent events {@code firing} and {@code resolved}, a new subscriber first receives the alerts
+     * that are currently firing.
+     */
+    @GET
+    @Path("events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void events(@Context SseEventSink sink, @Context Sse sse) {
+        SseBroadcaster target;
+        synchronized (this) {
+            if (broadcaster == null) {
+                this.sse = sse;
+                broadcaster = sse.newBroadcaster();
+            }
+            target = broadcaster;
+        }
+        for (AlertStatus status : alertService.getAlerts(true)) {
+            sink.send(toEvent(sse, status));
+        }
+        target.register(sink);
+    }
+
+    void onAlertChanged(@Observes AlertChanged event) {
+        Sse currentSse;
+        SseBroadcaster target;
+        synchronized (this) {
+            currentSse = sse;
+            target = broadcaster;
+        }
+        if (target != null) {
+            target.broadcast(toEvent(currentSse, event.status()));
+        }
+    }
+
+    private static OutboundSseEvent toEvent(Sse sse, AlertStatus status) {
+        return sse.newEventBuilder()
+                .name(status.firing() ? "firing" : "resolved")
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(AlertStatus.class, status)
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.service.ClimateService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.MediaType;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+@ApplicationScoped
+@Path("climate")
+public class ClimateResource {
+
+    @Inject
+    ClimateService climateService;
+
+    @Inject
+    VirtualThreadDispatcher dispatcher;
+
+    /**
+     * A local day, today by default, against the same calendar day of the previous years.
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public void getClimate(@QueryParam("date") String strDate,
+                           @QueryParam("station") String stationkey,
+                           @Suspended AsyncResponse response) {
+        LocalDate date;
+        try {
+            date = strDate == null || strDate.isBlank() ? LocalDate.now() : LocalDate.parse(strDate);
+        } catch (DateTimeParseException ex) {
+            throw new BadRequestException("Invalid date " + strDate);
+        }
+        dispatcher.dispatch(response, () -> climateService.getReport(stationkey, date));
+    }
+}
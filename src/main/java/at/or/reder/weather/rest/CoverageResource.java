@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.model.WeatherUtils;
+import at.or.reder.weather.service.GapIndexService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.MediaType;
+import java.time.LocalDateTime;
+
+@ApplicationScoped
+@Path("coverage")
+public class CoverageResource {
+
+    @Inject
+    GapIndexService gapIndex;
+
+    @Inject
+    VirtualThreadDispatcher dispatcher;
+
+    /**
+     * Coverage and gaps per station from the gap index, {@code from} and {@code to} in UTC. Reports only
+     * stations the catch-up scan has seen.
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public void getCoverage(@QueryParam("from") String strFrom,
+                            @QueryParam("to") String strTo,
+                            @QueryParam("station") String stationkey,
+                            @Suspended AsyncResponse response) {
+        LocalDateTime from = requireDateTime("from", strFrom);
+        LocalDateTime to = requireDateTime("to", strTo);
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("to must be after from");
+        }
+        dispatcher.dispatch(response, () -> gapIndex.getCoverage(stationkey, from, to));
+    }
+
+    private static LocalDateTime requireDateTime(String name, String value) {
+        return WeatherUtils.parseIsoDateTime(value)
+                .orElseThrow(() -> new BadRequestException("Missing or invalid parameter " + name));
+    }
+}
@@ -4,123 +4,243 @@
  */
 package at.or.reder.weather.rest;
 
+import at.or.reder.weather.model.BatchIngestResult;
+import at.or.reder.weather.model.StationCoverage;
+import at.or.reder.weather.model.IngestStatus;
 import at.or.reder.weather.model.WeatherRecord;
-import at.or.reder.weather.model.WeatherSample;
+import at.or.reder.weather.model.WeatherField;
+import at.or.reder.weather.model.WeatherSeries;
 import at.or.reder.weather.model.WeatherUtils;
+import at.or.reder.weather.service.DuplicateFilter;
+import at.or.reder.weather.service.DuplicateSampleException;
+import at.or.reder.weather.service.GapIndexService;
+import at.or.reder.weather.service.QueryCancellation;
+import at.or.reder.weather.service.WeatherIngestEvent;
+import at.or.reder.weather.service.WeatherMetrics;
 import at.or.reder.weather.service.WeatherService;
 import jakarta.enterprise.context.ApplicationScoped;
+import io.vertx.core.http.HttpServerRequest;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.JsonReader;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.BeanParam;
 import jakarta.ws.rs.Consumes;
-import jakarta.ws.rs.FormParam;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import java.lang.reflect.Method;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
-import java.util.function.Consumer;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 @Path("current")
 public class CurrentWeatherResource {
 
-    private static final Logger LOG = Logger.getLogger(CurrentWeatherResource.class.getName());
+    private static final String NDJSON = "application/x-ndjson";
 
     @Inject
     private WeatherService weatherService;
 
+    @Inject
+    private WeatherMetrics metrics;
+
+    @Inject
+    private DuplicateFilter duplicateFilter;
+
+    @Inject
+    private VirtualThreadDispatcher dispatcher;
+
+    @Inject
+    private GapIndexService gapIndex;
+
+    @Inject
+    private IngestAdmission admission;
+
+    @ConfigProperty(name = "weather.batch.max-samples", defaultValue = "100000")
+    int maxBatchSize;
+
+    /**
+     * The sample is committed by {@link WeatherService#storeCurrentWeather}, so a rejected insert is seen
+     * here and releases the claim of the duplicate filter. A station posting above its admitted rate is
+     * answered without a database permit, see {@link IngestAdmission}.
+     */
     @POST
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
-    @Transactional(Transactional.TxType.REQUIRED)
-    public Response receiveWeather(@FormParam("PASSKEY") String passKey,
-                                   @FormParam("stationtype") String stationtype,
-                                   @FormParam("runtime") long runtime,
-                                   @FormParam("heap") long heap,
-                                   @FormParam("dateutc") String dateutc,
-                                   @FormParam("tempinf") double tempinf,
-                                   @FormParam("humidityin") double humidityin,
-                                   @FormParam("baromrelin") double baromrelin,
-                                   @FormParam("baromabsin") double baromabsin,
-                                   @FormParam("tempf") double tempf,
-                                   @FormParam("humidity") double humidity,
-                                   @FormParam("winddir") int winddir,
-                                   @FormParam("windspeedmph") double windspeedmph,
-                                   @FormParam("windgustmph") double windgustmph,
-                                   @FormParam("maxdailygust") double maxdailygust,
-                                   @FormParam("solarradiation") double solarradiation,
-                                   @FormParam("uv") int uv,
-                                   @FormParam("rainratein") double rainratein,
-                                   @FormParam("eventrainin") double eventrainin,
-                                   @FormParam("hourlyrainin") double hourlyrainin,
-                                   @FormParam("dailyrainin") double dailyrainin,
-                                   @FormParam("weeklyrainin") double weeklyrainin,
-                                   @FormParam("monthlyrainin") double monthlyrainin,
-                                   @FormParam("yearlyrainin") double yearlyrainin,
-                                   @FormParam("totalrainin") double totalrainin,
-                                   @FormParam("wh65batt") int wh65batt,
-                                   @FormParam("freq") String freq,
-                                   @FormParam("model") String model,
-                                   @FormParam("interval") int interval) {
-        WeatherRecord result = new WeatherRecord();
-        result.setStationkey(passKey);
-        result.setStationtype(stationtype);
-        result.setTempin(WeatherUtils.fahrenheitToCelsius(tempinf));
-        result.setRuntime(runtime);
-        result.setHeap(heap);
-        result.setFreq(parseFrequency(freq));
-        result.setWh65batt(wh65batt);
-        result.setModel(model);
-        result.setInterval(interval);
-        result.setTempout(WeatherUtils.fahrenheitToCelsius(tempf));
-        result.setHumidityin(humidityin);
-        result.setHumidityout(humidity);
-        result.setPressurerel(WeatherUtils.inHgToHPa(baromrelin));
-        result.setPressureabs(WeatherUtils.inHgToHPa(baromabsin));
-        result.setWinddir((double) winddir);
-        result.setWindspeed(WeatherUtils.mphToKmh(windspeedmph));
-        result.setWindgust(WeatherUtils.mphToKmh(windgustmph));
-        result.setMaxdailygust(WeatherUtils.mphToKmh(maxdailygust));
-        result.setSolarradiation(solarradiation);
-        result.setUv(uv);
-        result.setRainrate(WeatherUtils.inchToMm(rainratein));
-        result.setEventrain(WeatherUtils.inchToMm(eventrainin));
-        result.setHourlyrain(WeatherUtils.inchToMm(hourlyrainin));
-        result.setDailyrain(WeatherUtils.inchToMm(dailyrainin));
-        result.setWeeklyrain(WeatherUtils.inchToMm(weeklyrainin));
-        result.setMonthlyrain(WeatherUtils.inchToMm(monthlyrainin));
-        result.setYearlyrain(WeatherUtils.inchToMm(yearlyrainin));
-        result.setTotalrain(WeatherUtils.inchToMm(totalrainin));
-        ZonedDateTime dt = WeatherUtils.parseUTCDateTime(dateutc);
-        result.setSampleTime(dt.toLocalDateTime());
-        weatherService.storeCurrentWeather(result);
+    public void receiveWeather(@BeanParam EcowittForm form,
+                               @HeaderParam("Content-Length") @DefaultValue("-1") long contentLength,
+                               @Suspended AsyncResponse response) {
+        IngestAdmission.Result admitted = admission.admit(form.getPassKey(), () -> storeWeather(form, contentLength));
+        switch (admitted.decision()) {
+            case ADMITTED -> dispatcher.dispatch(response, () -> storeWeather(form, contentLength));
+            case COALESCED -> response.resume(Response.noContent().build());
+            case REJECTED -> response.resume(Response.status(Response.Status.TOO_MANY_REQUESTS)
+                                                     .header(HttpHeaders.RETRY_AFTER, admitted.retryAfter())
+                                                     .build());
+        }
+    }
+
+    private Response storeWeather(EcowittForm form, long contentLength) {
+        WeatherIngestEvent event = new WeatherIngestEvent();
+        event.begin();
+        String passKey = form.getPassKey();
+        long start = System.nanoTime();
+        ZonedDateTime dt = form.parseDateutc();
+        int frequency = form.parseFrequency();
+        long decoded = System.nanoTime();
+        WeatherRecord result = form.toRecord(dt, frequency);
+        long converted = System.nanoTime();
+        if (!duplicateFilter.tryClaim(passKey, result.getSampleTime())) {
+            // a retransmit, acknowledge it so the gateway stops sending it
+            metrics.counter(WeatherMetrics.INGEST_SAMPLES, "duplicate", WeatherMetrics.STATION, passKey).increment();
+            return Response.noContent().build();
+        }
+        try {
+            weatherService.storeCurrentWeather(result);
+        } catch (DuplicateSampleException ex) {
+            // stored by another instance, the claim stays
+            metrics.counter(WeatherMetrics.INGEST_SAMPLES, "duplicate", WeatherMetrics.STATION, passKey).increment();
+            return Response.noContent().build();
+        } catch (RuntimeException ex) {
+            duplicateFilter.release(passKey, result.getSampleTime());
+            metrics.counter(WeatherMetrics.INGEST_SAMPLES, "rejected", WeatherMetrics.STATION, passKey).increment();
+            throw ex;
+        }
+        long persisted = System.nanoTime();
+        metrics.record(WeatherMetrics.INGEST, "decode", WeatherMetrics.SOURCE, "post", decoded - start);
+        metrics.record(WeatherMetrics.INGEST, "convert", WeatherMetrics.SOURCE, "post", converted - decoded);
+        metrics.record(WeatherMetrics.INGEST, "persist", WeatherMetrics.SOURCE, "post", persisted - converted);
+        metrics.counter(WeatherMetrics.INGEST_SAMPLES, "accepted", WeatherMetrics.STATION, passKey).increment();
+        event.end();
+        if (event.shouldCommit()) {
+            event.station = passKey;
+            event.payloadSize = contentLength;
+            event.persistDuration = persisted - converted;
+            event.commit();
+        }
         return Response.noContent().build();
     }
 
+    /**
+     * Stores samples a gateway or relay buffered during an outage, one sample per line, either as
+     * {@code application/x-ndjson} objects with the form parameter names or as {@code text/plain} lines
+     * in the urlencoded form. Samples that are already stored are reported as duplicates.
+     */
+    @POST
+    @Path("batch")
+    @Consumes({NDJSON, MediaType.TEXT_PLAIN})
+    @Produces(MediaType.APPLICATION_JSON)
+    public void receiveBatch(@Context HttpHeaders headers, InputStream body, @Suspended AsyncResponse response) {
+        MediaType contentType = headers.getMediaType();
+        dispatcher.dispatch(response, () -> storeBatch(contentType, body));
+    }
+
+    private BatchIngestResult storeBatch(MediaType contentType, InputStream body) throws IOException {
+        boolean json = contentType != null && contentType.isCompatible(MediaType.valueOf(NDJSON));
+        List<BatchIngestResult.Item> items = new ArrayList<>();
+        List<WeatherRecord> records = new ArrayList<>();
+        List<Integer> recordItems = new ArrayList<>();
+        long start = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                ++lineNumber;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (items.size() >= maxBatchSize) {
+                    throw new WebApplicationException("More than " + maxBatchSize + " samples",
+                                                      Response.Status.REQUEST_ENTITY_TOO_LARGE);
+                }
+                try {
+                    EcowittForm form;
+                    if (json) {
+                        try (JsonReader jsonReader = Json.createReader(new StringReader(line))) {
+                            form = EcowittForm.fromJson(jsonReader.readObject());
+                        }
+                    } else {
+                        form = EcowittForm.fromUrlEncoded(line.trim());
+                    }
+                    WeatherRecord record = form.toRecord();
+                    recordItems.add(items.size());
+                    records.add(record);
+                    items.add(new BatchIngestResult.Item(lineNumber, record.getStationkey(), record.getSampleTime(),
+                                                         null, null));
+                } catch (IllegalArgumentException | JsonException ex) {
+                    items.add(new BatchIngestResult.Item(lineNumber, null, null, IngestStatus.REJECTED,
+                                                         ex.getMessage()));
+                }
+            }
+        }
+        long decoded = System.nanoTime();
+        List<IngestStatus> statuses = weatherService.storeWeatherBatch(records);
+        metrics.record(WeatherMetrics.INGEST, "decode", WeatherMetrics.SOURCE, "batch", decoded - start);
+        metrics.record(WeatherMetrics.INGEST, "persist", WeatherMetrics.SOURCE, "batch", System.nanoTime() - decoded);
+        for (int i = 0; i < statuses.size(); ++i) {
+            int index = recordItems.get(i);
+            BatchIngestResult.Item item = items.get(index);
+            IngestStatus status = statuses.get(i);
+            items.set(index, new BatchIngestResult.Item(item.line(), item.stationkey(), item.sampleTime(), status,
+                                                        status == IngestStatus.REJECTED ? "not stored" : null));
+        }
+        for (BatchIngestResult.Item item : items) {
+            metrics.counter(WeatherMetrics.INGEST_SAMPLES, item.status().name().toLowerCase(Locale.ROOT),
+                            WeatherMetrics.STATION, item.stationkey()).increment();
+        }
+        return BatchIngestResult.of(items);
+    }
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public WeatherRecord getCurrentWeather() {
-        return weatherService.getCurrent().orElse(null);
+    public void getCurrentWeather(@Suspended AsyncResponse response) {
+        dispatcher.dispatch(response, () -> weatherService.getCurrent().orElse(null));
     }
 
+    /**
+     * @param breaks adds a record with {@code null} values one interval after the last sample before each
+     * gap of the gap index, so charts do not connect across outages
+     */
     @GET
     @Path("day")
     @Produces(MediaType.APPLICATION_JSON)
-    public WeatherSample getDay(@QueryParam("running") boolean runningDay,
-                                @QueryParam("include") String[] fieldsToInclude) {
+    public void getDay(@QueryParam("running") boolean runningDay,
+                       @QueryParam("include") String[] fieldsToInclude,
+                       @QueryParam("breaks") boolean breaks,
+                       @Suspended AsyncResponse response) {
+        dispatcher.dispatch(response, () -> loadDay(runningDay, fieldsToInclude, breaks));
+    }
+
+    private WeatherSeries loadDay(boolean runningDay, String[] fieldsToInclude, boolean breaks)
+            throws SQLException {
         LocalDateTime now = WeatherUtils.convertLocalToUTC(LocalDateTime.now());
         LocalDateTime limit;
         if (runningDay) {
@@ -128,70 +248,100 @@ public class CurrentWeatherResource {
         } else {
             limit = WeatherUtils.convertLocalToUTC(LocalDateTime.of(LocalDate.now(), LocalTime.MIDNIGHT));
         }
-        WeatherSample sample = weatherService.getWeatherData(limit, now);
-        if (fieldsToInclude != null && fieldsToInclude.length > 0) {
-            RecordFilter filter = new RecordFilter(fieldsToInclude);
-            sample.getRecords().forEach(filter);
+        WeatherSeries series = weatherService.getWeatherSeries(limit, now);
+        if (breaks) {
+            series = addBreaks(series, limit, now);
         }
-        return sample;
+        return project(series, fieldsToInclude);
     }
 
-    private static final class RecordFilter implements Consumer<WeatherRecord> {
-
-        private final List<Method> nullSetter;
-
-        public RecordFilter(String[] fieldsToInclude) {
-            nullSetter = buildFilter(fieldsToInclude);
+    /**
+     * Series between {@code from} and {@code to} in UTC. With {@code step}, an ISO duration, one row per
+     * station and step; a range above the query budget is downsampled to a larger step or rejected, the
+     * step read is written as {@code step} in seconds. The statement is cancelled when the client
+     * disconnects.
+     */
+    @GET
+    @Path("range")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void getRange(@QueryParam("from") String strFrom,
+                         @QueryParam("to") String strTo,
+                         @QueryParam("step") String strStep,
+                         @QueryParam("include") String[] fieldsToInclude,
+                         @Context HttpServerRequest request,
+                         @Suspended AsyncResponse response) {
+        LocalDateTime from = requireDateTime("from", strFrom);
+        LocalDateTime to = requireDateTime("to", strTo);
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("to must be after from");
         }
+        Duration step = strStep != null && !strStep.isBlank() ? parseStep(strStep) : null;
+        QueryCancellation cancellation = new QueryCancellation();
+        // the close handler runs on the event loop and cancelling may wait for the database; a dispatcher
+        // permit is not taken, the pool is likely full of the reads to cancel
+        request.response().closeHandler(v -> Thread.startVirtualThread(cancellation::cancel));
+        dispatcher.dispatch(response, () -> project(weatherService.getWeatherSeries(from, to, step, cancellation),
+                                                    fieldsToInclude));
+    }
 
-        @Override
-        public void accept(WeatherRecord t) {
-            for (Method setter : nullSetter) {
-                try {
-                    setter.invoke(t, (Object) null);
-                } catch (Exception ex) {
-                    LOG.log(Level.WARNING, "Cannot invoke setter", ex);
-                }
-            }
-        }
+    private static LocalDateTime requireDateTime(String name, String value) {
+        return WeatherUtils.parseIsoDateTime(value)
+                .orElseThrow(() -> new BadRequestException("Missing or invalid parameter " + name));
+    }
 
-        private Set<String> buildMethodNames(String[] fieldsToInclude) {
-            Set<String> result = new HashSet<>();
-            for (String fieldName : fieldsToInclude) {
-                result.add("set" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1));
+    private static Duration parseStep(String value) {
+        try {
+            Duration result = Duration.parse(value);
+            if (result.toSeconds() <= 0) {
+                throw new BadRequestException("step must be at least one second");
             }
-            result.add("setSampleTime");
             return result;
+        } catch (DateTimeParseException ex) {
+            throw new BadRequestException("Invalid step " + value);
         }
+    }
 
-        private static final Set<Class<?>> PRIMITIVE_CLASSES = Set.of(
-                int.class, long.class, double.class, char.class, byte.class, float.class);
+    /**
+     * The station key is the gateway's PASSKEY, it is only written if asked for with
+     * {@code include=stationkey}.
+     */
+    private static WeatherSeries project(WeatherSeries series, String[] fieldsToInclude) {
+        if (fieldsToInclude == null || fieldsToInclude.length == 0) {
+            return series.project(WeatherSeries.ALL_FIELDS, false);
+        }
+        // sampleTime is always written, unknown names are ignored
+        int fieldMask = 0;
+        boolean withStationkey = false;
+        for (String name : fieldsToInclude) {
+            WeatherField field = WeatherField.fromString(name);
+            if (field != null) {
+                fieldMask |= WeatherSeries.bit(field);
+            } else if ("stationkey".equals(name)) {
+                withStationkey = true;
+            }
+        }
+        return series.project(fieldMask, withStationkey);
+    }
 
-        private List<Method> collectSetter() {
-            Method[] methods = WeatherRecord.class.getMethods();
-            List<Method> result = new ArrayList<>();
-            for (Method method : methods) {
-                if (method.getName().startsWith("set") && method.getParameterCount() == 1
-                        && !PRIMITIVE_CLASSES.contains(method.getParameterTypes()[0])) {
-                    result.add(method);
+    private WeatherSeries addBreaks(WeatherSeries series, LocalDateTime from, LocalDateTime to) {
+        record Break(String stationkey, LocalDateTime time) {}
+        List<Break> result = new ArrayList<>();
+        for (StationCoverage coverage : gapIndex.getCoverage(null, from, to)) {
+            for (StationCoverage.Gap gap : coverage.gaps()) {
+                // a gap starting with the range is the time before the first sample, there is no line to break
+                LocalDateTime time = gap.from().plusSeconds(coverage.intervalSeconds());
+                if (gap.from().isAfter(from) && time.isBefore(to)) {
+                    result.add(new Break(coverage.stationkey(), time));
                 }
             }
-            return result;
         }
-
-        private List<Method> buildFilter(String[] fieldsToInclude) {
-            Set<String> methodNames = buildMethodNames(fieldsToInclude);
-            return collectSetter().stream()
-                    .filter(m -> !methodNames.contains(m.getName()))
-                    .collect(Collectors.toList());
+        result.sort(Comparator.comparing(Break::time));
+        String[] stationkeys = new String[result.size()];
+        long[] times = new long[result.size()];
+        for (int i = 0; i < times.length; ++i) {
+            stationkeys[i] = result.get(i).stationkey();
+            times[i] = result.get(i).time().toEpochSecond(ZoneOffset.UTC);
         }
-    }
-
-    private static int parseFrequency(String strFrequency) {
-        if (strFrequency == null) return -1;
-        String toParse = strFrequency.endsWith("M")
-                ? strFrequency.substring(0, strFrequency.length() - 1)
-                : strFrequency;
-        return WeatherUtils.parseLongValue(toParse).map(Long::intValue).orElse(-1);
+        return series.withBreaks(stationkeys, times);
     }
 }
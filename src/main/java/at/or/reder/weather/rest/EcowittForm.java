@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.model.WeatherUtils;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.ws.rs.FormParam;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The sample an Ecowitt gateway posts in the "customized" upload, in imperial units. Bound as
+ * {@code @BeanParam} by {@code POST /current} and parsed from single lines by {@code POST /current/batch},
+ * so both convert with the same code. Missing numbers are 0, like the primitive form parameters.
+ */
+public class EcowittForm {
+
+    @FormParam("PASSKEY") String passKey;
+    @FormParam("stationtype") String stationtype;
+    @FormParam("runtime") long runtime;
+    @FormParam("heap") long heap;
+    @FormParam("dateutc") String dateutc;
+    @FormParam("tempinf") double tempinf;
+    @FormParam("humidityin") double humidityin;
+    @FormParam("baromrelin") double baromrelin;
+    @FormParam("baromabsin") double baromabsin;
+    @FormParam("tempf") double tempf;
+    @FormParam("humidity") double humidity;
+    @FormParam("winddir") int winddir;
+    @FormParam("windspeedmph") double windspeedmph;
+    @FormParam("windgustmph") double windgustmph;
+    @FormParam("maxdailygust") double maxdailygust;
+    @FormParam("solarradiation") double solarradiation;
+    @FormParam("uv") int uv;
+    @FormParam("rainratein") double rainratein;
+    @FormParam("eventrainin") double eventrainin;
+    @FormParam("hourlyrainin") double hourlyrainin;
+    @FormParam("dailyrainin") double dailyrainin;
+    @FormParam("weeklyrainin") double weeklyrainin;
+    @FormParam("monthlyrainin") double monthlyrainin;
+    @FormParam("yearlyrainin") double yearlyrainin;
+    @FormParam("totalrainin") double totalrainin;
+    @FormParam("wh65batt") int wh65batt;
+    @FormParam("freq") String freq;
+    @FormParam("model") String model;
+    @FormParam("interval") int interval;
+
+    public String getPassKey() {
+        return passKey;
+    }
+
+    /**
+     * @return {@code dateutc} in UTC, {@code null} if it is missing or malformed
+     */
+    public ZonedDateTime parseDateutc() {
+        return WeatherUtils.parseUTCDateTime(dateutc);
+    }
+
+    public int parseFrequency() {
+        if (freq == null) return -1;
+        String toParse = freq.endsWith("M")
+                ? freq.substring(0, freq.length() - 1)
+                : freq;
+        return WeatherUtils.parseLongValue(toParse).map(Long::intValue).orElse(-1);
+    }
+
+    /**
+     * Converts to metric units.
+     */
+    public WeatherRecord toRecord(ZonedDateTime dt, int frequency) {
+        WeatherRecord result = new WeatherRecord();
+        result.setStationkey(passKey);
+        result.setStationtype(stationtype);
+        result.setTempin(WeatherUtils.fahrenheitToCelsius(tempinf));
+        result.setRuntime(runtime);
+        result.setHeap(heap);
+        result.setFreq(frequency);
+        result.setWh65batt(wh65batt);
+        result.setModel(model);
+        result.setInterval(interval);
+        result.setTempout(WeatherUtils.fahrenheitToCelsius(tempf));
+        result.setHumidityin(humidityin);
+        result.setHumidityout(humidity);
+        result.setPressurerel(WeatherUtils.inHgToHPa(baromrelin));
+        result.setPressureabs(WeatherUtils.inHgToHPa(baromabsin));
+        result.setWinddir((double) winddir);
+        result.setWindspeed(WeatherUtils.mphToKmh(windspeedmph));
+        result.setWindgust(WeatherUtils.mphToKmh(windgustmph));
+        result.setMaxdailygust(WeatherUtils.mphToKmh(maxdailygust));
+        result.setSolarradiation(solarradiation);
+        result.setUv(uv);
+        result.setRainrate(WeatherUtils.inchToMm(rainratein));
+        result.setEventrain(WeatherUtils.inchToMm(eventrainin));
+        result.setHourlyrain(WeatherUtils.inchToMm(hourlyrainin));
+        result.setDailyrain(WeatherUtils.inchToMm(dailyrainin));
+        result.setWeeklyrain(WeatherUtils.inchToMm(weeklyrainin));
+        result.setMonthlyrain(WeatherUtils.inchToMm(monthlyrainin));
+        result.setYearlyrain(WeatherUtils.inchToMm(yearlyrainin));
+        result.setTotalrain(WeatherUtils.inchToMm(totalrainin));
+        result.setSampleTime(dt.toLocalDateTime());
+        return result;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code PASSKEY} or {@code dateutc} is missing or malformed
+     */
+    public WeatherRecord toRecord() {
+        if (passKey == null || passKey.isBlank()) {
+            throw new IllegalArgumentException("PASSKEY missing");
+        }
+        ZonedDateTime dt = parseDateutc();
+        if (dt == null) {
+            throw new IllegalArgumentException("Invalid dateutc " + dateutc);
+        }
+        return toRecord(dt, parseFrequency());
+    }
+
+    /**
+     * @param line {@code name=value&...} as in the form post
+     */
+    public static EcowittForm fromUrlEncoded(String line) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : line.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            params.putIfAbsent(name, value);
+        }
+        return of(params::get);
+    }
+
+    /**
+     * @param json an object with the form parameter names, values as numbers or strings
+     */
+    public static EcowittForm fromJson(JsonObject json) {
+        return of(name -> {
+            JsonValue value = json.get(name);
+            if (value == null || value == JsonValue.NULL) {
+                return null;
+            }
+            return switch (value) {
+                case JsonString s -> s.getString();
+                case JsonNumber n -> n.toString();
+                default -> value.toString();
+            };
+        });
+    }
+
+    static EcowittForm of(Function<String, String> param) {
+        EcowittForm form = new EcowittForm();
+        form.passKey = param.apply("PASSKEY");
+        form.stationtype = param.apply("stationtype");
+        form.runtime = parseLong(param, "runtime");
+        form.heap = parseLong(param, "heap");
+        form.dateutc = param.apply("dateutc");
+        form.tempinf = parseDouble(param, "tempinf");
+        form.humidityin = parseDouble(param, "humidityin");
+        form.baromrelin = parseDouble(param, "baromrelin");
+        form.baromabsin = parseDouble(param, "baromabsin");
+        form.tempf = parseDouble(param, "tempf");
+        form.humidity = parseDouble(param, "humidity");
+        form.winddir = (int) parseLong(param, "winddir");
+        form.windspeedmph = parseDouble(param, "windspeedmph");
+        form.windgustmph = parseDouble(param, "windgustmph");
+        form.maxdailygust = parseDouble(param, "maxdailygust");
+        form.solarradiation = parseDouble(param, "solarradiation");
+        form.uv = (int) parseLong(param, "uv");
+        form.rainratein = parseDouble(param, "rainratein");
+        form.eventrainin = parseDouble(param, "eventrainin");
+        form.hourlyrainin = parseDouble(param, "hourlyrainin");
+        form.dailyrainin = parseDouble(param, "dailyrainin");
+        form.weeklyrainin = parseDouble(param, "weeklyrainin");
+        form.monthlyrainin = parseDouble(param, "monthlyrainin");
+        form.yearlyrainin = parseDouble(param, "yearlyrainin");
+        form.totalrainin = parseDouble(param, "totalrainin");
+        form.wh65batt = (int) parseLong(param, "wh65batt");
+        form.freq = param.apply("freq");
+        form.model = param.apply("model");
+        form.interval = (int) parseLong(param, "interval");
+        return form;
+    }
+
+    private static double parseDouble(Function<String, String> param, String name) {
+        String value = param.apply(name);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid " + name + " " + value);
+        }
+    }
+
+    private static long parseLong(Function<String, String> param, String name) {
+        String value = param.apply(name);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid " + name + " " + value);
+        }
+    }
+}
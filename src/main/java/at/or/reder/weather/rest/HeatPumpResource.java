@@ -15,30 +15,60 @@
  */
 package at.or.reder.weather.rest;
 
-import at.or.reder.weather.model.HeatpumpEnergyRecord;
+import at.or.reder.weather.model.AlignmentMode;
+import at.or.reder.weather.model.HeatpumpDataBucket;
+import at.or.reder.weather.model.HeatpumpEfficiencyDay;
+import at.or.reder.weather.model.HeatpumpField;
+import at.or.reder.weather.model.HeatpumpFileType;
 import at.or.reder.weather.model.HeatpumpScope;
+import at.or.reder.weather.model.HeatpumpWeatherRow;
+import at.or.reder.weather.model.WeatherUtils;
+import at.or.reder.weather.service.HeatpumpAnalyticsService;
 import at.or.reder.weather.service.HeatpumpService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.Part;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
  *
@@ -48,9 +78,24 @@ import java.util.Collection;
 @ApplicationScoped
 public class HeatPumpResource {
 
+  private static final Logger LOG = Logger.getLogger(HeatPumpResource.class.getName());
+
   @Inject
   private HeatpumpService heatpumpService;
 
+  @Inject
+  private HeatpumpAnalyticsService analyticsService;
+
+  @Inject
+  private VirtualThreadDispatcher dispatcher;
+
+  static final int DEFAULT_MAX_POINTS = 1000;
+  static final int MAX_POINTS_LIMIT = 20000;
+
+  /**
+   * Stays on the worker thread: the parts are read from the servlet request, which is not usable once
+   * the request is suspended.
+   */
   @POST
   @Consumes(MediaType.MULTIPART_FORM_DATA)
   @Transactional(Transactional.TxType.REQUIRED)
@@ -59,21 +104,93 @@ public class HeatPumpResource {
     Collection<Part> parts = request.getParts();
     for (Part part : parts) {
       String filename = part.getSubmittedFileName();
-      try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(part.getInputStream()))) {
-        if (filename.startsWith("domestic_hot_water")) {
-          heatpumpService.insertHotWaterData(reader);
-        } else if (filename.startsWith("system")) {
-          heatpumpService.insertSystemData(reader);
-        } else if (filename.startsWith("zone")) {
-          heatpumpService.insertZoneData(reader);
-        } else if (filename.startsWith("energy")) {
-          heatpumpService.insertEnergyData(reader);
-        }
+      if (filename == null) {
+        continue;
+      }
+      String lowerName = filename.toLowerCase(Locale.ROOT);
+      if (lowerName.endsWith(".zip")) {
+        importArchive(filename, part::getInputStream);
+      } else if (lowerName.endsWith(".gz")) {
+        importFile(filename.substring(0, filename.length() - 3), () -> new GZIPInputStream(part.getInputStream()));
+      } else {
+        importFile(filename, part::getInputStream);
       }
     }
     return Response.noContent().build();
   }
 
+  @FunctionalInterface
+  private interface StreamOpener {
+
+    InputStream open() throws IOException;
+  }
+
+  /**
+   * Hashes the (decompressed) content, and only if it is unknown opens it a second time for the import.
+   * Nothing is buffered beyond the reader buffers.
+   */
+  private void importFile(String filename, StreamOpener opener) throws IOException
+  {
+    HeatpumpFileType fileType = HeatpumpFileType.fromFilename(baseName(filename));
+    if (fileType == null) {
+      return;
+    }
+    String contentHash;
+    try (InputStream in = opener.open()) {
+      contentHash = WeatherUtils.sha256Hex(in);
+    }
+    if (heatpumpService.isImported(contentHash)) {
+      LOG.log(Level.INFO, "Skipping {0}, content already imported", filename);
+      return;
+    }
+    try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(opener.open()))) {
+      heatpumpService.importFile(fileType, filename, contentHash, reader);
+    }
+  }
+
+  /**
+   * Streams a ZIP archive twice, entry by entry: the first pass hashes the recognised entries, the second
+   * imports those not seen before.
+   */
+  private void importArchive(String archiveName, StreamOpener opener) throws IOException
+  {
+    Map<String, String> pending = new LinkedHashMap<>();
+    try (ZipInputStream zip = new ZipInputStream(opener.open())) {
+      ZipEntry entry;
+      while ((entry = zip.getNextEntry()) != null) {
+        if (!entry.isDirectory() && HeatpumpFileType.fromFilename(baseName(entry.getName())) != null) {
+          String contentHash = WeatherUtils.sha256Hex(zip);
+          if (heatpumpService.isImported(contentHash) || pending.containsValue(contentHash)) {
+            LOG.log(Level.INFO, "Skipping {0}!{1}, content already imported", new Object[]{archiveName, entry.getName()});
+          } else {
+            pending.put(entry.getName(), contentHash);
+          }
+        }
+      }
+    }
+    if (pending.isEmpty()) {
+      return;
+    }
+    try (ZipInputStream zip = new ZipInputStream(opener.open())) {
+      ZipEntry entry;
+      while ((entry = zip.getNextEntry()) != null) {
+        String contentHash = pending.get(entry.getName());
+        if (contentHash != null) {
+          // not closed, that would close the archive stream; the reader stops at the end of the entry
+          LineNumberReader reader = new LineNumberReader(new InputStreamReader(zip));
+          heatpumpService.importFile(HeatpumpFileType.fromFilename(baseName(entry.getName())),
+                  archiveName + "!" + entry.getName(), contentHash, reader);
+        }
+      }
+    }
+  }
+
+  private static String baseName(String path)
+  {
+    int slash = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+    return slash >= 0 ? path.substring(slash + 1) : path;
+  }
+
   @GET
   @Path("energy/{scope:heating|water}")
   public Response getEnergyData(@QueryParam("start") String strDateFrom,
@@ -86,9 +203,213 @@ public class HeatPumpResource {
   @GET
   @Path("energy/{scope:heating|water}/{day:\\d{4}-\\d{1,2}-\\d{1,2}}")
   @Produces(MediaType.APPLICATION_JSON)
-  public HeatpumpEnergyRecord getEnergy(@PathParam("scope") HeatpumpScope scope,
-          @PathParam("day") String strDay)
+  public void getEnergy(@PathParam("scope") HeatpumpScope scope,
+          @PathParam("day") String strDay,
+          @Suspended AsyncResponse response)
   {
-    return heatpumpService.getEnergy(scope, LocalDate.parse(strDay)).orElse(null);
+    LocalDate day = LocalDate.parse(strDay);
+    dispatcher.dispatch(response, () -> heatpumpService.getEnergy(scope, day).orElse(null));
+  }
+
+  /**
+   * Heatpump time series, reduced to at most {@code maxPoints} buckets with min/max/avg per field.
+   *
+   * @param strFrom UTC date or date-time, inclusive
+   * @param strTo UTC date or date-time, exclusive
+   * @param strFields comma separated column names, all columns if empty
+   */
+  @GET
+  @Path("data")
+  @Produces(MediaType.APPLICATION_JSON)
+  public void getData(@QueryParam("from") String strFrom,
+          @QueryParam("to") String strTo,
+          @QueryParam("fields") String strFields,
+          @QueryParam("maxPoints") @DefaultValue("" + DEFAULT_MAX_POINTS) int maxPoints,
+          @Suspended AsyncResponse response)
+  {
+    LocalDateTime from = requireDateTime("from", strFrom);
+    LocalDateTime to = requireDateTime("to", strTo);
+    if (!to.isAfter(from)) {
+      throw new BadRequestException("to must be after from");
+    }
+    if (maxPoints < 1 || maxPoints > MAX_POINTS_LIMIT) {
+      throw new BadRequestException("maxPoints must be between 1 and " + MAX_POINTS_LIMIT);
+    }
+    List<HeatpumpField> fields = parseFields(strFields);
+    StreamingOutput output = out -> {
+      try (JsonGenerator gen = Json.createGenerator(out)) {
+        gen.writeStartObject()
+                .write("from", from.toString())
+                .write("to", to.toString());
+        gen.writeStartArray("fields");
+        fields.forEach(f -> gen.write(f.getColumn()));
+        gen.writeEnd();
+        gen.writeStartArray("points");
+        long bucketSeconds = heatpumpService.streamData(from, to, fields, maxPoints,
+                bucket -> writeBucket(gen, fields, bucket));
+        gen.writeEnd();
+        gen.write("bucketSeconds", bucketSeconds);
+        gen.writeEnd();
+      } catch (SQLException ex) {
+        throw new IOException(ex);
+      }
+    };
+    // written by the dispatched task, the connection is held while streaming
+    dispatcher.dispatch(response, () -> Response.ok(output).build());
+  }
+
+  private static List<HeatpumpField> parseFields(String strFields)
+  {
+    if (strFields == null || strFields.isBlank()) {
+      return Arrays.asList(HeatpumpField.values());
+    }
+    List<HeatpumpField> result = new ArrayList<>();
+    for (String strField : strFields.split(",")) {
+      HeatpumpField field = HeatpumpField.fromString(strField.trim());
+      if (field == null) {
+        throw new BadRequestException("Unknown field " + strField);
+      }
+      if (!result.contains(field)) {
+        result.add(field);
+      }
+    }
+    return result;
+  }
+
+  private static void writeBucket(JsonGenerator gen, List<HeatpumpField> fields, HeatpumpDataBucket bucket)
+  {
+    gen.writeStartObject()
+            .write("time", bucket.time().toString())
+            .write("samples", bucket.samples());
+    for (int i = 0; i < fields.size(); ++i) {
+      gen.writeStartObject(fields.get(i).getColumn());
+      writeNumber(gen, "min", bucket.min()[i]);
+      writeNumber(gen, "max", bucket.max()[i]);
+      writeNumber(gen, "avg", bucket.avg()[i]);
+      gen.writeEnd();
+    }
+    gen.writeEnd();
+  }
+
+  /**
+   * Heatpump samples aligned with outdoor weather samples, streamed as a JSON array.
+   *
+   * @param strFrom UTC date or date-time, inclusive
+   * @param strTo UTC date or date-time, exclusive
+   * @param strBucket ISO-8601 duration
+   * @param strAlign {@code bucket} or {@code nearest}
+   */
+  @GET
+  @Path("analytics/weather")
+  @Produces(MediaType.APPLICATION_JSON)
+  public void getWeatherAlignment(@QueryParam("from") String strFrom,
+          @QueryParam("to") String strTo,
+          @QueryParam("bucket") @DefaultValue("PT5M") String strBucket,
+          @QueryParam("align") @DefaultValue("bucket") String strAlign,
+          @QueryParam("station") String station,
+          @Suspended AsyncResponse response)
+  {
+    LocalDateTime from = requireDateTime("from", strFrom);
+    LocalDateTime to = requireDateTime("to", strTo);
+    Duration bucket = parseDuration(strBucket);
+    AlignmentMode mode = AlignmentMode.fromString(strAlign);
+    if (mode == null) {
+      throw new BadRequestException("Unknown alignment " + strAlign);
+    }
+    StreamingOutput output = out -> {
+      try (JsonGenerator gen = Json.createGenerator(out)) {
+        gen.writeStartArray();
+        analyticsService.alignWithWeather(from, to, bucket, mode, station, row -> writeRow(gen, row));
+        gen.writeEnd();
+      } catch (SQLException ex) {
+        throw new IOException(ex);
+      }
+    };
+    dispatcher.dispatch(response, () -> Response.ok(output).build());
+  }
+
+  /**
+   * Daily heating COP against heating degree days, streamed as a JSON array.
+   *
+   * @param strFrom local day, inclusive
+   * @param strTo local day, inclusive
+   */
+  @GET
+  @Path("analytics/efficiency")
+  @Produces(MediaType.APPLICATION_JSON)
+  public void getDailyEfficiency(@QueryParam("from") String strFrom,
+          @QueryParam("to") String strTo,
+          @QueryParam("station") String station,
+          @Suspended AsyncResponse response)
+  {
+    LocalDate from = requireDateTime("from", strFrom).toLocalDate();
+    LocalDate to = requireDateTime("to", strTo).toLocalDate();
+    StreamingOutput output = out -> {
+      try (JsonGenerator gen = Json.createGenerator(out)) {
+        gen.writeStartArray();
+        analyticsService.dailyEfficiency(from, to, station, day -> writeDay(gen, day));
+        gen.writeEnd();
+      } catch (SQLException ex) {
+        throw new IOException(ex);
+      }
+    };
+    dispatcher.dispatch(response, () -> Response.ok(output).build());
+  }
+
+  private static LocalDateTime requireDateTime(String name, String value)
+  {
+    return WeatherUtils.parseIsoDateTime(value)
+            .orElseThrow(() -> new BadRequestException("Missing or invalid parameter " + name));
+  }
+
+  private static Duration parseDuration(String value)
+  {
+    try {
+      Duration result = Duration.parse(value);
+      if (result.toSeconds() <= 0) {
+        throw new BadRequestException("Duration must be positive");
+      }
+      return result;
+    } catch (DateTimeParseException ex) {
+      throw new BadRequestException("Invalid duration " + value);
+    }
+  }
+
+  private static void writeRow(JsonGenerator gen, HeatpumpWeatherRow row)
+  {
+    gen.writeStartObject()
+            .write("time", row.time().toString())
+            .write("heatpumpSamples", row.heatpumpSamples());
+    writeNumber(gen, "roomTemp", row.roomTemp());
+    writeNumber(gen, "roomTempSet", row.roomTempSet());
+    writeNumber(gen, "heatpumpOutdoorTemp", row.heatpumpOutdoorTemp());
+    writeNumber(gen, "hotWaterTemp", row.hotWaterTemp());
+    gen.write("weatherSamples", row.weatherSamples());
+    writeNumber(gen, "tempout", row.tempout());
+    writeNumber(gen, "solarradiation", row.solarradiation());
+    writeNumber(gen, "windspeed", row.windspeed());
+    gen.writeEnd();
+  }
+
+  private static void writeDay(JsonGenerator gen, HeatpumpEfficiencyDay day)
+  {
+    gen.writeStartObject()
+            .write("day", day.day().toString())
+            .write("weatherSamples", day.weatherSamples());
+    writeNumber(gen, "meanOutdoorTemp", day.meanOutdoorTemp());
+    writeNumber(gen, "heatingDegreeDays", day.heatingDegreeDays());
+    writeNumber(gen, "heatGenerated", day.heatGenerated());
+    writeNumber(gen, "electricalConsumed", day.electricalConsumed());
+    writeNumber(gen, "cop", day.cop());
+    gen.writeEnd();
+  }
+
+  static void writeNumber(JsonGenerator gen, String name, double value)
+  {
+    if (Double.isNaN(value)) {
+      gen.writeNull(name);
+    } else {
+      gen.write(name, value);
+    }
   }
 }
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.service.WeatherMetrics;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Token bucket per PASSKEY in front of the single sample ingest, checked before a request takes a
+ * database permit, so a gateway posting far too often cannot starve the other stations. A bucket holds
+ * up to {@code burst} tokens and gains {@code rate} tokens per minute, every stored sample takes one.
+ * <p>
+ * Above the rate a sample is either rejected or held back. A held sample is stored by the dispatcher as
+ * soon as the bucket has a token again; a newer sample of the same station replaces it, so the latest
+ * one survives. Throttled samples are counted in {@code weather_ingest_throttled} per station.
+ * <p>
+ * A held sample was already answered, so it is held again if the dispatcher has no permit for it, and
+ * stored before the application stops.
+ * <p>
+ * Buckets that are full and idle for {@code idle} are dropped. Beyond {@code max-stations} buckets new
+ * PASSKEYs share one bucket that rejects above the rate.
+ */
+@ApplicationScoped
+public class IngestAdmission {
+
+    private static final Logger LOG = Logger.getLogger(IngestAdmission.class.getName());
+    private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public enum Decision {
+        ADMITTED,
+        /**
+         * Held back and stored later, the request is answered as if it was stored.
+         */
+        COALESCED,
+        REJECTED
+    }
+
+    /**
+     * @param retryAfter seconds until the station may post again, for {@link Decision#REJECTED}
+     */
+    public record Result(Decision decision, long retryAfter) {
+
+        private static final Result ADMITTED = new Result(Decision.ADMITTED, 0);
+        private static final Result COALESCED = new Result(Decision.COALESCED, 0);
+    }
+
+    @Inject
+    AdmissionConfig config;
+
+    @Inject
+    WeatherMetrics metrics;
+
+    @Inject
+    VirtualThreadDispatcher dispatcher;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("weather-admission").daemon().factory());
+    private volatile boolean stopped;
+    private Bucket overflow;
+
+    /**
+     * Guarded by itself.
+     */
+    private final class Bucket {
+
+        private final String passKey;
+        private final double tokensPerNano;
+        private final double capacity;
+        private final AdmissionConfig.Mode mode;
+        private double tokens;
+        private long refilled;
+        private long used;
+        private Runnable pending;
+        private boolean evicted;
+
+        /**
+         * @param shared the bucket of the PASSKEYs beyond {@code max-stations}
+         */
+        Bucket(String passKey, boolean shared) {
+            this.passKey = passKey;
+            AdmissionConfig.Station station = config.stations().get(passKey);
+            double rate = station != null ? station.rate().orElse(config.rate()) : config.rate();
+            int burst = station != null ? station.burst().orElse(config.burst()) : config.burst();
+            mode = shared ? AdmissionConfig.Mode.REJECT
+                    : station != null ? station.mode().orElse(config.mode()) : config.mode();
+            tokensPerNano = rate / NANOS_PER_MINUTE;
+            capacity = Math.max(1, burst);
+            tokens = capacity;
+            refilled = System.nanoTime();
+            used = refilled;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilled) * tokensPerNano);
+            refilled = now;
+        }
+
+        long nanosToToken() {
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        overflow = new Bucket("overflow", true);
+        scheduler.scheduleWithFixedDelay(this::evict, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stores the held samples, the database is still available here.
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        stopped = true;
+        scheduler.shutdownNow();
+        for (Bucket bucket : buckets.values()) {
+            Runnable store;
+            synchronized (bucket) {
+                store = bucket.pending;
+                bucket.pending = null;
+            }
+            if (store != null) {
+                storeNow(bucket, store);
+            }
+        }
+    }
+
+    private void storeNow(Bucket bucket, Runnable store) {
+        ManagedContext requestContext = Arc.container().requestContext();
+        boolean activated = !requestContext.isActive();
+        if (activated) {
+            requestContext.activate();
+        }
+        try {
+            store.run();
+        } catch (RuntimeException ex) {
+            LOG.log(Level.WARNING, "Cannot store the held sample of " + bucket.passKey, ex);
+        } finally {
+            if (activated) {
+                requestContext.terminate();
+            }
+        }
+    }
+
+    /**
+     * @param store stores the sample, run later by the dispatcher if the sample is coalesced
+     */
+    public Result admit(String passKey, Runnable store) {
+        if (!config.enabled()) {
+            return Result.ADMITTED;
+        }
+        Result result;
+        do {
+            result = admit(bucket(passKey != null ? passKey : ""), passKey, store);
+        } while (result == null);
+        return result;
+    }
+
+    private Bucket bucket(String key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null && buckets.size() >= config.maxStations() && !config.stations().containsKey(key)) {
+            return overflow;
+        }
+        return bucket != null ? bucket : buckets.computeIfAbsent(key, k -> new Bucket(k, false));
+    }
+
+    /**
+     * @return {@code null} if the bucket was dropped meanwhile
+     */
+    private Result admit(Bucket bucket, String passKey, Runnable store) {
+        synchronized (bucket) {
+            if (bucket.evicted) {
+                return null;
+            }
+            if (stopped) {
+                // the held samples are stored or being stored
+                return Result.ADMITTED;
+            }
+            long now = System.nanoTime();
+            bucket.refill(now);
+            bucket.used = now;
+            // a held sample is older than this one, it must not be overtaken
+            if (bucket.pending == null && bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return Result.ADMITTED;
+            }
+            if (bucket.mode == AdmissionConfig.Mode.REJECT) {
+                count(passKey, "rejected");
+                return new Result(Decision.REJECTED, Math.max(1, (long) Math.ceil(bucket.nanosToToken() / 1e9)));
+            }
+            if (bucket.pending != null) {
+                count(passKey, "coalesced");
+            } else {
+                count(passKey, "deferred");
+                schedule(bucket, bucket.nanosToToken());
+            }
+            bucket.pending = store;
+            return Result.COALESCED;
+        }
+    }
+
+    private void flush(Bucket bucket) {
+        Runnable store;
+        synchronized (bucket) {
+            if (bucket.pending == null) {
+                // drained by onStop
+                return;
+            }
+            bucket.refill(System.nanoTime());
+            if (bucket.tokens < 1) {
+                schedule(bucket, bucket.nanosToToken());
+                return;
+            }
+            bucket.tokens -= 1;
+            store = bucket.pending;
+            bucket.pending = null;
+        }
+        LOG.log(Level.FINE, "Storing the held sample of {0}", bucket.passKey);
+        dispatcher.execute(store, ex -> {
+            if (ex instanceof ServiceUnavailableException) {
+                hold(bucket, store);
+            } else {
+                LOG.log(Level.WARNING, "Cannot store the held sample of " + bucket.passKey, ex);
+            }
+        });
+    }
+
+    /**
+     * Holds a sample again that got no permit, unless a newer one is held meanwhile.
+     */
+    private void hold(Bucket bucket, Runnable store) {
+        synchronized (bucket) {
+            // the token was not used
+            bucket.tokens = Math.min(bucket.capacity, bucket.tokens + 1);
+            if (bucket.pending != null) {
+                count(bucket.passKey, "coalesced");
+                return;
+            }
+            if (!stopped) {
+                bucket.pending = store;
+                schedule(bucket, Math.max(RETRY_NANOS, bucket.nanosToToken()));
+                return;
+            }
+        }
+        // the held samples were already drained
+        storeNow(bucket, store);
+    }
+
+    private void schedule(Bucket bucket, long delayNanos) {
+        try {
+            scheduler.schedule(() -> flush(bucket), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            // stopping, the held sample is stored by onStop
+            LOG.log(Level.FINE, "Flush of {0} not scheduled", bucket.passKey);
+        }
+    }
+
+    private void evict() {
+        long idle = config.idle().toNanos();
+        buckets.values().removeIf(bucket -> {
+            synchronized (bucket) {
+                long now = System.nanoTime();
+                bucket.refill(now);
+                bucket.evicted = bucket.pending == null && bucket.tokens >= bucket.capacity
+                                 && now - bucket.used > idle;
+                return bucket.evicted;
+            }
+        });
+    }
+
+    private void count(String passKey, String result) {
+        metrics.counter(WeatherMetrics.INGEST_THROTTLED, result, WeatherMetrics.STATION, passKey).increment();
+    }
+}
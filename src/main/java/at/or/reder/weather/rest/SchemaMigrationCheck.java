@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.model.MigrationStatus;
+import at.or.reder.weather.service.SchemaMigrationService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Not ready until the background schema migration completed.
+ */
+@Readiness
+@ApplicationScoped
+public class SchemaMigrationCheck implements HealthCheck {
+
+    @Inject
+    SchemaMigrationService schemaMigration;
+
+    @Override
+    public HealthCheckResponse call() {
+        MigrationStatus status = schemaMigration.getStatus();
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("schema")
+                .status(status.state() == MigrationStatus.State.COMPLETED)
+                .withData("state", status.state().name())
+                .withData("executedChangeSets", status.executedChangeSets())
+                .withData("pendingChangeSets", status.pendingChangeSets())
+                .withData("spooledSamples", status.spooledSamples());
+        if (status.currentChangeSet() != null) {
+            builder.withData("currentChangeSet", status.currentChangeSet());
+        }
+        if (status.error() != null) {
+            builder.withData("error", status.error());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.model.WeatherSample;
+import at.or.reder.weather.model.WeatherSeries;
+import at.or.reder.weather.service.RangeQueryEvent;
+import at.or.reder.weather.service.WeatherMetrics;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Times the JSON serialization of range query results, which happens after the resource method returned,
+ * and emits a {@link RangeQueryEvent} for it.
+ */
+@Provider
+public class SerializationTimingInterceptor implements WriterInterceptor {
+
+    @Inject
+    WeatherMetrics metrics;
+
+    @Context
+    UriInfo uriInfo;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        LocalDateTime queryFrom;
+        LocalDateTime queryTo;
+        int rows;
+        switch (context.getEntity()) {
+            case WeatherSample sample -> {
+                queryFrom = sample.getQueryFrom();
+                queryTo = sample.getQueryTo();
+                rows = sample.getRecords() != null ? sample.getRecords().size() : 0;
+            }
+            case WeatherSeries series -> {
+                queryFrom = series.getQueryFrom();
+                queryTo = series.getQueryTo();
+                rows = series.size();
+            }
+            case null, default -> {
+                context.proceed();
+                return;
+            }
+        }
+        RangeQueryEvent event = new RangeQueryEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            context.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.record(WeatherMetrics.QUERY, "serialize", WeatherMetrics.RANGE,
+                           WeatherMetrics.rangeTag(queryFrom, queryTo), elapsed);
+            event.end();
+            if (event.shouldCommit()) {
+                if (queryFrom != null && queryTo != null) {
+                    event.span = Duration.between(queryFrom, queryTo).toSeconds();
+                }
+                event.rows = rows;
+                List<String> include = uriInfo.getQueryParameters().get("include");
+                event.projection = include != null ? String.join(",", include) : "";
+                event.serializationTime = elapsed;
+                event.commit();
+            }
+        }
+    }
+}
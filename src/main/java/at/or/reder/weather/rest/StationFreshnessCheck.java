@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.model.StationStatus;
+import at.or.reder.weather.service.StationMonitorService;
+import io.smallrye.health.api.Wellness;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Instant;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+/**
+ * Reports DOWN while any known station is silent beyond its allowed interval. Registered as a wellness
+ * check ({@code /q/health/well}, also part of {@code /q/health}): as readiness it would take the pod out
+ * of the service the stations post to, and as liveness it would restart the pod for a fault outside of it.
+ */
+@Wellness
+@ApplicationScoped
+public class StationFreshnessCheck implements HealthCheck {
+
+    @Inject
+    StationMonitorService stationMonitor;
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("stations").up();
+        for (StationStatus status : stationMonitor.getStations(Instant.now())) {
+            if (status.stale()) {
+                builder.down().withData(status.stationkey(), "silent for " + status.silentFor().toSeconds() + "s");
+            } else {
+                builder.withData(status.stationkey(), "ok");
+            }
+        }
+        return builder.build();
+    }
+}
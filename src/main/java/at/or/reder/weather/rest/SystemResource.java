@@ -4,47 +4,91 @@
  */
 package at.or.reder.weather.rest;
 
-import io.agroal.api.AgroalDataSource;
-import io.quarkus.agroal.DataSource;
+import at.or.reder.weather.model.MigrationStatus;
+import at.or.reder.weather.service.FlightRecorderService;
+import at.or.reder.weather.service.SchemaMigrationService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import java.sql.Connection;
-import java.util.Map;
-import liquibase.Contexts;
-import liquibase.LabelExpression;
-import liquibase.Liquibase;
-import liquibase.Scope;
-import liquibase.database.Database;
-import liquibase.database.DatabaseFactory;
-import liquibase.database.jvm.JdbcConnection;
-import liquibase.resource.ClassLoaderResourceAccessor;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 @Path("system")
 public class SystemResource {
 
     @Inject
-    @DataSource("weather")
-    AgroalDataSource ds;
+    SchemaMigrationService schemaMigration;
 
+    @Inject
+    FlightRecorderService flightRecorder;
+
+    @ConfigProperty(name = "weather.jfr.dump-enabled", defaultValue = "false")
+    boolean dumpEnabled;
+
+    /**
+     * Starts the schema migration in the background, progress is reported by {@link #getMigrationStatus()}.
+     */
     @PUT
     @Path("updateDatabaseMetadata")
-    public Response updateDatabaseMetadata() throws Exception {
-        Scope.child(Map.of(), () -> {
-            try (Connection connection = ds.getConnection()) {
-                Database database = DatabaseFactory.getInstance()
-                        .findCorrectDatabaseImplementation(new JdbcConnection(connection));
-                Liquibase liquibase = new Liquibase(
-                        "at/or/reder/weather/jpa/changelog_0.0.1.xml",
-                        new ClassLoaderResourceAccessor(getClass().getClassLoader()),
-                        database);
-                liquibase.update(new Contexts(), new LabelExpression());
-            }
-        });
-        return Response.noContent().build();
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response updateDatabaseMetadata() {
+        boolean started = schemaMigration.startMigration();
+        return Response.status(started ? Response.Status.ACCEPTED : Response.Status.CONFLICT)
+                .entity(schemaMigration.getStatus())
+                .build();
+    }
+
+    @GET
+    @Path("migration")
+    @Produces(MediaType.APPLICATION_JSON)
+    public MigrationStatus getMigrationStatus() {
+        return schemaMigration.getStatus();
+    }
+
+    /**
+     * Dumps the last {@code minutes} of the continuous flight recording for offline analysis. The endpoint
+     * is not authenticated, so it answers 404 unless {@code weather.jfr.dump-enabled} is set.
+     */
+    @GET
+    @Path("jfr")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Response dumpFlightRecording(@QueryParam("minutes") @DefaultValue("10") int minutes) throws IOException {
+        if (!dumpEnabled) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        if (minutes <= 0) {
+            throw new BadRequestException("minutes must be positive");
+        }
+        return flightRecorder.dump(Duration.ofMinutes(minutes))
+                .map(file -> {
+                    StreamingOutput output = out -> {
+                        try {
+                            Files.copy(file, out);
+                        } finally {
+                            Files.deleteIfExists(file);
+                        }
+                    };
+                    String fileName = "weatherlog-"
+                            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr";
+                    return Response.ok(output)
+                            .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                            .build();
+                })
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
     }
 
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.container.AsyncResponse;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Runs the database bound resource methods on virtual threads, so a slow database parks cheap virtual
+ * threads instead of exhausting the worker pool that also serves {@code /q/health}. The resource method
+ * suspends its {@link AsyncResponse} and the task resumes it, including writing a streamed entity.
+ * <p>
+ * Virtual threads are not limited by themselves, so a semaphore sized by the pool ({@code max-size}
+ * minus the connections reserved for the scheduler, health checks and background tasks) bounds how many
+ * tasks use the database at once. Tasks wait up to {@code weather.concurrency.acquire-timeout} for a
+ * permit and are answered with 503 after that, instead of timing out inside the pool.
+ * <p>
+ * Since JDK 24 a virtual thread blocked in {@code synchronized} no longer pins its carrier, which covers
+ * the monitors in Jaybird's wire protocol; Agroal waits on j.u.c. synchronizers. Remaining pinning is
+ * recorded as {@code jdk.VirtualThreadPinned} in the continuous flight recording.
+ */
+@ApplicationScoped
+public class VirtualThreadDispatcher {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadDispatcher.class.getName());
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "weather.concurrency.virtual-threads", defaultValue = "true")
+    boolean virtualThreads;
+
+    @ConfigProperty(name = "quarkus.datasource.weather.jdbc.max-size", defaultValue = "20")
+    int poolMaxSize;
+
+    @ConfigProperty(name = "weather.concurrency.reserved-connections", defaultValue = "2")
+    int reservedConnections;
+
+    @ConfigProperty(name = "weather.concurrency.acquire-timeout", defaultValue = "PT10S")
+    Duration acquireTimeout;
+
+    private Semaphore permits;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void postConstruct() {
+        int limit = Math.max(1, poolMaxSize - reservedConnections);
+        permits = new Semaphore(limit, true);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("weather-vt-", 0).factory());
+        Gauge.builder("weather_db_permits_available", permits, Semaphore::availablePermits)
+                .description("Database permits of the REST tasks that are not in use, of " + limit)
+                .register(meterRegistry);
+        Gauge.builder("weather_db_permits_waiting", permits, Semaphore::getQueueLength)
+                .description("REST tasks waiting for a database permit")
+                .register(meterRegistry);
+        LOG.log(Level.INFO, "REST database concurrency limited to {0} on {1} threads",
+                new Object[]{limit, virtualThreads ? "virtual" : "worker"});
+    }
+
+    @PreDestroy
+    void preDestroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs {@code task} and resumes {@code response} with its result or exception. The task runs with an
+     * activated request context and holds a database permit until the response is written.
+     */
+    public void dispatch(AsyncResponse response, Callable<?> task) {
+        submit(task, result -> response.resume(result), ex -> response.resume(ex));
+    }
+
+    /**
+     * Runs {@code task} like {@link #dispatch} without a response to resume, a failure is logged.
+     */
+    public void execute(Runnable task) {
+        execute(task, ex -> LOG.log(Level.WARNING, "Deferred task failed", ex));
+    }
+
+    /**
+     * @param failed called with a {@link ServiceUnavailableException} if no permit was acquired in time
+     */
+    public void execute(Runnable task, Consumer<Throwable> failed) {
+        submit(Executors.callable(task), result -> {}, failed);
+    }
+
+    private void submit(Callable<?> task, Consumer<Object> done, Consumer<Throwable> failed) {
+        Runnable run = () -> execute(task, done, failed);
+        if (virtualThreads) {
+            executor.execute(run);
+        } else {
+            run.run();
+        }
+    }
+
+    private void execute(Callable<?> task, Consumer<Object> done, Consumer<Throwable> failed) {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                failed.accept(new ServiceUnavailableException("Database busy", acquireTimeout.toSeconds()));
+                return;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failed.accept(ex);
+            return;
+        }
+        ManagedContext requestContext = Arc.container().requestContext();
+        boolean activated = !requestContext.isActive();
+        if (activated) {
+            requestContext.activate();
+        }
+        try {
+            done.accept(task.call());
+        } catch (Throwable ex) {
+            failed.accept(ex);
+        } finally {
+            if (activated) {
+                requestContext.terminate();
+            }
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.rest;
+
+import at.or.reder.weather.model.WeatherField;
+import at.or.reder.weather.model.WeatherSeries;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes a {@link WeatherSeries} in the JSON form JSON-B produces for the equivalent {@code WeatherSample}:
+ * properties in lexicographical order, unset values omitted, {@code uv} as integer. Numbers and sample
+ * times are formatted straight into the output buffer, so writing a row does not allocate. Breaks are
+ * merged into the records by time, with {@code null} for every projected value.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class WeatherSeriesJsonWriter implements MessageBodyWriter<WeatherSeries> {
+
+    private static final WeatherField[] FIELDS = WeatherField.values();
+    private static final int STATIONKEY = -1;
+    private static final int SAMPLE_TIME = -2;
+
+    private record Property(String name, int index) {}
+
+    /**
+     * Record properties in output order, a {@link WeatherField} ordinal or one of the constants above.
+     */
+    private static final int[] PROPERTIES;
+    private static final byte[][] NAMES;
+
+    static {
+        List<Property> properties = new ArrayList<>();
+        properties.add(new Property("stationkey", STATIONKEY));
+        properties.add(new Property("sampleTime", SAMPLE_TIME));
+        for (WeatherField field : FIELDS) {
+            properties.add(new Property(field.getColumn(), field.ordinal()));
+        }
+        properties.sort(Comparator.comparing(Property::name));
+        PROPERTIES = new int[properties.size()];
+        NAMES = new byte[properties.size()][];
+        for (int i = 0; i < PROPERTIES.length; ++i) {
+            PROPERTIES[i] = properties.get(i).index();
+            NAMES[i] = ("\"" + properties.get(i).name() + "\":").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return WeatherSeries.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(WeatherSeries series, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        write(series, entityStream);
+    }
+
+    public static void write(WeatherSeries series, OutputStream out) throws IOException {
+        Output json = new Output(out);
+        json.ascii('{');
+        boolean first = true;
+        first = writeDateTime(json, first, "generated", series.getGenerated());
+        first = writeDateTime(json, first, "queryFrom", series.getQueryFrom());
+        first = writeDateTime(json, first, "queryTo", series.getQueryTo());
+        if (series.stepSeconds() > 0) {
+            if (!first) {
+                json.ascii(',');
+            }
+            json.ascii("\"step\":").integer(series.stepSeconds());
+            first = false;
+        }
+        if (!first) {
+            json.ascii(',');
+        }
+        json.ascii("\"records\":[");
+        int nextBreak = 0;
+        for (int row = 0; row < series.size(); ++row) {
+            while (nextBreak < series.breakCount() && series.breakTime(nextBreak) < series.sampleTime(row)) {
+                writeBreak(json, series, nextBreak++);
+                json.ascii(',');
+            }
+            writeRow(json, series, row);
+            if (row + 1 < series.size() || nextBreak < series.breakCount()) {
+                json.ascii(',');
+            }
+        }
+        for (; nextBreak < series.breakCount(); ++nextBreak) {
+            writeBreak(json, series, nextBreak);
+            if (nextBreak + 1 < series.breakCount()) {
+                json.ascii(',');
+            }
+        }
+        json.ascii("]}");
+        json.flush();
+    }
+
+    private static boolean writeDateTime(Output json, boolean first, String name, LocalDateTime value)
+            throws IOException {
+        if (value == null) {
+            return first;
+        }
+        if (!first) {
+            json.ascii(',');
+        }
+        json.ascii('"').ascii(name).ascii("\":\"").ascii(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value))
+                .ascii('"');
+        return false;
+    }
+
+    private static void writeRow(Output json, WeatherSeries series, int row) throws IOException {
+        json.ascii('{');
+        boolean first = true;
+        int present = series.presentMask(row);
+        String stationkey = series.stationkey(row);
+        for (int i = 0; i < PROPERTIES.length; ++i) {
+            int property = PROPERTIES[i];
+            if (property == STATIONKEY ? stationkey == null
+                    : property >= 0 && (present & (1 << property)) == 0) {
+                continue;
+            }
+            if (!first) {
+                json.ascii(',');
+            }
+            first = false;
+            json.bytes(NAMES[i]);
+            if (property == STATIONKEY) {
+                json.string(stationkey);
+            } else if (property == SAMPLE_TIME) {
+                json.ascii('"').epochSecond(series.sampleTime(row)).ascii('"');
+            } else if (property == WeatherField.UV.ordinal()) {
+                json.integer((long) series.value(row, WeatherField.UV));
+            } else {
+                json.number(series.value(row, FIELDS[property]));
+            }
+        }
+        json.ascii('}');
+    }
+
+    private static void writeBreak(Output json, WeatherSeries series, int index) throws IOException {
+        json.ascii('{');
+        boolean first = true;
+        String stationkey = series.breakStationkey(index);
+        for (int i = 0; i < PROPERTIES.length; ++i) {
+            int property = PROPERTIES[i];
+            if (property == STATIONKEY ? stationkey == null
+                    : property >= 0 && (series.fieldMask() & (1 << property)) == 0) {
+                continue;
+            }
+            if (!first) {
+                json.ascii(',');
+            }
+            first = false;
+            json.bytes(NAMES[i]);
+            if (property == STATIONKEY) {
+                json.string(stationkey);
+            } else if (property == SAMPLE_TIME) {
+                json.ascii('"').epochSecond(series.breakTime(index)).ascii('"');
+            } else {
+                json.ascii("null");
+            }
+        }
+        json.ascii('}');
+    }
+
+    /**
+     * Buffered ASCII output, strings with other characters are escaped and encoded as UTF-8.
+     */
+    private static final class Output {
+
+        private final OutputStream out;
+        private final byte[] buffer = new byte[8192];
+        private final StringBuilder number = new StringBuilder(32);
+        private int pos;
+
+        Output(OutputStream out) {
+            this.out = out;
+        }
+
+        private void reserve(int length) throws IOException {
+            if (pos + length > buffer.length) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            out.write(buffer, 0, pos);
+            pos = 0;
+        }
+
+        Output ascii(char c) throws IOException {
+            reserve(1);
+            buffer[pos++] = (byte) c;
+            return this;
+        }
+
+        Output ascii(CharSequence s) throws IOException {
+            for (int i = 0; i < s.length(); ++i) {
+                ascii(s.charAt(i));
+            }
+            return this;
+        }
+
+        Output bytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length) {
+                flush();
+                out.write(bytes);
+                return this;
+            }
+            reserve(bytes.length);
+            System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+            pos += bytes.length;
+            return this;
+        }
+
+        Output string(String s) throws IOException {
+            ascii('"');
+            for (int i = 0; i < s.length(); ++i) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') {
+                    ascii('\\').ascii(c);
+                } else if (c < 0x20) {
+                    ascii(String.format("\\u%04x", (int) c));
+                } else if (c < 0x80) {
+                    ascii(c);
+                } else {
+                    // rare, station keys are hex; the remainder is encoded in one go
+                    bytes(escapeRemainder(s, i).getBytes(StandardCharsets.UTF_8));
+                    break;
+                }
+            }
+            return ascii('"');
+        }
+
+        private static String escapeRemainder(String s, int from) {
+            StringBuilder result = new StringBuilder(s.length() - from + 8);
+            for (int i = from; i < s.length(); ++i) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') {
+                    result.append('\\').append(c);
+                } else if (c < 0x20) {
+                    result.append(String.format("\\u%04x", (int) c));
+                } else {
+                    result.append(c);
+                }
+            }
+            return result.toString();
+        }
+
+        Output integer(long value) throws IOException {
+            number.setLength(0);
+            number.append(value);
+            return ascii(number);
+        }
+
+        /**
+         * {@link Double#toString(double)}, as JSON-P writes doubles.
+         */
+        Output number(double value) throws IOException {
+            number.setLength(0);
+            number.append(value);
+            return ascii(number);
+        }
+
+        /**
+         * {@code yyyy-MM-ddTHH:mm:ss} of a UTC epoch second, years 0 to 9999.
+         */
+        Output epochSecond(long epochSecond) throws IOException {
+            long days = Math.floorDiv(epochSecond, 86400);
+            int secondOfDay = (int) Math.floorMod(epochSecond, 86400);
+            // civil date from days since 1970-01-01, see H. Hinnant, chrono-Compatible Low-Level Date Algorithms
+            long z = days + 719468;
+            long era = Math.floorDiv(z, 146097);
+            long dayOfEra = z - era * 146097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long mp = (5 * dayOfYear + 2) / 153;
+            int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+            int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+            int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+            digits(year, 4).ascii('-').digits(month, 2).ascii('-').digits(day, 2).ascii('T');
+            return digits(secondOfDay / 3600, 2).ascii(':').digits(secondOfDay / 60 % 60, 2).ascii(':')
+                    .digits(secondOfDay % 60, 2);
+        }
+
+        private Output digits(int value, int count) throws IOException {
+            reserve(count);
+            for (int i = count - 1; i >= 0; --i) {
+                buffer[pos + i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            pos += count;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.AlertStatus;
+
+/**
+ * CDI event fired when an alert starts firing or is resolved.
+ *
+ * @param replicated the change was caused by a sample another instance stored
+ */
+public record AlertChanged(AlertStatus status, boolean replicated) {
+
+    public AlertChanged(AlertStatus status) {
+        this(status, false);
+    }
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.AlertStatus;
+import java.util.List;
+
+/**
+ * Evaluates the configured alert rules ({@code weather.alert.rules.*}) for every stored station sample.
+ * Transitions are fired as {@link AlertChanged}.
+ */
+public interface AlertService {
+
+    /**
+     * @param firingOnly only alerts that are currently firing
+     */
+    List<AlertStatus> getAlerts(boolean firingOnly);
+}
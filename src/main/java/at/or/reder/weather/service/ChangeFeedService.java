@@ -0,0 +1,20 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+/**
+ * Tails {@code stationdata} for samples other replicas stored and fires them as replicated
+ * {@link WeatherRecordStored} events, so every instance keeps the same live state.
+ */
+public interface ChangeFeedService {
+
+    /**
+     * Reads the samples committed since the last call. The first call only positions the feed at the
+     * newest sample.
+     *
+     * @return the number of replicated samples fired, {@code 0} if replica mode is off
+     */
+    int poll();
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.ClimateReport;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Compares a day with the same calendar day of the previous years, from per station and day summaries.
+ * Days are local calendar days.
+ */
+public interface ClimateService {
+
+    /**
+     * @param stationkey {@code null} for all summarized stations
+     */
+    List<ClimateReport> getReport(String stationkey, LocalDate date);
+
+    /**
+     * Summarizes the closed days that are not summarized yet or received late samples.
+     *
+     * @return the number of days summarized
+     */
+    int closeDays();
+
+    /**
+     * Forgets the in memory state, for tests that clear the tables.
+     */
+    void clear();
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.QuarantinedValue;
+import at.or.reder.weather.model.WeatherRecord;
+import java.util.List;
+
+/**
+ * Checks the values of a decoded sample before it is stored.
+ */
+public interface DataQualityFilter {
+
+    /**
+     * Removes the implausible values from {@code record}.
+     *
+     * @return the removed values, to be persisted with the sample
+     */
+    List<QuarantinedValue> check(WeatherRecord record);
+
+    /**
+     * Forgets the per station state, for tests.
+     */
+    void clear();
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Recognizes retransmitted station samples before they reach the unique index on
+ * {@code (sampletime, stationkey)}.
+ */
+public interface DuplicateFilter {
+
+    /**
+     * Claims the key for a sample about to be stored. The claim is kept when the sample is committed and
+     * dropped when its transaction fails.
+     *
+     * @return {@code false} if the sample is stored already or being stored by a concurrent request
+     */
+    boolean tryClaim(String stationkey, LocalDateTime sampleTime);
+
+    /**
+     * Drops a claim whose sample was not stored.
+     */
+    void release(String stationkey, LocalDateTime sampleTime);
+
+    /**
+     * Forgets all keys, required after samples were deleted.
+     */
+    void clear();
+}
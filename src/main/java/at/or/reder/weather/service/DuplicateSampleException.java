@@ -0,0 +1,16 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+/**
+ * Thrown when the unique index on station and sample time rejects a sample, e.g. a retransmit that
+ * another instance stored meanwhile.
+ */
+public class DuplicateSampleException extends RuntimeException {
+
+    public DuplicateSampleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Continuous flight recording of the application, see {@link WeatherIngestEvent}, {@link RangeQueryEvent}
+ * and {@link HeatpumpImportChunkEvent} for the domain events.
+ */
+public interface FlightRecorderService {
+
+    /**
+     * Writes the recorded data of the last {@code duration} to a temporary file. The caller owns and
+     * deletes the file.
+     *
+     * @return empty if nothing was recorded
+     */
+    Optional<Path> dump(Duration duration) throws IOException;
+}
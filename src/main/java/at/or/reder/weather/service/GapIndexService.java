@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.StationCoverage;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Index of the intervals without samples per station. Maintained on every stored sample and completed
+ * by a periodic catch-up scan of {@code stationdata}, so completeness reports do not scan the samples.
+ */
+public interface GapIndexService {
+
+    /**
+     * @param stationkey {@code null} for all indexed stations
+     * @param from UTC, inclusive
+     * @param to UTC, exclusive
+     */
+    List<StationCoverage> getCoverage(String stationkey, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Indexes the samples stored since the last scan, of all stations.
+     *
+     * @return the number of gaps found
+     */
+    int scan();
+
+    /**
+     * Forgets the in memory state, for tests that clear the tables.
+     */
+    void clear();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.AlignmentMode;
+import at.or.reder.weather.model.HeatpumpEfficiencyDay;
+import at.or.reder.weather.model.HeatpumpWeatherRow;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Joins the heatpump series with the outdoor weather series. Both sides are read through ordered
+ * cursors and merged on the fly, results are pushed to the consumer as they are produced.
+ */
+public interface HeatpumpAnalyticsService {
+
+    /**
+     * @param timeFrom UTC, inclusive
+     * @param timeTo UTC, exclusive
+     * @param bucket bucket width for {@link AlignmentMode#BUCKET}, twice the match tolerance for
+     * {@link AlignmentMode#NEAREST}
+     * @param stationkey restrict weather samples to one station, {@code null} for all
+     */
+    void alignWithWeather(LocalDateTime timeFrom,
+                          LocalDateTime timeTo,
+                          Duration bucket,
+                          AlignmentMode mode,
+                          String stationkey,
+                          Consumer<HeatpumpWeatherRow> consumer) throws SQLException;
+
+    /**
+     * @param dayFrom local day, inclusive
+     * @param dayTo local day, inclusive
+     */
+    void dailyEfficiency(LocalDate dayFrom,
+                         LocalDate dayTo,
+                         String stationkey,
+                         Consumer<HeatpumpEfficiencyDay> consumer) throws SQLException;
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One chunk of a heatpump import, i.e. the lines of one day or the remainder flushed at the end.
+ */
+@Name("at.or.reder.weather.HeatpumpImportChunk")
+@Label("Heatpump Import Chunk")
+@Category({"Weather", "Heatpump"})
+@Description("Lines of a heatpump export imported between two flushes")
+@StackTrace(false)
+public class HeatpumpImportChunkEvent extends Event {
+
+    @Label("File Type")
+    public String fileType;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Database Time")
+    @Timespan
+    public long dbTime;
+}
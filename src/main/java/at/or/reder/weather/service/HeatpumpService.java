@@ -15,12 +15,20 @@
  */
 package at.or.reder.weather.service;
 
+import at.or.reder.weather.model.HeatpumpDataBucket;
 import at.or.reder.weather.model.HeatpumpEnergyRecord;
+import at.or.reder.weather.model.HeatpumpField;
+import at.or.reder.weather.model.HeatpumpFileType;
+import at.or.reder.weather.model.HeatpumpImport;
 import at.or.reder.weather.model.HeatpumpScope;
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface HeatpumpService {
 
@@ -32,5 +40,33 @@ public interface HeatpumpService {
 
   public void insertEnergyData(LineNumberReader reader) throws IOException;
 
+  /**
+   * Whether a file with this content hash has already been imported.
+   */
+  public boolean isImported(String contentHash);
+
+  /**
+   * Imports one export file and records it, so the same content is skipped next time. Rows that are
+   * already stored with identical values are left untouched.
+   */
+  public HeatpumpImport importFile(HeatpumpFileType fileType,
+                                   String fileName,
+                                   String contentHash,
+                                   LineNumberReader reader) throws IOException;
+
   public Optional<HeatpumpEnergyRecord> getEnergy(HeatpumpScope scope, LocalDate day);
+
+  /**
+   * Reads the requested columns in time order and reduces them to at most {@code maxPoints} buckets with
+   * min, max and average per field. Empty buckets are not reported.
+   *
+   * @param timeFrom UTC, inclusive
+   * @param timeTo UTC, exclusive
+   * @return the bucket width in seconds
+   */
+  public long streamData(LocalDateTime timeFrom,
+                         LocalDateTime timeTo,
+                         List<HeatpumpField> fields,
+                         int maxPoints,
+                         Consumer<HeatpumpDataBucket> consumer) throws SQLException;
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+/**
+ * Lets the caller of a range read stop it, e.g. when the HTTP client disconnected. The reader registers
+ * the cancel of its running statement and checks {@link #isCancelled()} while it reads the cursor.
+ */
+public final class QueryCancellation {
+
+    private volatile boolean cancelled;
+    private Runnable action;
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        Runnable run;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            run = action;
+            action = null;
+        }
+        if (run != null) {
+            run.run();
+        }
+    }
+
+    /**
+     * @param action run on {@link #cancel()}, at once if already cancelled; {@code null} removes it
+     */
+    public void onCancel(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                this.action = action;
+                return;
+            }
+        }
+        if (action != null) {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One range query result written to a client.
+ */
+@Name("at.or.reder.weather.RangeQuery")
+@Label("Weather Range Query")
+@Category({"Weather", "Query"})
+@Description("Range query result serialized to the client")
+@StackTrace(false)
+public class RangeQueryEvent extends Event {
+
+    @Label("Span")
+    @Timespan(Timespan.SECONDS)
+    public long span;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Projection")
+    @Description("Included fields, empty for all fields")
+    public String projection;
+
+    @Label("Serialization Time")
+    @Timespan
+    public long serializationTime;
+}
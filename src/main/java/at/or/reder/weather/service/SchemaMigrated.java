@@ -0,0 +1,20 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.QuarantinedValue;
+import java.util.List;
+
+/**
+ * CDI event fired when a background migration completed, carrying the samples spooled meanwhile.
+ */
+public record SchemaMigrated(List<Sample> spooled) {
+
+    /**
+     * @param quarantined the values the quality check took out of the sample, stored with it
+     */
+    public record Sample(WeatherRecordStored stored, List<QuarantinedValue> quarantined) {
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.MigrationStatus;
+import at.or.reder.weather.model.QuarantinedValue;
+import java.util.List;
+
+/**
+ * Runs the Liquibase migration as a background task, so HTTP is available while a long change set is
+ * applied. Station samples received meanwhile are spooled in memory and stored once the migration
+ * completed.
+ */
+public interface SchemaMigrationService {
+
+    /**
+     * Starts a migration unless one is running.
+     *
+     * @return {@code false} if a migration is already running
+     */
+    boolean startMigration();
+
+    MigrationStatus getStatus();
+
+    /**
+     * @return {@code true} once the schema is up to date, also if background migration is disabled
+     */
+    boolean isCompleted();
+
+    /**
+     * Holds the sample back while the migration is not completed.
+     *
+     * @param quarantined the values the quality check took out of the sample
+     * @return {@code false} if the schema is ready and the caller has to store the sample itself
+     * @throws jakarta.ws.rs.ServiceUnavailableException if the spool is full or the migration failed, a
+     *                                                    spooled sample would only be stored by a new migration
+     */
+    boolean spool(WeatherRecordStored sample, List<QuarantinedValue> quarantined);
+}
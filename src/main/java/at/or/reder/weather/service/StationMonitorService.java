@@ -0,0 +1,29 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.StationStatus;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tracks when each station last posted, the jitter of its sample interval and the lag between
+ * {@code dateutc} and receive time. Only stations that posted since startup and were not dropped as idle
+ * are known.
+ */
+public interface StationMonitorService {
+
+    List<StationStatus> getStations(Instant now);
+
+    /**
+     * @return {@code true} for stations that are silent beyond their allowed interval or unknown
+     */
+    boolean isStale(String stationkey, Instant now);
+
+    /**
+     * @return a sample of the station was stored since startup
+     */
+    boolean isKnown(String stationkey);
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One sample received from a station.
+ */
+@Name("at.or.reder.weather.Ingest")
+@Label("Weather Ingest")
+@Category({"Weather", "Ingest"})
+@Description("Sample received from a weather station")
+@StackTrace(false)
+public class WeatherIngestEvent extends Event {
+
+    @Label("Station")
+    public String station;
+
+    @Label("Payload Size")
+    @DataAmount
+    public long payloadSize;
+
+    @Label("Persist Duration")
+    @Timespan
+    public long persistDuration;
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and counters of the hot paths. Meters are created once per name/phase/tag and cached, so
+ * recording on the hot path is a map lookup plus the meter update.
+ * <p>
+ * Timers publish a percentile histogram, so their tags come from small fixed sets. The station is the
+ * PASSKEY a client sends, it is only a counter tag and only for stations the station monitor knows;
+ * others are counted as {@code unknown}. The counters of a station are dropped with the station.
+ */
+@ApplicationScoped
+public class WeatherMetrics {
+
+    public static final String INGEST = "weather_ingest_duration";
+    public static final String QUERY = "weather_query_duration";
+    public static final String HEATPUMP_IMPORT = "weather_heatpump_import_duration";
+    public static final String INGEST_SAMPLES = "weather_ingest_samples";
+    public static final String HEATPUMP_ROWS = "weather_heatpump_rows";
+    public static final String QUALITY_REJECTED = "weather_quality_rejected";
+    public static final String INGEST_THROTTLED = "weather_ingest_throttled";
+    public static final String QUERY_GUARD = "weather_query_guard";
+
+    public static final String STATION = "station";
+    public static final String SOURCE = "source";
+    public static final String FILE_TYPE = "filetype";
+    public static final String RANGE = "range";
+    public static final String RULE = "rule";
+    public static final String FIELD = "field";
+
+    private static final String UNKNOWN = "unknown";
+
+    private record MeterKey(String name, String phase, String tagKey, String tagValue) {
+    }
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    StationMonitorService stationMonitor;
+
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Coarse span class of a range query, keeps the tag cardinality of the query timers bounded.
+     */
+    public static String rangeTag(LocalDateTime timeFrom, LocalDateTime timeTo) {
+        if (timeFrom == null || timeTo == null) return UNKNOWN;
+        long hours = Duration.between(timeFrom, timeTo).toHours();
+        if (hours <= 24) return "day";
+        if (hours <= 24 * 7) return "week";
+        if (hours <= 24 * 31) return "month";
+        if (hours <= 24 * 366) return "year";
+        return "multiyear";
+    }
+
+    /**
+     * @param tagKey not {@link #STATION}, e.g. {@link #RANGE} or {@link #SOURCE}
+     */
+    public Timer timer(String name, String phase, String tagKey, String tagValue) {
+        return timers.computeIfAbsent(new MeterKey(name, phase, tagKey, tagValue != null ? tagValue : UNKNOWN),
+                k -> Timer.builder(k.name())
+                        .tag("phase", k.phase())
+                        .tag(k.tagKey(), k.tagValue())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+
+    public void record(String name, String phase, String tagKey, String tagValue, long nanos) {
+        timer(name, phase, tagKey, tagValue).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Drops the counters of a station the station monitor no longer knows.
+     */
+    public void removeStation(String stationkey) {
+        counters.entrySet().removeIf(e -> {
+            MeterKey key = e.getKey();
+            if (!STATION.equals(key.tagKey()) || !key.tagValue().equals(stationkey)) {
+                return false;
+            }
+            meterRegistry.remove(e.getValue());
+            return true;
+        });
+    }
+
+    /**
+     * @param result e.g. {@code accepted}, {@code rejected}
+     */
+    public Counter counter(String name, String result, String tagKey, String tagValue) {
+        if (tagValue == null || STATION.equals(tagKey) && !stationMonitor.isKnown(tagValue)) {
+            tagValue = UNKNOWN;
+        }
+        return counters.computeIfAbsent(new MeterKey(name, result, tagKey, tagValue),
+                k -> Counter.builder(k.name())
+                        .tag("result", k.phase())
+                        .tag(k.tagKey(), k.tagValue())
+                        .register(meterRegistry));
+    }
+}
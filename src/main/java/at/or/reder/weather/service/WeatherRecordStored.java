@@ -0,0 +1,22 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.WeatherRecord;
+import java.time.Instant;
+
+/**
+ * CDI event fired by {@link WeatherService#storeCurrentWeather} for every persisted station sample.
+ * Observers that must only see committed samples use {@code TransactionPhase.AFTER_SUCCESS}.
+ *
+ * @param receivedAt when the sample arrived at the server, for a replicated sample when the change feed read it
+ * @param replicated the sample was stored by another instance and read from the change feed
+ */
+public record WeatherRecordStored(WeatherRecord record, Instant receivedAt, boolean replicated) {
+
+    public WeatherRecordStored(WeatherRecord record, Instant receivedAt) {
+        this(record, receivedAt, false);
+    }
+}
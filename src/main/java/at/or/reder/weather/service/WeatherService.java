@@ -15,9 +15,14 @@
  */
 package at.or.reder.weather.service;
 
+import at.or.reder.weather.model.IngestStatus;
 import at.or.reder.weather.model.WeatherRecord;
 import at.or.reder.weather.model.WeatherSample;
+import at.or.reder.weather.model.WeatherSeries;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -29,9 +34,42 @@ public interface WeatherService
 
   Optional<WeatherRecord> getCurrent();
 
+  /**
+   * @throws jakarta.ws.rs.BadRequestException if the range is estimated above {@code weather.query.max-rows}
+   */
   WeatherSample getWeatherData(LocalDateTime timeFrom,
                                LocalDateTime timeTo);
 
+  /**
+   * Same rows as {@link #getWeatherData}, read with plain JDBC into primitive arrays.
+   *
+   * @throws jakarta.ws.rs.BadRequestException if the range is estimated above {@code weather.query.max-rows}
+   */
+  WeatherSeries getWeatherSeries(LocalDateTime timeFrom,
+                                 LocalDateTime timeTo) throws SQLException;
+
+  /**
+   * Like {@link #getWeatherSeries(LocalDateTime, LocalDateTime)}, with one row per station and {@code step}
+   * if {@code step} is not {@code null}. A range estimated above {@code weather.query.max-rows} is read
+   * with a larger step or rejected, depending on {@code weather.query.over-budget}.
+   *
+   * @param cancellation cancels the running statement
+   * @throws jakarta.ws.rs.BadRequestException if the range is rejected
+   * @throws java.util.concurrent.CancellationException if the read was cancelled
+   */
+  WeatherSeries getWeatherSeries(LocalDateTime timeFrom,
+                                 LocalDateTime timeTo,
+                                 Duration step,
+                                 QueryCancellation cancellation) throws SQLException;
+
   void storeCurrentWeather(WeatherRecord record);
 
+  /**
+   * Stores buffered samples in chunked JDBC batches, skipping samples that are already stored.
+   *
+   * @return the status of each record, in the order of {@code records}
+   * @throws jakarta.ws.rs.ServiceUnavailableException while the schema migration is running
+   */
+  List<IngestStatus> storeWeatherBatch(List<WeatherRecord> records);
+
 }
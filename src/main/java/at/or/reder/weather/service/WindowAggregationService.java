@@ -0,0 +1,22 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service;
+
+import at.or.reder.weather.model.WindowAggregate;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Per station sliding window aggregates ({@code weather.window.durations} times
+ * {@code weather.window.fields}), updated for every stored sample and exposed as the gauges
+ * {@code weather_window_mean}, {@code weather_window_min} and {@code weather_window_max}.
+ */
+public interface WindowAggregationService {
+
+    /**
+     * @return the aggregates of the windows ending at {@code now}, empty for unknown stations
+     */
+    List<WindowAggregate> getAggregates(String stationkey, Instant now);
+}
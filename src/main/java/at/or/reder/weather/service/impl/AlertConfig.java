@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * Alert rules by name, e.g. {@code weather.alert.rules.frost.field=tempout}.
+ */
+@ConfigMapping(prefix = "weather.alert")
+public interface AlertConfig {
+
+    Map<String, Rule> rules();
+
+    /**
+     * Receives every transition as JSON POST.
+     */
+    Optional<URI> webhookUrl();
+
+    @WithDefault("PT5S")
+    Duration webhookTimeout();
+
+    interface Rule {
+
+        /**
+         * A {@link at.or.reder.weather.model.WeatherField} column.
+         */
+        String field();
+
+        Kind kind();
+
+        double threshold();
+
+        /**
+         * Value at which a firing alert resolves, defaults to the threshold (no hysteresis).
+         */
+        OptionalDouble clear();
+
+        /**
+         * Required for {@link Kind#RISE} and {@link Kind#DROP}.
+         */
+        Optional<Duration> window();
+    }
+
+    enum Kind {
+        /**
+         * Fires when the value is at or above the threshold.
+         */
+        ABOVE,
+        /**
+         * Fires when the value is at or below the threshold.
+         */
+        BELOW,
+        /**
+         * Fires when the value rose by at least the threshold within the window.
+         */
+        RISE,
+        /**
+         * Fires when the value dropped by at least the threshold within the window.
+         */
+        DROP
+    }
+}
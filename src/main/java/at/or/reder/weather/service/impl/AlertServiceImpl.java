@@ -0,0 +1,275 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.AlertStatus;
+import at.or.reder.weather.model.WeatherField;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.AlertChanged;
+import at.or.reder.weather.service.AlertService;
+import at.or.reder.weather.service.WeatherMetrics;
+import at.or.reder.weather.service.WeatherRecordStored;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Evaluates the rules incrementally on every committed sample: threshold rules compare the sample,
+ * rise and drop rules compare against the oldest sample of a per station ring buffer that covers the
+ * window. Each rule fires once when its threshold is reached and resolves when the value passes the
+ * clear value, so a value oscillating around the threshold does not flap.
+ * <p>
+ * Rules are evaluated for at most {@code weather.station.max-stations} stations; a station without sample
+ * for {@code weather.station.idle} is dropped with its alert states and meters.
+ */
+@ApplicationScoped
+@Default
+public class AlertServiceImpl implements AlertService {
+
+    private static final Logger LOG = Logger.getLogger(AlertServiceImpl.class.getName());
+
+    @Inject
+    AlertConfig config;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    Event<AlertChanged> alertChanged;
+
+    @ConfigProperty(name = "weather.station.max-stations", defaultValue = "1000")
+    int maxStations;
+
+    @ConfigProperty(name = "weather.station.idle", defaultValue = "P7D")
+    Duration idle;
+
+    private List<Rule> rules = List.of();
+    private StationTable<StationAlerts> stations;
+
+    private record Rule(String name,
+                        WeatherField field,
+                        AlertConfig.Kind kind,
+                        double threshold,
+                        double clear,
+                        long windowSeconds) {
+
+        boolean isWindowed() {
+            return kind == AlertConfig.Kind.RISE || kind == AlertConfig.Kind.DROP;
+        }
+
+        boolean triggers(double value) {
+            return kind == AlertConfig.Kind.BELOW ? value <= threshold : value >= threshold;
+        }
+
+        boolean clears(double value) {
+            return kind == AlertConfig.Kind.BELOW ? value > clear : value < clear;
+        }
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        List<Rule> result = new ArrayList<>();
+        config.rules().forEach((name, r) -> result.add(compile(name, r)));
+        result.sort(Comparator.comparing(Rule::name));
+        rules = List.copyOf(result);
+        stations = new StationTable<>(maxStations, idle);
+    }
+
+    private static Rule compile(String name, AlertConfig.Rule rule) {
+        WeatherField field = WeatherField.fromString(rule.field());
+        if (field == null) {
+            throw new IllegalArgumentException("Alert rule " + name + ": unknown field " + rule.field());
+        }
+        double clear = rule.clear().orElse(rule.threshold());
+        boolean below = rule.kind() == AlertConfig.Kind.BELOW;
+        if (below ? clear < rule.threshold() : clear > rule.threshold()) {
+            throw new IllegalArgumentException("Alert rule " + name + ": clear " + clear
+                                               + " is on the firing side of threshold " + rule.threshold());
+        }
+        long windowSeconds = 0;
+        if (rule.kind() == AlertConfig.Kind.RISE || rule.kind() == AlertConfig.Kind.DROP) {
+            Duration window = rule.window().orElseThrow(
+                    () -> new IllegalArgumentException("Alert rule " + name + ": " + rule.kind() + " needs a window"));
+            windowSeconds = window.toSeconds();
+        }
+        return new Rule(name, field, rule.kind(), rule.threshold(), clear, windowSeconds);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        LOG.log(Level.INFO, "{0} alert rules: {1}", new Object[]{rules.size(), rules.stream().map(Rule::name).toList()});
+    }
+
+    void onStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) WeatherRecordStored event) {
+        String stationkey = event.record().getStationkey();
+        if (stationkey == null || rules.isEmpty()) {
+            return;
+        }
+        StationAlerts alerts = stations.acquire(stationkey, StationAlerts::new);
+        if (alerts == null) {
+            return;
+        }
+        List<AlertStatus> changed = alerts.evaluate(event.record(), event.receivedAt());
+        // fired outside the station lock, observers may block on I/O
+        if (changed != null) {
+            for (AlertStatus status : changed) {
+                LOG.log(Level.INFO, "Alert {0} {1} for {2}, value {3}",
+                        new Object[]{status.rule(), status.firing() ? "firing" : "resolved", status.stationkey(),
+                                     status.value()});
+                alertChanged.fire(new AlertChanged(status, event.replicated()));
+            }
+        }
+    }
+
+    @Scheduled(every = "1m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evict() {
+        stations.evict(alerts -> {
+            for (RuleState state : alerts.states) {
+                state.meters.forEach(meterRegistry::remove);
+            }
+        });
+    }
+
+    private final class StationAlerts {
+
+        private final RuleState[] states;
+
+        StationAlerts(String stationkey) {
+            states = new RuleState[rules.size()];
+            for (int i = 0; i < states.length; ++i) {
+                states[i] = new RuleState(rules.get(i), stationkey);
+            }
+        }
+
+        /**
+         * @return the transitions caused by this sample, {@code null} if there are none
+         */
+        synchronized List<AlertStatus> evaluate(WeatherRecord record, Instant receivedAt) {
+            List<AlertStatus> result = null;
+            for (RuleState state : states) {
+                AlertStatus status = state.accept(record, receivedAt);
+                if (status != null) {
+                    if (result == null) {
+                        result = new ArrayList<>(2);
+                    }
+                    result.add(status);
+                }
+            }
+            return result;
+        }
+
+        synchronized void collect(List<AlertStatus> result, boolean firingOnly) {
+            for (RuleState state : states) {
+                if (state.firing || !firingOnly) {
+                    result.add(state.status());
+                }
+            }
+        }
+    }
+
+    /**
+     * State of one rule for one station, guarded by the enclosing {@link StationAlerts}.
+     */
+    private final class RuleState {
+
+        private final Rule rule;
+        private final String stationkey;
+        private final SampleRing window;
+        private final Counter fired;
+        private final Counter resolved;
+        private final List<Meter> meters = new ArrayList<>(3);
+        private volatile boolean firing;
+        private double value = Double.NaN;
+        private LocalDateTime sampleTime;
+        private Instant since;
+
+        RuleState(Rule rule, String stationkey) {
+            this.rule = rule;
+            this.stationkey = stationkey;
+            // one slot per minute, the usual station interval
+            window = rule.isWindowed() ? new SampleRing((int) Math.min(1024, rule.windowSeconds() / 60 + 1)) : null;
+            meters.add(Gauge.builder("weather_alert_firing", this, s -> s.firing ? 1 : 0)
+                    .description("1 while the alert rule is firing for the station")
+                    .tag(WeatherMetrics.RULE, rule.name())
+                    .tag(WeatherMetrics.STATION, stationkey)
+                    .register(meterRegistry));
+            fired = transitions("firing");
+            resolved = transitions("resolved");
+            meters.add(fired);
+            meters.add(resolved);
+        }
+
+        private Counter transitions(String state) {
+            return Counter.builder("weather_alert_transitions")
+                    .tag(WeatherMetrics.RULE, rule.name())
+                    .tag(WeatherMetrics.STATION, stationkey)
+                    .tag("state", state)
+                    .register(meterRegistry);
+        }
+
+        AlertStatus accept(WeatherRecord record, Instant receivedAt) {
+            double sample = rule.field().valueOf(record);
+            LocalDateTime time = record.getSampleTime();
+            if (Double.isNaN(sample) || time == null) {
+                return null;
+            }
+            double measured = sample;
+            if (window != null) {
+                long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+                if (!window.isEmpty() && epochSecond <= window.lastTime()) {
+                    // retransmitted or out of order, the window only moves forward
+                    return null;
+                }
+                window.add(epochSecond, sample);
+                window.removeBefore(epochSecond - rule.windowSeconds());
+                measured = rule.kind() == AlertConfig.Kind.DROP
+                        ? window.firstValue() - sample
+                        : sample - window.firstValue();
+            }
+            value = measured;
+            boolean next = firing ? !rule.clears(measured) : rule.triggers(measured);
+            if (next == firing) {
+                return null;
+            }
+            firing = next;
+            sampleTime = time;
+            since = receivedAt;
+            (next ? fired : resolved).increment();
+            return status();
+        }
+
+        AlertStatus status() {
+            return new AlertStatus(rule.name(), stationkey, rule.field().getColumn(), firing,
+                                   Double.isNaN(value) ? null : value, rule.threshold(), sampleTime, since);
+        }
+    }
+
+    @Override
+    public List<AlertStatus> getAlerts(boolean firingOnly) {
+        List<AlertStatus> result = new ArrayList<>();
+        stations.values().forEach(s -> s.collect(result, firingOnly));
+        result.sort(Comparator.comparing(AlertStatus::stationkey).thenComparing(AlertStatus::rule));
+        return result;
+    }
+}
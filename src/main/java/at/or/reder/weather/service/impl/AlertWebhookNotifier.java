@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.service.AlertChanged;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * POSTs every alert transition as JSON to {@code weather.alert.webhook-url}. The request is sent
+ * asynchronously, a slow or failing receiver does not delay the ingest.
+ */
+@ApplicationScoped
+public class AlertWebhookNotifier {
+
+    private static final Logger LOG = Logger.getLogger(AlertWebhookNotifier.class.getName());
+
+    @Inject
+    AlertConfig config;
+
+    private HttpClient client;
+    private Jsonb jsonb;
+
+    @PostConstruct
+    void postConstruct() {
+        client = HttpClient.newBuilder().connectTimeout(config.webhookTimeout()).build();
+        jsonb = JsonbBuilder.create();
+    }
+
+    @PreDestroy
+    void preDestroy() throws Exception {
+        jsonb.close();
+        client.close();
+    }
+
+    /**
+     * With several replicas every instance evaluates every sample, only the one that stored it notifies.
+     */
+    void onAlertChanged(@Observes AlertChanged event) {
+        URI url = config.webhookUrl().orElse(null);
+        if (url == null || event.replicated()) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(config.webhookTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonb.toJson(event.status())))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, ex) -> {
+                    if (ex != null) {
+                        LOG.log(Level.WARNING, "Alert webhook " + url + " failed", ex);
+                    } else if (response.statusCode() >= 300) {
+                        LOG.log(Level.WARNING, "Alert webhook {0} returned {1}",
+                                new Object[]{url, response.statusCode()});
+                    }
+                });
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+/**
+ * Bloom filter over 64 bit hashes, with the bit indexes derived by double hashing. Not thread safe.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final long numBits;
+    private final int hashes;
+    private final int capacity;
+    private int count;
+
+    /**
+     * @param capacity expected number of keys
+     * @param fpp false positive probability at {@code capacity} keys
+     */
+    BloomFilter(int capacity, double fpp) {
+        this.capacity = capacity;
+        long m = (long) Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        bits = new long[(int) Math.max(1, (m + 63) / 64)];
+        numBits = bits.length * 64L;
+        hashes = Math.max(1, (int) Math.round((double) numBits / capacity * Math.log(2)));
+    }
+
+    void put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; ++i) {
+            long index = Math.floorMod(h1 + i * h2, numBits);
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+        ++count;
+    }
+
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; ++i) {
+            long index = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    /**
+     * SplitMix64 finalizer over the station and the sample time, spreads similar keys over all bits.
+     */
+    static long hash(String stationkey, long epochSecond) {
+        long z = stationkey.hashCode() * 0x9E3779B97F4A7C15L + epochSecond;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.WeatherField;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.ChangeFeedService;
+import at.or.reder.weather.service.SchemaMigrationService;
+import at.or.reder.weather.service.WeatherRecordStored;
+import at.or.reder.weather.service.impl.StationDataWriter.SampleKey;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Polls {@code stationdata} by id. Ids are taken from the sequence before the insert commits, so a lower
+ * id may become visible after a higher one; ids skipped by the feed are asked for again until
+ * {@code gap-timeout}, after that they are taken as rolled back. Samples this instance stored are
+ * remembered until the feed sees them and are not fired a second time.
+ */
+@ApplicationScoped
+@Default
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private static final Logger LOG = Logger.getLogger(ChangeFeedServiceImpl.class.getName());
+    private static final WeatherField[] FIELDS = WeatherField.values();
+    private static final String SELECT = Arrays.stream(FIELDS)
+            .map(WeatherField::getColumn)
+            .collect(Collectors.joining(", ", "select id, stationkey, sampletime, ", " from stationdata"));
+    private static final String MAX_ID = "select max(id) from stationdata";
+    private static final int MAX_MISSING = 1000;
+    private static final int MAX_RETRIED = 200;
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @Inject
+    SchemaMigrationService schemaMigration;
+
+    @Inject
+    Event<WeatherRecordStored> recordStored;
+
+    @ConfigProperty(name = "weather.replica.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "weather.replica.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    @ConfigProperty(name = "weather.replica.gap-timeout", defaultValue = "PT1M")
+    Duration gapTimeout;
+
+    private final Map<SampleKey, Instant> local = new ConcurrentHashMap<>();
+    // guarded by this
+    private long lastId = -1;
+    private final TreeMap<Long, Instant> missing = new TreeMap<>();
+
+    /**
+     * Registered before the commit, the feed may see the row before an {@code AFTER_SUCCESS} observer runs.
+     */
+    void onStoring(@Observes WeatherRecordStored event) {
+        if (enabled && !event.replicated()) {
+            local.put(SampleKey.of(event.record()), Instant.now());
+        }
+    }
+
+    void onFailed(@Observes(during = TransactionPhase.AFTER_FAILURE) WeatherRecordStored event) {
+        if (!event.replicated()) {
+            local.remove(SampleKey.of(event.record()));
+        }
+    }
+
+    @Scheduled(every = "{weather.replica.poll-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledPoll() {
+        if (enabled && schemaMigration.isCompleted()) {
+            poll();
+        }
+    }
+
+    @Override
+    public synchronized int poll() {
+        if (!enabled) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        List<WeatherRecord> replicated = new ArrayList<>();
+        try (Connection connection = ds.getConnection()) {
+            if (lastId < 0) {
+                lastId = maxId(connection);
+                LOG.log(Level.INFO, "Change feed starts after id {0}", lastId);
+                return 0;
+            }
+            missing.values().removeIf(seen -> seen.plus(gapTimeout).isBefore(now));
+            local.values().removeIf(stored -> stored.plus(gapTimeout.multipliedBy(2)).isBefore(now));
+            List<Long> retried = missing.keySet().stream().limit(MAX_RETRIED).toList();
+            try (PreparedStatement stmt = connection.prepareStatement(query(retried.size()))) {
+                stmt.setMaxRows(batchSize);
+                stmt.setLong(1, lastId);
+                for (int i = 0; i < retried.size(); ++i) {
+                    stmt.setLong(i + 2, retried.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        track(rs.getLong(1), now);
+                        WeatherRecord record = read(rs);
+                        if (local.remove(SampleKey.of(record)) == null) {
+                            replicated.add(record);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            LOG.log(Level.WARNING, "Cannot read the change feed after id " + lastId, ex);
+            return 0;
+        }
+        if (!replicated.isEmpty()) {
+            // without a transaction AFTER_FAILURE observers would be called as well
+            QuarkusTransaction.requiringNew().run(
+                    () -> replicated.forEach(r -> recordStored.fire(new WeatherRecordStored(r, now, true))));
+        }
+        return replicated.size();
+    }
+
+    private static String query(int retried) {
+        if (retried == 0) {
+            return SELECT + " where id > ? order by id";
+        }
+        return SELECT + " where id > ? or id in (" + String.join(", ", Collections.nCopies(retried, "?"))
+               + ") order by id";
+    }
+
+    /**
+     * Advances the feed to {@code id} and remembers the ids skipped on the way.
+     */
+    private void track(long id, Instant now) {
+        if (id <= lastId) {
+            missing.remove(id);
+            return;
+        }
+        for (long skipped = Math.max(lastId + 1, id - MAX_MISSING); skipped < id; ++skipped) {
+            missing.put(skipped, now);
+        }
+        while (missing.size() > MAX_MISSING) {
+            missing.pollFirstEntry();
+        }
+        lastId = id;
+    }
+
+    private static long maxId(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(MAX_ID);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static WeatherRecord read(ResultSet rs) throws SQLException {
+        WeatherRecord record = new WeatherRecord();
+        record.setStationkey(rs.getString(2));
+        record.setSampleTime(rs.getObject(3, LocalDateTime.class));
+        for (int f = 0; f < FIELDS.length; ++f) {
+            double value = rs.getDouble(f + 4);
+            FIELDS[f].set(record, rs.wasNull() ? null : value);
+        }
+        return record;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.ClimateDay;
+import at.or.reder.weather.model.ClimateReport;
+import at.or.reder.weather.model.WeatherUtils;
+import at.or.reder.weather.service.ClimateService;
+import at.or.reder.weather.service.SchemaMigrationService;
+import at.or.reder.weather.service.WeatherRecordStored;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Summarizes every closed day of a station once into {@link ClimateDay}, shortly after local midnight,
+ * so a report reads one row per previous year instead of the samples. The first run summarizes the
+ * history of a station. A late sample for a closed day, e.g. from a batch upload, marks the day to be
+ * summarized again with the next run.
+ */
+@ApplicationScoped
+@Default
+public class ClimateServiceImpl implements ClimateService {
+
+    private static final Logger LOG = Logger.getLogger(ClimateServiceImpl.class.getName());
+
+    private static final String STATIONS = "select distinct stationkey from stationdata where stationkey is not null";
+    private static final String FIRST_SAMPLE = "select min(sampletime) from stationdata where stationkey = ?";
+    private static final String SUMMARY =
+            "select count(*), min(tempout), max(tempout), avg(tempout), max(dailyrain), max(windgust)"
+            + " from stationdata where sampletime >= ? and sampletime < ? and stationkey = ?";
+    private static final int DAYS_PER_TRANSACTION = 31;
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @Inject
+    SchemaMigrationService schemaMigration;
+
+    @Inject
+    JobLeases leases;
+
+    private final Set<String> stations = ConcurrentHashMap.newKeySet();
+    private final Set<StationDay> dirty = ConcurrentHashMap.newKeySet();
+    private volatile boolean discovered;
+
+    private record StationDay(String stationkey, LocalDate date) {
+    }
+
+    void onStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) WeatherRecordStored event) {
+        String stationkey = event.record().getStationkey();
+        LocalDateTime sampleTime = event.record().getSampleTime();
+        if (stationkey == null || sampleTime == null) {
+            return;
+        }
+        stations.add(stationkey);
+        LocalDate date = WeatherUtils.convertUTCToLocal(sampleTime).toLocalDate();
+        if (date.isBefore(LocalDate.now())) {
+            dirty.add(new StationDay(stationkey, date));
+        }
+    }
+
+    @Scheduled(cron = "{weather.climate.close-cron}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledClose() {
+        if (schemaMigration.isCompleted() && leases.tryAcquire("climate-close")) {
+            closeDays();
+        }
+    }
+
+    @Override
+    public synchronized int closeDays() {
+        if (!discovered) {
+            discover();
+        }
+        LocalDate lastDay = LocalDate.now().minusDays(1);
+        int closed = 0;
+        for (String stationkey : stations) {
+            try {
+                closed += close(stationkey, lastDay);
+            } catch (RuntimeException ex) {
+                LOG.log(Level.WARNING, "Cannot summarize the days of " + stationkey, ex);
+            }
+        }
+        if (closed > 0) {
+            LOG.log(Level.INFO, "Summarized {0} days up to {1}", new Object[]{closed, lastDay});
+        }
+        return closed;
+    }
+
+    private void discover() {
+        List<String> stationkeys = QuarkusTransaction.requiringNew().call(() -> {
+            List<String> result = new ArrayList<>(ClimateDay.findStations());
+            try (Connection connection = ds.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(STATIONS);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(rs.getString(1));
+                }
+            }
+            return result;
+        });
+        stations.addAll(stationkeys);
+        discovered = true;
+    }
+
+    private int close(String stationkey, LocalDate lastDay) {
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (Iterator<StationDay> it = dirty.iterator(); it.hasNext(); ) {
+            StationDay day = it.next();
+            if (day.stationkey().equals(stationkey) && !day.date().isAfter(lastDay)) {
+                days.add(day.date());
+                it.remove();
+            }
+        }
+        LocalDate from = QuarkusTransaction.requiringNew().call(() -> {
+            Optional<ClimateDay> last = ClimateDay.findLast(stationkey);
+            if (last.isPresent()) {
+                return last.get().getSampleDate().plusDays(1);
+            }
+            LocalDateTime first = firstSample(stationkey);
+            return first != null ? WeatherUtils.convertUTCToLocal(first).toLocalDate() : null;
+        });
+        for (LocalDate day = from; day != null && !day.isAfter(lastDay); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        List<LocalDate> toClose = new ArrayList<>(days);
+        for (int i = 0; i < toClose.size(); i += DAYS_PER_TRANSACTION) {
+            List<LocalDate> chunk = toClose.subList(i, Math.min(toClose.size(), i + DAYS_PER_TRANSACTION));
+            try {
+                QuarkusTransaction.requiringNew().run(() -> {
+                    for (LocalDate day : chunk) {
+                        ClimateDay.deleteDay(stationkey, day);
+                        summarize(stationkey, day).persist();
+                    }
+                });
+            } catch (RuntimeException ex) {
+                // retried with the next run
+                toClose.subList(i, toClose.size()).forEach(d -> dirty.add(new StationDay(stationkey, d)));
+                throw ex;
+            }
+        }
+        return toClose.size();
+    }
+
+    private LocalDateTime firstSample(String stationkey) throws SQLException {
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIRST_SAMPLE)) {
+            stmt.setString(1, stationkey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getObject(1, LocalDateTime.class) : null;
+            }
+        }
+    }
+
+    /**
+     * Aggregates the samples of a local day.
+     */
+    private ClimateDay summarize(String stationkey, LocalDate date) {
+        ClimateDay result = new ClimateDay(stationkey, date);
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SUMMARY)) {
+            stmt.setObject(1, WeatherUtils.convertLocalToUTC(date.atStartOfDay()));
+            stmt.setObject(2, WeatherUtils.convertLocalToUTC(date.plusDays(1).atStartOfDay()));
+            stmt.setString(3, stationkey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    result.setSamples(rs.getInt(1));
+                    result.setTempMin(getDouble(rs, 2));
+                    result.setTempMax(getDouble(rs, 3));
+                    result.setTempMean(getDouble(rs, 4));
+                    result.setRain(getDouble(rs, 5));
+                    result.setMaxGust(getDouble(rs, 6));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot summarize " + date + " of " + stationkey, ex);
+        }
+        return result;
+    }
+
+    private static Double getDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * The day itself is aggregated from the samples, it may not be closed yet.
+     */
+    @Override
+    public List<ClimateReport> getReport(String stationkey, LocalDate date) {
+        List<String> stationkeys = stationkey != null ? List.of(stationkey) : ClimateDay.findStations();
+        List<ClimateReport> result = new ArrayList<>(stationkeys.size());
+        for (String key : stationkeys) {
+            ClimateReport.Values day = values(summarize(key, date));
+            List<ClimateDay> history = ClimateDay.findSameDay(key, ClimateDay.monthDay(date), date.withDayOfYear(1));
+            result.add(new ClimateReport(key, date, history.size(), day,
+                                         statistic(history, ClimateDay::getTempMin, day.tempmin()),
+                                         statistic(history, ClimateDay::getTempMax, day.tempmax()),
+                                         statistic(history, ClimateDay::getTempMean, day.tempmean()),
+                                         statistic(history, ClimateDay::getRain, day.rain()),
+                                         statistic(history, ClimateDay::getMaxGust, day.maxgust()),
+                                         history.stream().map(ClimateServiceImpl::values).toList()));
+        }
+        return result;
+    }
+
+    private static ClimateReport.Values values(ClimateDay day) {
+        return new ClimateReport.Values(day.getSampleDate(), day.getSamples(), day.getTempMin(), day.getTempMax(),
+                                        day.getTempMean(), day.getRain(), day.getMaxGust());
+    }
+
+    private static ClimateReport.Statistic statistic(List<ClimateDay> history, Function<ClimateDay, Double> field,
+                                                     Double current) {
+        List<ClimateDay> days = history.stream().filter(d -> field.apply(d) != null).toList();
+        if (days.isEmpty()) {
+            return null;
+        }
+        double[] sorted = new double[days.size()];
+        ClimateDay low = days.get(0);
+        ClimateDay high = days.get(0);
+        int below = 0;
+        for (int i = 0; i < sorted.length; ++i) {
+            ClimateDay day = days.get(i);
+            double value = field.apply(day);
+            sorted[i] = value;
+            if (value < field.apply(low)) {
+                low = day;
+            }
+            if (value > field.apply(high)) {
+                high = day;
+            }
+            if (current != null && value < current) {
+                ++below;
+            }
+        }
+        Arrays.sort(sorted);
+        return new ClimateReport.Statistic(sorted[0], percentile(sorted, 10), percentile(sorted, 25),
+                                           percentile(sorted, 50), percentile(sorted, 75), percentile(sorted, 90),
+                                           sorted[sorted.length - 1], low.getSampleDate().getYear(),
+                                           high.getSampleDate().getYear(),
+                                           current != null ? 100d * below / sorted.length : null);
+    }
+
+    private static double percentile(double[] sorted, int percent) {
+        double position = percent / 100d * (sorted.length - 1);
+        int index = (int) position;
+        if (index + 1 >= sorted.length) {
+            return sorted[sorted.length - 1];
+        }
+        return sorted[index] + (position - index) * (sorted[index + 1] - sorted[index]);
+    }
+
+    @Override
+    public void clear() {
+        stations.clear();
+        dirty.clear();
+        discovered = false;
+    }
+}
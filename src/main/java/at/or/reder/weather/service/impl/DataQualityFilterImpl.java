@@ -0,0 +1,223 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.QualityCheck;
+import at.or.reder.weather.model.QuarantinedValue;
+import at.or.reder.weather.model.WeatherField;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.DataQualityFilter;
+import at.or.reder.weather.service.WeatherMetrics;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks every configured field of a sample against its plausible range, the change per minute since the
+ * previous accepted value and the median and MAD of the last {@code weather.quality.window} accepted
+ * values of the station. The window is a fixed size ring, so a sample costs the same no matter how long
+ * the station has been posting. Rejected values do not enter the state; samples older than the newest
+ * checked one are only range checked.
+ */
+@ApplicationScoped
+@Default
+public class DataQualityFilterImpl implements DataQualityFilter {
+
+    private static final Logger LOG = Logger.getLogger(DataQualityFilterImpl.class.getName());
+    /**
+     * Scales the MAD to the standard deviation of normally distributed values.
+     */
+    private static final double MAD_SCALE = 1.4826;
+
+    @Inject
+    QualityConfig config;
+
+    @Inject
+    WeatherMetrics metrics;
+
+    private List<Rule> rules = List.of();
+    private final Map<String, StationState> stations = new ConcurrentHashMap<>();
+
+    /**
+     * Unconfigured limits are infinite, an unconfigured spread is {@code NaN}.
+     */
+    private record Rule(WeatherField field, double min, double max, double maxRate, double minSpread) {
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        if (config.window() < 3) {
+            throw new IllegalArgumentException("weather.quality.window must be at least 3");
+        }
+        List<Rule> result = new ArrayList<>();
+        config.fields().forEach((name, f) -> {
+            WeatherField field = WeatherField.fromString(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Quality check: unknown field " + name);
+            }
+            result.add(new Rule(field,
+                                f.min().orElse(Double.NEGATIVE_INFINITY),
+                                f.max().orElse(Double.POSITIVE_INFINITY),
+                                f.maxRate().orElse(Double.POSITIVE_INFINITY),
+                                f.minSpread().orElse(Double.NaN)));
+        });
+        result.sort(Comparator.comparing(Rule::field));
+        rules = List.copyOf(result);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        LOG.log(Level.INFO, "Data quality checks {0}: {1}",
+                new Object[]{config.enabled() ? "enabled" : "disabled",
+                             rules.stream().map(r -> r.field().getColumn()).toList()});
+    }
+
+    @Override
+    public List<QuarantinedValue> check(WeatherRecord record) {
+        String stationkey = record.getStationkey();
+        if (!config.enabled() || rules.isEmpty() || stationkey == null || record.getSampleTime() == null) {
+            return List.of();
+        }
+        long time = record.getSampleTime().toEpochSecond(ZoneOffset.UTC);
+        StationState station = stations.computeIfAbsent(stationkey, k -> new StationState());
+        List<QuarantinedValue> result = null;
+        synchronized (station) {
+            for (int i = 0; i < rules.size(); ++i) {
+                Rule rule = rules.get(i);
+                double value = rule.field().valueOf(record);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                QualityCheck failed = check(rule, station.fields[i], time, value);
+                if (failed != null) {
+                    rule.field().clear(record);
+                    if (result == null) {
+                        result = new ArrayList<>(2);
+                    }
+                    result.add(new QuarantinedValue(stationkey, record.getSampleTime(), rule.field(), value, failed));
+                }
+            }
+        }
+        if (result == null) {
+            return List.of();
+        }
+        for (QuarantinedValue q : result) {
+            metrics.counter(WeatherMetrics.QUALITY_REJECTED, q.getCheck().name().toLowerCase(Locale.ROOT),
+                            WeatherMetrics.FIELD, q.getField()).increment();
+            LOG.log(Level.FINE, "Quarantined {0}={1} of {2} at {3}: {4}",
+                    new Object[]{q.getField(), q.getValue(), stationkey, q.getSampleTime(), q.getCheck()});
+        }
+        return result;
+    }
+
+    private QualityCheck check(Rule rule, FieldState state, long time, double value) {
+        if (value < rule.min() || value > rule.max()) {
+            return QualityCheck.RANGE;
+        }
+        if (state.size > 0 && time <= state.lastTime) {
+            return null;
+        }
+        QualityCheck failed = null;
+        if (state.size > 0) {
+            double minutes = Math.max(1, time - state.lastTime) / 60d;
+            if (Math.abs(value - state.lastValue) > rule.maxRate() * minutes) {
+                failed = QualityCheck.RATE;
+            } else if (!Double.isNaN(rule.minSpread()) && state.size == state.values.length) {
+                double median = state.median();
+                double spread = Math.max(MAD_SCALE * state.mad(median), rule.minSpread());
+                if (Math.abs(value - median) / spread > config.outlierThreshold()) {
+                    failed = QualityCheck.OUTLIER;
+                }
+            }
+        }
+        if (failed != null) {
+            if (++state.rejected < config.resetAfter()) {
+                return failed;
+            }
+            // the value stayed off for too long, take it as the new level
+            state.reset();
+        }
+        state.rejected = 0;
+        state.add(time, value);
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        stations.clear();
+    }
+
+    private final class StationState {
+
+        private final FieldState[] fields = new FieldState[rules.size()];
+
+        StationState() {
+            for (int i = 0; i < fields.length; ++i) {
+                fields[i] = new FieldState(config.window());
+            }
+        }
+    }
+
+    /**
+     * The last accepted values of one field in a ring, guarded by the station state.
+     */
+    private static final class FieldState {
+
+        private final double[] values;
+        private final double[] scratch;
+        private int size;
+        private int next;
+        private long lastTime;
+        private double lastValue;
+        private int rejected;
+
+        FieldState(int window) {
+            values = new double[window];
+            scratch = new double[window];
+        }
+
+        void add(long time, double value) {
+            values[next] = value;
+            next = (next + 1) % values.length;
+            size = Math.min(size + 1, values.length);
+            lastTime = time;
+            lastValue = value;
+        }
+
+        void reset() {
+            size = 0;
+            next = 0;
+        }
+
+        double median() {
+            System.arraycopy(values, 0, scratch, 0, size);
+            return sortedMedian();
+        }
+
+        double mad(double median) {
+            for (int i = 0; i < size; ++i) {
+                scratch[i] = Math.abs(values[i] - median);
+            }
+            return sortedMedian();
+        }
+
+        private double sortedMedian() {
+            Arrays.sort(scratch, 0, size);
+            return size % 2 == 1 ? scratch[size / 2] : (scratch[size / 2 - 1] + scratch[size / 2]) / 2;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.service.DuplicateFilter;
+import at.or.reder.weather.service.WeatherMetrics;
+import at.or.reder.weather.service.WeatherRecordStored;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * The last {@code weather.dedup.recent-size} sample times of every station are kept exactly, older keys
+ * move into a Bloom filter. A Bloom filter hit is confirmed by an index lookup, so a false positive
+ * costs a query but never drops a sample. The Bloom filter has two generations: when the current one
+ * is full the older one is dropped, which bounds the memory.
+ * <p>
+ * The first sample of a station after startup loads the keys stored around its sample time, so
+ * retransmits right after a restart are recognized as well.
+ */
+@ApplicationScoped
+@Default
+public class DuplicateFilterImpl implements DuplicateFilter {
+
+    private static final Logger LOG = Logger.getLogger(DuplicateFilterImpl.class.getName());
+    private static final String BLOOM = "weather_ingest_dedup_bloom";
+
+    private static final String EXISTS =
+            "select count(*) from stationdata where sampletime = ? and stationkey = ?";
+    private static final String RECENT =
+            "select sampletime from stationdata where sampletime >= ? and sampletime <= ? and stationkey = ?"
+            + " order by sampletime";
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @Inject
+    WeatherMetrics metrics;
+
+    @ConfigProperty(name = "weather.dedup.recent-size", defaultValue = "128")
+    int recentSize;
+
+    @ConfigProperty(name = "weather.dedup.bloom-capacity", defaultValue = "500000")
+    int bloomCapacity;
+
+    @ConfigProperty(name = "weather.dedup.bloom-fpp", defaultValue = "0.01")
+    double bloomFpp;
+
+    @ConfigProperty(name = "weather.dedup.prefill-window", defaultValue = "PT1H")
+    Duration prefillWindow;
+
+    private final Map<String, RecentKeys> stations = new ConcurrentHashMap<>();
+    private final Object bloomLock = new Object();
+    private BloomFilter currentBloom;
+    private BloomFilter previousBloom;
+
+    /**
+     * Sample times of one station in insertion order, guarded by itself.
+     */
+    private final class RecentKeys {
+
+        private final String stationkey;
+        private final LinkedHashSet<Long> keys = new LinkedHashSet<>();
+        private boolean prefilled;
+
+        RecentKeys(String stationkey) {
+            this.stationkey = stationkey;
+        }
+
+        boolean contains(long epochSecond) {
+            return keys.contains(epochSecond);
+        }
+
+        boolean add(long epochSecond) {
+            if (!keys.add(epochSecond)) {
+                return false;
+            }
+            if (keys.size() > recentSize) {
+                Iterator<Long> eldest = keys.iterator();
+                long evicted = eldest.next();
+                eldest.remove();
+                bloomPut(BloomFilter.hash(stationkey, evicted));
+            }
+            return true;
+        }
+
+        void remove(long epochSecond) {
+            keys.remove(epochSecond);
+        }
+    }
+
+    @Override
+    public boolean tryClaim(String stationkey, LocalDateTime sampleTime) {
+        if (stationkey == null || sampleTime == null) {
+            return true;
+        }
+        long epochSecond = sampleTime.toEpochSecond(ZoneOffset.UTC);
+        RecentKeys recent = stations.computeIfAbsent(stationkey, RecentKeys::new);
+        synchronized (recent) {
+            if (!recent.prefilled) {
+                prefill(recent, sampleTime);
+            }
+            if (recent.contains(epochSecond)) {
+                return false;
+            }
+            if (bloomMightContain(BloomFilter.hash(stationkey, epochSecond))) {
+                if (isStored(stationkey, sampleTime)) {
+                    metrics.counter(BLOOM, "confirmed", WeatherMetrics.STATION, stationkey).increment();
+                    return false;
+                }
+                metrics.counter(BLOOM, "false_positive", WeatherMetrics.STATION, stationkey).increment();
+            }
+            return recent.add(epochSecond);
+        }
+    }
+
+    @Override
+    public void release(String stationkey, LocalDateTime sampleTime) {
+        RecentKeys recent = stationkey != null && sampleTime != null ? stations.get(stationkey) : null;
+        if (recent != null) {
+            synchronized (recent) {
+                recent.remove(sampleTime.toEpochSecond(ZoneOffset.UTC));
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        stations.clear();
+        synchronized (bloomLock) {
+            currentBloom = null;
+            previousBloom = null;
+        }
+    }
+
+    /**
+     * Samples stored by other paths (batch upload, spool) are known from now on.
+     */
+    void onStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) WeatherRecordStored event) {
+        String stationkey = event.record().getStationkey();
+        LocalDateTime sampleTime = event.record().getSampleTime();
+        RecentKeys recent = stationkey != null && sampleTime != null ? stations.get(stationkey) : null;
+        if (recent != null) {
+            synchronized (recent) {
+                recent.add(sampleTime.toEpochSecond(ZoneOffset.UTC));
+            }
+        }
+    }
+
+    void onFailed(@Observes(during = TransactionPhase.AFTER_FAILURE) WeatherRecordStored event) {
+        release(event.record().getStationkey(), event.record().getSampleTime());
+    }
+
+    private void bloomPut(long hash) {
+        synchronized (bloomLock) {
+            if (currentBloom == null) {
+                currentBloom = new BloomFilter(bloomCapacity, bloomFpp);
+            } else if (currentBloom.isFull()) {
+                previousBloom = currentBloom;
+                currentBloom = new BloomFilter(bloomCapacity, bloomFpp);
+            }
+            currentBloom.put(hash);
+        }
+    }
+
+    private boolean bloomMightContain(long hash) {
+        synchronized (bloomLock) {
+            return (currentBloom != null && currentBloom.mightContain(hash))
+                   || (previousBloom != null && previousBloom.mightContain(hash));
+        }
+    }
+
+    private boolean isStored(String stationkey, LocalDateTime sampleTime) {
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(EXISTS)) {
+            stmt.setObject(1, sampleTime);
+            stmt.setString(2, stationkey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        } catch (SQLException ex) {
+            // the unique index still rejects a real duplicate
+            LOG.log(Level.WARNING, "Cannot check for a stored sample", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Loads the sample times stored within the prefill window around the first sample of a station. A
+     * failure is logged only, the unique index is the fallback.
+     */
+    private void prefill(RecentKeys recent, LocalDateTime sampleTime) {
+        recent.prefilled = true;
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(RECENT)) {
+            stmt.setObject(1, sampleTime.minus(prefillWindow));
+            stmt.setObject(2, sampleTime.plus(prefillWindow));
+            stmt.setString(3, recent.stationkey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    recent.add(rs.getObject(1, LocalDateTime.class).toEpochSecond(ZoneOffset.UTC));
+                }
+            }
+        } catch (SQLException ex) {
+            LOG.log(Level.WARNING, "Cannot load the recent samples of " + recent.stationkey, ex);
+        }
+    }
+}
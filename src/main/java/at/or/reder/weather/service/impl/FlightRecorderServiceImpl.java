@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.service.FlightRecorderService;
+import at.or.reder.weather.service.HeatpumpImportChunkEvent;
+import at.or.reder.weather.service.RangeQueryEvent;
+import at.or.reder.weather.service.WeatherIngestEvent;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Default;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Runs a continuous disk backed recording with the JDK {@code default} settings (the low overhead
+ * profile meant for production) plus the weather events. Dumps are cut from a snapshot of the disk
+ * repository, so the running recording is never stopped. Events that carry the environment, system
+ * properties or the command line are switched off, the database password is passed as environment variable.
+ */
+@ApplicationScoped
+@Default
+public class FlightRecorderServiceImpl implements FlightRecorderService {
+
+    private static final Logger LOG = Logger.getLogger(FlightRecorderServiceImpl.class.getName());
+
+    @ConfigProperty(name = "weather.jfr.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "weather.jfr.settings", defaultValue = "default")
+    String settings;
+
+    @ConfigProperty(name = "weather.jfr.max-age", defaultValue = "PT1H")
+    Duration maxAge;
+
+    @ConfigProperty(name = "weather.jfr.max-size", defaultValue = "100M")
+    MemorySize maxSize;
+
+    /**
+     * Events of the JDK settings that would leak secrets into a dump.
+     */
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation",
+            "jdk.ProcessStart");
+
+    private Recording recording;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled || !FlightRecorder.isAvailable()) {
+            return;
+        }
+        try {
+            recording = new Recording(settings());
+            recording.setName("weatherlog");
+            recording.setToDisk(true);
+            recording.setMaxAge(maxAge);
+            recording.setMaxSize(maxSize.asLongValue());
+            recording.enable(WeatherIngestEvent.class);
+            recording.enable(RangeQueryEvent.class);
+            recording.enable(HeatpumpImportChunkEvent.class);
+            // REST calls run on virtual threads, a carrier pinned by a driver would show up here
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20));
+            recording.start();
+            LOG.log(Level.INFO, "Continuous flight recording started ({0}, max age {1})",
+                    new Object[]{settings, maxAge});
+        } catch (IOException | ParseException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Cannot start flight recording", ex);
+            recording = null;
+        }
+    }
+
+    private Map<String, String> settings() throws IOException, ParseException {
+        Map<String, String> result = new HashMap<>(Configuration.getConfiguration(settings).getSettings());
+        for (String event : SENSITIVE_EVENTS) {
+            result.keySet().removeIf(key -> key.startsWith(event + "#"));
+            result.put(event + "#enabled", "false");
+        }
+        return result;
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @Override
+    public Optional<Path> dump(Duration duration) throws IOException {
+        if (!FlightRecorder.isAvailable()) {
+            return Optional.empty();
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                return Optional.empty();
+            }
+            snapshot.setMaxAge(duration);
+            Path file = Files.createTempFile("weatherlog-", ".jfr");
+            try {
+                snapshot.dump(file);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(file);
+                throw ex;
+            }
+            return Optional.of(file);
+        }
+    }
+}
@@ -0,0 +1,501 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.StationCoverage;
+import at.or.reder.weather.model.StationGap;
+import at.or.reder.weather.model.StationGapMark;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.GapIndexService;
+import at.or.reder.weather.service.SchemaMigrationService;
+import at.or.reder.weather.service.WeatherRecordStored;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Two consecutive samples further apart than {@code weather.gaps.tolerance} times the station interval
+ * enclose a gap. Stored samples that follow the newest known sample are checked in memory and only a
+ * detected gap is written; a late sample splits the gap it falls into.
+ * <p>
+ * The catch-up scan walks {@code stationdata} from the station's {@link StationGapMark} in windows of
+ * {@code weather.gaps.scan-window}, each in its own transaction that also advances the mark. It drops
+ * the gaps after the mark before, so gaps written meanwhile at ingest are not recorded twice. A window is
+ * read without the station's lock, which is only held to hand over the window's gaps and the mark. While
+ * a station is scanned, ingest keeps samples after the scanned part for the scan; they are indexed at the
+ * next hand over, or after the last window.
+ * <p>
+ * The interval of a station is known from a posted sample or the mark. A station's first scan after
+ * startup may come before either, then the interval is the median spacing of the first samples scanned
+ * and is kept in the mark.
+ */
+@ApplicationScoped
+@Default
+public class GapIndexServiceImpl implements GapIndexService {
+
+    private static final Logger LOG = Logger.getLogger(GapIndexServiceImpl.class.getName());
+
+    private static final String STATIONS = "select distinct stationkey from stationdata where stationkey is not null";
+    private static final String FIRST_SAMPLE = "select min(sampletime) from stationdata where stationkey = ?";
+    private static final String LAST_SAMPLE =
+            "select max(sampletime) from stationdata where sampletime >= ? and sampletime < ? and stationkey = ?";
+    private static final String SAMPLES =
+            "select sampletime from stationdata where sampletime >= ? and sampletime < ? and stationkey = ?"
+            + " order by sampletime";
+    private static final int INTERVAL_SAMPLES = 101;
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @Inject
+    SchemaMigrationService schemaMigration;
+
+    @Inject
+    JobLeases leases;
+
+    @ConfigProperty(name = "weather.station.default-interval", defaultValue = "PT1M")
+    Duration defaultInterval;
+
+    @ConfigProperty(name = "weather.gaps.tolerance", defaultValue = "2.5")
+    double tolerance;
+
+    @ConfigProperty(name = "weather.gaps.scan-window", defaultValue = "P30D")
+    Duration scanWindow;
+
+    private final Map<String, StationIndex> stations = new ConcurrentHashMap<>();
+    private volatile boolean discovered;
+
+    /**
+     * The newest sample of a station that is indexed, guarded by itself.
+     */
+    private final class StationIndex {
+
+        private final String stationkey;
+        private boolean loaded;
+        private LocalDateTime lastSample;
+        private int intervalSeconds;
+        /**
+         * {@code intervalSeconds} is from a posted sample, the mark or the data, not the default.
+         */
+        private boolean intervalKnown;
+        private boolean scanning;
+        /**
+         * The newest sample handed over by the running scan.
+         */
+        private LocalDateTime scannedTo;
+        private final List<LocalDateTime> pending = new ArrayList<>();
+
+        StationIndex(String stationkey) {
+            this.stationkey = stationkey;
+            intervalSeconds = (int) defaultInterval.toSeconds();
+        }
+
+        boolean isGap(LocalDateTime before, LocalDateTime after) {
+            return isGap(before, after, intervalSeconds);
+        }
+    }
+
+    private boolean isGap(LocalDateTime before, LocalDateTime after, int intervalSeconds) {
+        return Duration.between(before, after).toSeconds() > intervalSeconds * tolerance;
+    }
+
+    void onStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) WeatherRecordStored event) {
+        WeatherRecord record = event.record();
+        String stationkey = record.getStationkey();
+        LocalDateTime sampleTime = record.getSampleTime();
+        if (stationkey == null || sampleTime == null) {
+            return;
+        }
+        StationIndex index = stations.computeIfAbsent(stationkey, StationIndex::new);
+        try {
+            synchronized (index) {
+                if (event.replicated()) {
+                    // the instance that stored the sample indexes it, here it only moves the newest sample
+                    if (!index.scanning && index.loaded && index.lastSample != null
+                            && sampleTime.isAfter(index.lastSample)) {
+                        index.lastSample = sampleTime;
+                    }
+                    return;
+                }
+                if (record.getInterval() > 0) {
+                    index.intervalSeconds = record.getInterval();
+                    index.intervalKnown = true;
+                }
+                if (index.scanning) {
+                    if (index.scannedTo != null && !sampleTime.isAfter(index.scannedTo)) {
+                        QuarkusTransaction.requiringNew().run(() -> split(index, sampleTime));
+                    } else {
+                        index.pending.add(sampleTime);
+                    }
+                } else if (index.loaded && index.lastSample != null && sampleTime.isAfter(index.lastSample)
+                        && !index.isGap(index.lastSample, sampleTime)) {
+                    index.lastSample = sampleTime;
+                } else {
+                    QuarkusTransaction.requiringNew().run(() -> update(index, sampleTime));
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOG.log(Level.WARNING, "Cannot index sample of " + stationkey + " at " + sampleTime, ex);
+        }
+    }
+
+    private void update(StationIndex index, LocalDateTime sampleTime) {
+        if (!index.loaded) {
+            StationGapMark mark = StationGapMark.findById(index.stationkey);
+            if (mark != null && mark.getSampleInterval() > 0 && !index.intervalKnown) {
+                index.intervalSeconds = mark.getSampleInterval();
+                index.intervalKnown = true;
+            }
+            if (mark != null && mark.getScannedTo() != null) {
+                index.lastSample = lastSample(index.stationkey, mark.getScannedTo(), sampleTime);
+            }
+            index.loaded = true;
+        }
+        if (index.lastSample == null) {
+            // not scanned yet, the scan indexes the history up to here
+            index.lastSample = sampleTime;
+        } else if (sampleTime.isAfter(index.lastSample)) {
+            if (index.isGap(index.lastSample, sampleTime)) {
+                new StationGap(index.stationkey, index.lastSample, sampleTime).persist();
+            }
+            index.lastSample = sampleTime;
+        } else {
+            split(index, sampleTime);
+        }
+    }
+
+    /**
+     * A late sample splits the gap it falls into, a sample the gap was computed with is not inside one.
+     */
+    private void split(StationIndex index, LocalDateTime sampleTime) {
+        StationGap.findContaining(index.stationkey, sampleTime).ifPresent(gap -> {
+            gap.delete();
+            if (index.isGap(gap.getGapStart(), sampleTime)) {
+                new StationGap(index.stationkey, gap.getGapStart(), sampleTime).persist();
+            }
+            if (index.isGap(sampleTime, gap.getGapEnd())) {
+                new StationGap(index.stationkey, sampleTime, gap.getGapEnd()).persist();
+            }
+        });
+    }
+
+    @Scheduled(every = "{weather.gaps.scan-interval}", delayed = "{weather.gaps.scan-delay}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledScan() {
+        if (schemaMigration.isCompleted() && leases.tryAcquire("gap-scan")) {
+            scan();
+        }
+    }
+
+    @Override
+    public int scan() {
+        if (!discovered) {
+            discover();
+        }
+        int found = 0;
+        for (StationIndex index : stations.values()) {
+            try {
+                found += scan(index);
+            } catch (RuntimeException ex) {
+                LOG.log(Level.WARNING, "Gap scan of " + index.stationkey + " failed", ex);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stations with samples but without mark are only found here, once after startup.
+     */
+    private void discover() {
+        List<String> stationkeys = QuarkusTransaction.requiringNew().call(() -> {
+            List<String> result = new ArrayList<>();
+            StationGapMark.<StationGapMark>listAll().forEach(m -> result.add(m.getStationkey()));
+            try (Connection connection = ds.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(STATIONS);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(rs.getString(1));
+                }
+            }
+            return result;
+        });
+        stationkeys.forEach(k -> stations.computeIfAbsent(k, StationIndex::new));
+        discovered = true;
+    }
+
+    private int scan(StationIndex index) {
+        String stationkey = index.stationkey;
+        LocalDateTime[] mark;
+        int intervalSeconds;
+        boolean intervalKnown;
+        synchronized (index) {
+            if (index.scanning) {
+                return 0;
+            }
+            mark = QuarkusTransaction.requiringNew().call(() -> {
+                StationGapMark m = StationGapMark.findById(stationkey);
+                if (m != null && m.getSampleInterval() > 0 && !index.intervalKnown) {
+                    index.intervalSeconds = m.getSampleInterval();
+                    index.intervalKnown = true;
+                }
+                LocalDateTime scannedTo = m != null ? m.getScannedTo() : null;
+                StationGap.deleteEndingAfter(stationkey, scannedTo);
+                return new LocalDateTime[]{scannedTo, scannedTo != null ? scannedTo : firstSample(stationkey)};
+            });
+            if (mark[1] == null) {
+                return 0;
+            }
+            index.scanning = true;
+            index.scannedTo = mark[0];
+            intervalSeconds = index.intervalSeconds;
+            intervalKnown = index.intervalKnown;
+        }
+        boolean completed = false;
+        try {
+            if (!intervalKnown) {
+                int inferred = inferInterval(stationkey, mark[1]);
+                synchronized (index) {
+                    if (!index.intervalKnown && inferred > 0) {
+                        index.intervalSeconds = inferred;
+                        index.intervalKnown = true;
+                    }
+                    intervalSeconds = index.intervalSeconds;
+                }
+            }
+            LocalDateTime windowStart = mark[1];
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            LocalDateTime[] last = {null};
+            int found = 0;
+            while (!windowStart.isAfter(now)) {
+                LocalDateTime from = windowStart;
+                List<StationGap> gaps = scanWindow(stationkey, intervalSeconds, from, from.plus(scanWindow), last);
+                synchronized (index) {
+                    QuarkusTransaction.requiringNew().run(() -> handOver(index, from, gaps, last[0]));
+                }
+                found += gaps.size();
+                windowStart = from.plus(scanWindow);
+            }
+            synchronized (index) {
+                if (last[0] != null && (index.lastSample == null || last[0].isAfter(index.lastSample))) {
+                    index.lastSample = last[0];
+                }
+                index.loaded = true;
+                index.scanning = false;
+                // samples stored after the last window was read
+                if (!index.pending.isEmpty()) {
+                    List<LocalDateTime> pending = index.pending.stream().sorted().toList();
+                    index.pending.clear();
+                    QuarkusTransaction.requiringNew().run(() -> pending.forEach(t -> update(index, t)));
+                }
+                completed = true;
+            }
+            if (found > 0) {
+                LOG.log(Level.INFO, "Gap scan of {0} from {1}: {2} gaps", new Object[]{stationkey, mark[1], found});
+            }
+            return found;
+        } finally {
+            if (!completed) {
+                synchronized (index) {
+                    // the next sample reloads the index from the mark, the next scan covers the rest
+                    index.scanning = false;
+                    index.loaded = false;
+                    index.lastSample = null;
+                    index.pending.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the gaps of a window, advances the mark and indexes the samples ingest kept for the scan that
+     * are not after the window's newest sample. They may have been read with the window, then they are
+     * not inside a gap.
+     */
+    private void handOver(StationIndex index, LocalDateTime from, List<StationGap> gaps, LocalDateTime last) {
+        gaps.forEach(StationGap::persist);
+        StationGapMark m = StationGapMark.findById(index.stationkey);
+        if (m == null) {
+            m = new StationGapMark(index.stationkey);
+            m.setFirstSample(from);
+            m.persist();
+        }
+        if (last != null) {
+            m.setScannedTo(last);
+            index.scannedTo = last;
+            List<LocalDateTime> late = index.pending.stream().filter(t -> !t.isAfter(last)).sorted().toList();
+            index.pending.removeAll(late);
+            late.forEach(t -> split(index, t));
+        }
+        m.setSampleInterval(index.intervalSeconds);
+    }
+
+    /**
+     * @param last the newest sample seen so far, updated
+     * @return the gaps of the window, not persisted
+     */
+    private List<StationGap> scanWindow(String stationkey, int intervalSeconds, LocalDateTime from, LocalDateTime to,
+                                        LocalDateTime[] last) {
+        List<StationGap> gaps = new ArrayList<>();
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SAMPLES)) {
+            stmt.setFetchSize(SampleCursor.FETCH_SIZE);
+            stmt.setObject(1, from);
+            stmt.setObject(2, to);
+            stmt.setString(3, stationkey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime sampleTime = rs.getObject(1, LocalDateTime.class);
+                    if (last[0] != null && isGap(last[0], sampleTime, intervalSeconds)) {
+                        gaps.add(new StationGap(stationkey, last[0], sampleTime));
+                    }
+                    last[0] = sampleTime;
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return gaps;
+    }
+
+    /**
+     * The median spacing of the first samples of the window at {@code from}, 0 with less than two samples.
+     */
+    private int inferInterval(String stationkey, LocalDateTime from) {
+        List<Long> spacings = new ArrayList<>();
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SAMPLES)) {
+            stmt.setMaxRows(INTERVAL_SAMPLES);
+            stmt.setObject(1, from);
+            stmt.setObject(2, from.plus(scanWindow));
+            stmt.setString(3, stationkey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                LocalDateTime previous = null;
+                while (rs.next()) {
+                    LocalDateTime sampleTime = rs.getObject(1, LocalDateTime.class);
+                    if (previous != null) {
+                        spacings.add(Duration.between(previous, sampleTime).toSeconds());
+                    }
+                    previous = sampleTime;
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+        if (spacings.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(spacings);
+        return (int) Math.max(1, spacings.get(spacings.size() / 2));
+    }
+
+    private LocalDateTime firstSample(String stationkey) throws SQLException {
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIRST_SAMPLE)) {
+            stmt.setString(1, stationkey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getObject(1, LocalDateTime.class) : null;
+            }
+        }
+    }
+
+    private LocalDateTime lastSample(String stationkey, LocalDateTime from, LocalDateTime before) {
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(LAST_SAMPLE)) {
+            stmt.setObject(1, from);
+            stmt.setObject(2, before);
+            stmt.setString(3, stationkey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getObject(1, LocalDateTime.class) : null;
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public List<StationCoverage> getCoverage(String stationkey, LocalDateTime from, LocalDateTime to) {
+        List<StationGapMark> marks;
+        if (stationkey != null) {
+            StationGapMark mark = StationGapMark.findById(stationkey);
+            marks = mark != null ? List.of(mark) : List.of();
+        } else {
+            marks = StationGapMark.listAll(Sort.by("stationkey"));
+        }
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime end = to.isAfter(now) ? now : to;
+        List<StationCoverage> result = new ArrayList<>(marks.size());
+        for (StationGapMark mark : marks) {
+            result.add(coverage(mark, from, end));
+        }
+        return result;
+    }
+
+    private StationCoverage coverage(StationGapMark mark, LocalDateTime from, LocalDateTime to) {
+        String stationkey = mark.getStationkey();
+        int interval = mark.getSampleInterval() > 0 ? mark.getSampleInterval() : (int) defaultInterval.toSeconds();
+        long rangeSeconds = Math.max(0, Duration.between(from, to).toSeconds());
+        List<StationCoverage.Gap> gaps = new ArrayList<>();
+        long missing = 0;
+        LocalDateTime first = mark.getFirstSample();
+        if (first != null && first.isAfter(from)) {
+            gaps.add(new StationCoverage.Gap(from, first, false));
+            missing += overlap(from, first, from, to);
+        }
+        for (StationGap gap : StationGap.findOverlapping(stationkey, from, to)) {
+            gaps.add(new StationCoverage.Gap(gap.getGapStart(), gap.getGapEnd(), false));
+            missing += overlap(gap.getGapStart().plusSeconds(interval), gap.getGapEnd(), from, to);
+        }
+        LocalDateTime last = mark.getScannedTo();
+        StationIndex index = stations.get(stationkey);
+        if (index != null) {
+            synchronized (index) {
+                if (index.lastSample != null && (last == null || index.lastSample.isAfter(last))) {
+                    last = index.lastSample;
+                }
+            }
+        }
+        if (last != null && isGap(last, to, interval)) {
+            gaps.add(new StationCoverage.Gap(last, to, true));
+            missing += overlap(last.plusSeconds(interval), to, from, to);
+        }
+        double coverage = rangeSeconds > 0 ? Math.max(0, 100d * (rangeSeconds - missing) / rangeSeconds) : 100;
+        return new StationCoverage(stationkey, from, to, interval, coverage, missing, gaps);
+    }
+
+    private static long overlap(LocalDateTime start, LocalDateTime end, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime a = start.isAfter(from) ? start : from;
+        LocalDateTime b = end.isBefore(to) ? end : to;
+        return b.isAfter(a) ? Duration.between(a, b).toSeconds() : 0;
+    }
+
+    @Override
+    public void clear() {
+        stations.clear();
+        discovered = false;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.AlignmentMode;
+import at.or.reder.weather.model.HeatpumpEfficiencyDay;
+import at.or.reder.weather.model.HeatpumpWeatherRow;
+import at.or.reder.weather.model.RunningStatistics;
+import at.or.reder.weather.service.HeatpumpAnalyticsService;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+@Default
+public class HeatpumpAnalyticsServiceImpl implements HeatpumpAnalyticsService {
+
+    /** Heatpump exports and energy days are local time, see {@link HeatpumpServiceImpl}. */
+    static final ZoneId LOCAL_ZONE = ZoneId.of("CET");
+
+    private static final String HEATPUMP_QUERY =
+            "select sampletime, roomTemp, roomTempSet, outdoorTemp, hotWaterTemp from heatpumpdata"
+            + " where sampletime >= ? and sampletime < ? order by sampletime";
+    private static final String WEATHER_QUERY =
+            "select sampletime, tempout, solarradiation, windspeed from stationdata"
+            + " where sampletime >= ? and sampletime < ?";
+    private static final String TEMPOUT_QUERY =
+            "select sampletime, tempout from stationdata"
+            + " where sampletime >= ? and sampletime < ?";
+    private static final String ENERGY_QUERY =
+            "select sampleday, heatGeneratedHeating, consumedElectricalEnergyHeating from heatpumpenergy"
+            + " where sampleday >= ? and sampleday < ? order by sampleday";
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @ConfigProperty(name = "weather.analytics.heating-base", defaultValue = "20")
+    double heatingBase;
+
+    @ConfigProperty(name = "weather.analytics.heating-limit", defaultValue = "12")
+    double heatingLimit;
+
+    @Override
+    public void alignWithWeather(LocalDateTime timeFrom,
+                                 LocalDateTime timeTo,
+                                 Duration bucket,
+                                 AlignmentMode mode,
+                                 String stationkey,
+                                 Consumer<HeatpumpWeatherRow> consumer) throws SQLException {
+        try (SampleCursor<LocalDateTime> heatpump = new SampleCursor<>(ds, LocalDateTime.class,
+                     HEATPUMP_QUERY, timeFrom, timeTo);
+             SampleCursor<LocalDateTime> weather = openWeatherCursor(WEATHER_QUERY, timeFrom, timeTo, stationkey)) {
+            switch (mode) {
+                case BUCKET -> mergeBuckets(heatpump, weather, timeFrom, bucket.toSeconds(), consumer);
+                case NEAREST -> mergeNearest(heatpump, weather, bucket.toSeconds() / 2, consumer);
+            }
+        }
+    }
+
+    private SampleCursor<LocalDateTime> openWeatherCursor(String query,
+                                                          LocalDateTime timeFrom,
+                                                          LocalDateTime timeTo,
+                                                          String stationkey) throws SQLException {
+        if (stationkey != null) {
+            return new SampleCursor<>(ds, LocalDateTime.class,
+                    query + " and stationkey = ? order by sampletime", timeFrom, timeTo, stationkey);
+        }
+        return new SampleCursor<>(ds, LocalDateTime.class,
+                query + " order by sampletime", timeFrom, timeTo);
+    }
+
+    private static long epochSecond(LocalDateTime utc) {
+        return utc.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private void mergeBuckets(SampleCursor<LocalDateTime> heatpump,
+                              SampleCursor<LocalDateTime> weather,
+                              LocalDateTime timeFrom,
+                              long bucketSeconds,
+                              Consumer<HeatpumpWeatherRow> consumer) throws SQLException {
+        long origin = epochSecond(timeFrom);
+        RunningStatistics[] heatpumpStats = newStatistics(4);
+        RunningStatistics[] weatherStats = newStatistics(3);
+        while (heatpump.isValid() || weather.isValid()) {
+            long bucket = Math.min(
+                    heatpump.isValid() ? Math.floorDiv(epochSecond(heatpump.key()) - origin, bucketSeconds) : Long.MAX_VALUE,
+                    weather.isValid() ? Math.floorDiv(epochSecond(weather.key()) - origin, bucketSeconds) : Long.MAX_VALUE);
+            long bucketEnd = origin + (bucket + 1) * bucketSeconds;
+            int heatpumpCount = accumulate(heatpump, bucketEnd, heatpumpStats);
+            int weatherCount = accumulate(weather, bucketEnd, weatherStats);
+            consumer.accept(new HeatpumpWeatherRow(
+                    LocalDateTime.ofEpochSecond(origin + bucket * bucketSeconds, 0, ZoneOffset.UTC),
+                    heatpumpCount,
+                    heatpumpStats[0].getMean(),
+                    heatpumpStats[1].getMean(),
+                    heatpumpStats[2].getMean(),
+                    heatpumpStats[3].getMean(),
+                    weatherCount,
+                    weatherStats[0].getMean(),
+                    weatherStats[1].getMean(),
+                    weatherStats[2].getMean()));
+        }
+    }
+
+    private static int accumulate(SampleCursor<LocalDateTime> cursor,
+                                  long bucketEnd,
+                                  RunningStatistics[] stats) throws SQLException {
+        for (RunningStatistics s : stats) {
+            s.reset();
+        }
+        int count = 0;
+        while (cursor.isValid() && epochSecond(cursor.key()) < bucketEnd) {
+            for (int i = 0; i < stats.length; ++i) {
+                stats[i].add(cursor.value(i));
+            }
+            ++count;
+            cursor.advance();
+        }
+        return count;
+    }
+
+    private void mergeNearest(SampleCursor<LocalDateTime> heatpump,
+                              SampleCursor<LocalDateTime> weather,
+                              long toleranceSeconds,
+                              Consumer<HeatpumpWeatherRow> consumer) throws SQLException {
+        long prevTime = Long.MIN_VALUE;
+        double[] prev = new double[3];
+        while (heatpump.isValid()) {
+            long time = epochSecond(heatpump.key());
+            while (weather.isValid() && epochSecond(weather.key()) <= time) {
+                prevTime = epochSecond(weather.key());
+                for (int i = 0; i < prev.length; ++i) {
+                    prev[i] = weather.value(i);
+                }
+                weather.advance();
+            }
+            long prevDistance = prevTime == Long.MIN_VALUE ? Long.MAX_VALUE : time - prevTime;
+            long nextDistance = weather.isValid() ? epochSecond(weather.key()) - time : Long.MAX_VALUE;
+            boolean usePrev = prevDistance <= nextDistance && prevDistance <= toleranceSeconds;
+            boolean useNext = !usePrev && nextDistance <= toleranceSeconds;
+            consumer.accept(new HeatpumpWeatherRow(
+                    heatpump.key(),
+                    1,
+                    heatpump.value(0),
+                    heatpump.value(1),
+                    heatpump.value(2),
+                    heatpump.value(3),
+                    usePrev || useNext ? 1 : 0,
+                    usePrev ? prev[0] : useNext ? weather.value(0) : Double.NaN,
+                    usePrev ? prev[1] : useNext ? weather.value(1) : Double.NaN,
+                    usePrev ? prev[2] : useNext ? weather.value(2) : Double.NaN));
+            heatpump.advance();
+        }
+    }
+
+    @Override
+    public void dailyEfficiency(LocalDate dayFrom,
+                                LocalDate dayTo,
+                                String stationkey,
+                                Consumer<HeatpumpEfficiencyDay> consumer) throws SQLException {
+        LocalDate dayEnd = dayTo.plusDays(1);
+        try (SampleCursor<LocalDate> energy = new SampleCursor<>(ds, LocalDate.class,
+                     ENERGY_QUERY, dayFrom, dayEnd);
+             SampleCursor<LocalDateTime> weather = openWeatherCursor(TEMPOUT_QUERY,
+                     toUtc(dayFrom), toUtc(dayEnd), stationkey)) {
+            RunningStatistics temperature = new RunningStatistics();
+            while (energy.isValid() || weather.isValid()) {
+                LocalDate day = energy.isValid() ? energy.key() : null;
+                if (weather.isValid()) {
+                    LocalDate weatherDay = toLocalDay(weather.key());
+                    if (day == null || weatherDay.isBefore(day)) {
+                        day = weatherDay;
+                    }
+                }
+                LocalDateTime dayBoundary = toUtc(day.plusDays(1));
+                temperature.reset();
+                int weatherCount = 0;
+                while (weather.isValid() && weather.key().isBefore(dayBoundary)) {
+                    temperature.add(weather.value(0));
+                    ++weatherCount;
+                    weather.advance();
+                }
+                double heat = Double.NaN;
+                double electrical = Double.NaN;
+                if (energy.isValid() && energy.key().equals(day)) {
+                    heat = energy.value(0);
+                    electrical = energy.value(1);
+                    energy.advance();
+                }
+                double mean = temperature.getMean();
+                consumer.accept(new HeatpumpEfficiencyDay(
+                        day,
+                        weatherCount,
+                        mean,
+                        heatingDegreeDays(mean),
+                        heat,
+                        electrical,
+                        electrical > 0 ? heat / electrical : Double.NaN));
+            }
+        }
+    }
+
+    /**
+     * Heating degree days after the Austrian definition (HGT 20/12 by default): a day counts only if its
+     * mean temperature stays below the heating limit.
+     */
+    double heatingDegreeDays(double meanTemp) {
+        if (Double.isNaN(meanTemp)) return Double.NaN;
+        return meanTemp < heatingLimit ? heatingBase - meanTemp : 0d;
+    }
+
+    private static LocalDateTime toUtc(LocalDate localDay) {
+        return LocalDateTime.ofInstant(localDay.atStartOfDay(LOCAL_ZONE).toInstant(), ZoneOffset.UTC);
+    }
+
+    private static LocalDate toLocalDay(LocalDateTime utc) {
+        return utc.atOffset(ZoneOffset.UTC).atZoneSameInstant(LOCAL_ZONE).toLocalDate();
+    }
+
+    private static RunningStatistics[] newStatistics(int size) {
+        RunningStatistics[] result = new RunningStatistics[size];
+        for (int i = 0; i < size; ++i) {
+            result[i] = new RunningStatistics();
+        }
+        return result;
+    }
+}
@@ -5,24 +5,41 @@
 package at.or.reder.weather.service.impl;
 
 import at.or.reder.weather.model.HeatpumpData;
+import at.or.reder.weather.model.HeatpumpDataBucket;
 import at.or.reder.weather.model.HeatpumpEnergy;
 import at.or.reder.weather.model.HeatpumpEnergyRecord;
+import at.or.reder.weather.model.HeatpumpField;
+import at.or.reder.weather.model.HeatpumpFileType;
+import at.or.reder.weather.model.HeatpumpImport;
 import at.or.reder.weather.model.HeatpumpScope;
+import at.or.reder.weather.model.RunningStatistics;
 import at.or.reder.weather.model.WeatherUtils;
+import at.or.reder.weather.service.HeatpumpImportChunkEvent;
 import at.or.reder.weather.service.HeatpumpService;
+import at.or.reder.weather.service.WeatherMetrics;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.lang3.StringUtils;
@@ -33,6 +50,173 @@ public class HeatpumpServiceImpl implements HeatpumpService {
 
     private static final Logger LOG = Logger.getLogger(HeatpumpServiceImpl.class.getName());
 
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @Inject
+    WeatherMetrics metrics;
+
+    /**
+     * Counters and covered time range of one import run. Rows inside a range an earlier file of the same
+     * type imported are skipped without lookup and counted as unchanged.
+     */
+    static final class ImportProgress {
+
+        private final HeatpumpFileType fileType;
+        /**
+         * See {@link HeatpumpImport#findImportedRanges}.
+         */
+        private final List<LocalDateTime[]> imported;
+        private LocalDateTime first;
+        private LocalDateTime last;
+        private int total;
+        private int skipped;
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int rejected;
+        private long parseNanos;
+        private long lookupNanos;
+        private HeatpumpImportChunkEvent chunk;
+        private int chunkStart;
+        private long chunkDbNanos;
+
+        ImportProgress(HeatpumpFileType fileType, List<LocalDateTime[]> imported) {
+            this.fileType = fileType;
+            this.imported = imported;
+            chunk = new HeatpumpImportChunkEvent();
+            chunk.begin();
+        }
+
+        void dbTime(long nanos) {
+            chunkDbNanos += nanos;
+        }
+
+        /**
+         * Emits the chunk event for the lines since the previous call and starts the next chunk.
+         */
+        void endChunk() {
+            int rows = total + rejected - chunkStart;
+            chunk.end();
+            if (rows > 0 && chunk.shouldCommit()) {
+                chunk.fileType = fileType.name();
+                chunk.rows = rows;
+                chunk.dbTime = chunkDbNanos;
+                chunk.commit();
+            }
+            chunkStart = total + rejected;
+            chunkDbNanos = 0;
+            chunk = new HeatpumpImportChunkEvent();
+            chunk.begin();
+        }
+
+        void reject() {
+            ++rejected;
+        }
+
+        void parsed(long nanos) {
+            parseNanos += nanos;
+        }
+
+        void looked(long nanos) {
+            lookupNanos += nanos;
+        }
+
+        boolean isImported(LocalDateTime sampleTime) {
+            int low = 0;
+            int high = imported.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                LocalDateTime[] range = imported.get(mid);
+                if (sampleTime.isBefore(range[0])) {
+                    high = mid - 1;
+                } else if (sampleTime.isAfter(range[1])) {
+                    low = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void skip(LocalDateTime sampleTime) {
+            ++skipped;
+            record(sampleTime, false, false);
+        }
+
+        void record(LocalDateTime sampleTime, boolean created, boolean changed) {
+            ++total;
+            if (first == null || sampleTime.isBefore(first)) first = sampleTime;
+            if (last == null || sampleTime.isAfter(last)) last = sampleTime;
+            if (created) {
+                ++inserted;
+            } else if (changed) {
+                ++updated;
+            } else {
+                ++unchanged;
+            }
+        }
+    }
+
+    /**
+     * Resolves {@link HeatpumpData} rows one day at a time instead of one query per line. Export files
+     * are ordered by time, so each day is loaded once. Days after the newest stored sample are not
+     * queried at all. The persistence context is flushed and cleared on every day change, which keeps it
+     * from growing with the file size.
+     */
+    private static final class HeatpumpDataLookup {
+
+        private final Map<LocalDateTime, HeatpumpData> dayRows = new HashMap<>();
+        private final ImportProgress progress;
+        private LocalDateTime newestStored;
+        private LocalDate loadedDay;
+
+        HeatpumpDataLookup(ImportProgress progress) {
+            this.progress = progress;
+            newestStored = HeatpumpData.getEntityManager()
+                    .createQuery("select max(d.sampletime) from HeatpumpData d", LocalDateTime.class)
+                    .getSingleResult();
+        }
+
+        HeatpumpData find(LocalDateTime sampleTime) {
+            LocalDate day = sampleTime.toLocalDate();
+            if (!day.equals(loadedDay)) {
+                load(day);
+            }
+            return dayRows.get(sampleTime);
+        }
+
+        HeatpumpData create(LocalDateTime sampleTime) {
+            HeatpumpData result = new HeatpumpData();
+            result.setSampletime(sampleTime);
+            result.persist();
+            dayRows.put(sampleTime, result);
+            if (newestStored == null || sampleTime.isAfter(newestStored)) {
+                newestStored = sampleTime;
+            }
+            return result;
+        }
+
+        private void load(LocalDate day) {
+            EntityManager em = HeatpumpData.getEntityManager();
+            long flushStart = System.nanoTime();
+            em.flush();
+            em.clear();
+            progress.dbTime(System.nanoTime() - flushStart);
+            progress.endChunk();
+            dayRows.clear();
+            loadedDay = day;
+            LocalDateTime start = day.atStartOfDay();
+            if (newestStored != null && !start.isAfter(newestStored)) {
+                long queryStart = System.nanoTime();
+                HeatpumpData.<HeatpumpData>list("sampletime >= ?1 and sampletime < ?2", start, start.plusDays(1))
+                        .forEach(d -> dayRows.put(d.getSampletime(), d));
+                progress.dbTime(System.nanoTime() - queryStart);
+            }
+        }
+    }
+
     @Override
     public Optional<HeatpumpEnergyRecord> getEnergy(HeatpumpScope scope, LocalDate day) {
         HeatpumpEnergy record = HeatpumpEnergy.find("sampleday", day).firstResult();
@@ -52,31 +236,118 @@ public class HeatpumpServiceImpl implements HeatpumpService {
         });
     }
 
-    @Transactional(Transactional.TxType.REQUIRED)
-    HeatpumpData findOrCreateHeatpumpData(LocalDateTime sampleTime) {
-        List<HeatpumpData> list = HeatpumpData.find("sampletime", sampleTime).page(0, 1).list();
-        if (list.isEmpty()) {
-            HeatpumpData result = new HeatpumpData();
-            result.setSampletime(sampleTime);
-            result.persist();
-            return result;
+    @Override
+    public long streamData(LocalDateTime timeFrom,
+                           LocalDateTime timeTo,
+                           List<HeatpumpField> fields,
+                           int maxPoints,
+                           Consumer<HeatpumpDataBucket> consumer) throws SQLException {
+        long origin = timeFrom.toEpochSecond(ZoneOffset.UTC);
+        long span = timeTo.toEpochSecond(ZoneOffset.UTC) - origin;
+        long bucketSeconds = Math.max(1, (span + maxPoints - 1) / maxPoints);
+        StringBuilder sql = new StringBuilder("select sampletime");
+        for (HeatpumpField field : fields) {
+            sql.append(", ").append(field.getColumn());
         }
-        return list.get(0);
+        sql.append(" from heatpumpdata where sampletime >= ? and sampletime < ? order by sampletime");
+        RunningStatistics[] stats = new RunningStatistics[fields.size()];
+        for (int i = 0; i < stats.length; ++i) {
+            stats[i] = new RunningStatistics();
+        }
+        try (SampleCursor<LocalDateTime> cursor = new SampleCursor<>(ds, LocalDateTime.class, sql.toString(),
+                timeFrom, timeTo)) {
+            while (cursor.isValid()) {
+                long bucket = (cursor.key().toEpochSecond(ZoneOffset.UTC) - origin) / bucketSeconds;
+                long bucketEnd = origin + (bucket + 1) * bucketSeconds;
+                int samples = 0;
+                for (RunningStatistics s : stats) {
+                    s.reset();
+                }
+                while (cursor.isValid() && cursor.key().toEpochSecond(ZoneOffset.UTC) < bucketEnd) {
+                    for (int i = 0; i < stats.length; ++i) {
+                        stats[i].add(cursor.value(i));
+                    }
+                    ++samples;
+                    cursor.advance();
+                }
+                double[] min = new double[stats.length];
+                double[] max = new double[stats.length];
+                double[] avg = new double[stats.length];
+                for (int i = 0; i < stats.length; ++i) {
+                    min[i] = stats[i].getMin();
+                    max[i] = stats[i].getMax();
+                    avg[i] = stats[i].getMean();
+                }
+                consumer.accept(new HeatpumpDataBucket(
+                        LocalDateTime.ofEpochSecond(origin + bucket * bucketSeconds, 0, ZoneOffset.UTC),
+                        samples, min, max, avg));
+            }
+        }
+        return bucketSeconds;
     }
 
+    @Override
+    public boolean isImported(String contentHash) {
+        return HeatpumpImport.existsByHash(contentHash);
+    }
+
+    @Override
     @Transactional(Transactional.TxType.REQUIRED)
-    HeatpumpEnergy findOrCreateHeatpumpEnergy(LocalDate sampleDay) {
-        List<HeatpumpEnergy> list = HeatpumpEnergy.find("sampleday", sampleDay).page(0, 1).list();
-        if (list.isEmpty()) {
-            HeatpumpEnergy result = new HeatpumpEnergy();
-            result.setSampleday(sampleDay);
-            result.persist();
-            return result;
+    public HeatpumpImport importFile(HeatpumpFileType fileType,
+                                     String fileName,
+                                     String contentHash,
+                                     LineNumberReader reader) throws IOException {
+        ImportProgress progress = new ImportProgress(fileType, HeatpumpImport.findImportedRanges(fileType));
+        switch (fileType) {
+            case HOT_WATER -> importHotWaterData(reader, progress);
+            case SYSTEM -> importSystemData(reader, progress);
+            case ZONE -> importZoneData(reader, progress);
+            case ENERGY -> importEnergyData(reader, progress);
         }
-        return list.get(0);
+        flush(progress);
+        HeatpumpImport result = new HeatpumpImport();
+        result.setContentHash(contentHash);
+        result.setFileType(fileType);
+        result.setFileName(StringUtils.truncate(fileName, 255));
+        result.setRangeFrom(progress.first);
+        result.setRangeTo(progress.last);
+        result.setTotalRows(progress.total);
+        result.setInsertedRows(progress.inserted);
+        result.setUpdatedRows(progress.updated);
+        result.setUnchangedRows(progress.unchanged);
+        result.setImportTime(WeatherUtils.convertLocalToUTC(LocalDateTime.now()));
+        result.persist();
+        LOG.log(Level.INFO, "Imported {0} ({1}): {2} rows, {3} in imported ranges, {4} inserted, {5} updated, {6} unchanged, {7} rejected",
+                new Object[]{fileName, fileType, progress.total, progress.skipped,
+                             progress.inserted, progress.updated, progress.unchanged, progress.rejected});
+        return result;
+    }
+
+    /**
+     * Flushes the import and publishes its timings and row counters.
+     */
+    private void flush(ImportProgress progress) {
+        long start = System.nanoTime();
+        HeatpumpData.flush();
+        long flushNanos = System.nanoTime() - start;
+        progress.dbTime(flushNanos);
+        progress.endChunk();
+        String fileType = progress.fileType.name().toLowerCase();
+        metrics.record(WeatherMetrics.HEATPUMP_IMPORT, "parse", WeatherMetrics.FILE_TYPE, fileType, progress.parseNanos);
+        metrics.record(WeatherMetrics.HEATPUMP_IMPORT, "lookup", WeatherMetrics.FILE_TYPE, fileType, progress.lookupNanos);
+        metrics.record(WeatherMetrics.HEATPUMP_IMPORT, "flush", WeatherMetrics.FILE_TYPE, fileType, flushNanos);
+        metrics.counter(WeatherMetrics.HEATPUMP_ROWS, "processed", WeatherMetrics.FILE_TYPE, fileType).increment(progress.total);
+        metrics.counter(WeatherMetrics.HEATPUMP_ROWS, "rejected", WeatherMetrics.FILE_TYPE, fileType).increment(progress.rejected);
+    }
+
+    private HeatpumpEnergy createHeatpumpEnergy(LocalDate sampleDay) {
+        HeatpumpEnergy result = new HeatpumpEnergy();
+        result.setSampleday(sampleDay);
+        result.persist();
+        return result;
     }
 
-    private Optional<LocalDateTime> parseLocalDateTime(String str) {
+    Optional<LocalDateTime> parseLocalDateTime(String str) {
         try {
             return Optional.of(WeatherUtils.convertToTimezone(
                     LocalDateTime.parse(str, DateTimeFormatter.ofPattern("yyy-MM-dd HH:mm:ss")),
@@ -86,7 +357,7 @@ public class HeatpumpServiceImpl implements HeatpumpService {
         }
     }
 
-    private Optional<LocalDate> parseLocalDate(String str) {
+    Optional<LocalDate> parseLocalDate(String str) {
         try {
             return Optional.of(LocalDateTime.parse(str,
                     DateTimeFormatter.ofPattern("yyy-MM-dd HH:mm:ss")).toLocalDate());
@@ -121,25 +392,51 @@ public class HeatpumpServiceImpl implements HeatpumpService {
     @Override
     @Transactional(Transactional.TxType.REQUIRED)
     public void insertZoneData(LineNumberReader reader) throws IOException {
+        ImportProgress progress = new ImportProgress(HeatpumpFileType.ZONE, List.of());
+        importZoneData(reader, progress);
+        flush(progress);
+    }
+
+    private void importZoneData(LineNumberReader reader, ImportProgress progress) throws IOException {
         String line = readNextNoCommentLine(reader);
         if (line != null) {
             String[] parts = line.split(";");
             OptionalInt currentRoomIndex = findColumnIndex(parts, "CurrentRoomTemperature");
             OptionalInt setpointIndex = findColumnIndex(parts, "RoomTemperatureSetpoint");
+            HeatpumpDataLookup lookup = new HeatpumpDataLookup(progress);
             while ((line = readNextNoCommentLine(reader)) != null) {
+                long start = System.nanoTime();
                 parts = line.split(";");
                 if (parts.length >= 3) {
                     Optional<LocalDateTime> dt = parseLocalDateTime(parts[0]);
+                    if (dt.isPresent() && progress.isImported(dt.get())) {
+                        progress.skip(dt.get());
+                        continue;
+                    }
                     if (dt.isPresent()) {
                         Optional<Double> currentRoom = parseDouble(parts, currentRoomIndex);
                         Optional<Double> roomSet = parseDouble(parts, setpointIndex);
                         if (currentRoom.isPresent() && roomSet.isPresent()) {
-                            HeatpumpData data = findOrCreateHeatpumpData(dt.get());
-                            data.setRoomTemp(currentRoom.get());
-                            data.setRoomTempSet(roomSet.get());
+                            long parsed = System.nanoTime();
+                            progress.parsed(parsed - start);
+                            HeatpumpData data = lookup.find(dt.get());
+                            boolean created = data == null;
+                            if (created) {
+                                data = lookup.create(dt.get());
+                            }
+                            boolean changed = Double.compare(data.getRoomTemp(), currentRoom.get()) != 0
+                                    || Double.compare(data.getRoomTempSet(), roomSet.get()) != 0;
+                            if (changed) {
+                                data.setRoomTemp(currentRoom.get());
+                                data.setRoomTempSet(roomSet.get());
+                            }
+                            progress.looked(System.nanoTime() - parsed);
+                            progress.record(dt.get(), created, changed);
+                            continue;
                         }
                     }
                 }
+                progress.reject();
             }
         }
     }
@@ -147,39 +444,89 @@ public class HeatpumpServiceImpl implements HeatpumpService {
     @Override
     @Transactional(Transactional.TxType.REQUIRED)
     public void insertHotWaterData(LineNumberReader reader) throws IOException {
+        ImportProgress progress = new ImportProgress(HeatpumpFileType.HOT_WATER, List.of());
+        importHotWaterData(reader, progress);
+        flush(progress);
+    }
+
+    private void importHotWaterData(LineNumberReader reader, ImportProgress progress) throws IOException {
+        HeatpumpDataLookup lookup = new HeatpumpDataLookup(progress);
         String line;
         while ((line = reader.readLine()) != null) {
+            long start = System.nanoTime();
             String[] parts = line.split(";");
             if (parts.length >= 2) {
                 Optional<LocalDateTime> dt = parseLocalDateTime(parts[0]);
+                if (dt.isPresent() && progress.isImported(dt.get())) {
+                    progress.skip(dt.get());
+                    continue;
+                }
                 if (dt.isPresent()) {
                     Optional<Double> hotWater = WeatherUtils.parseDoubleValue(parts[1]);
                     if (hotWater.isPresent()) {
-                        HeatpumpData data = findOrCreateHeatpumpData(dt.get());
-                        data.setHotWaterTemp(hotWater.get());
+                        long parsed = System.nanoTime();
+                        progress.parsed(parsed - start);
+                        HeatpumpData data = lookup.find(dt.get());
+                        boolean created = data == null;
+                        if (created) {
+                            data = lookup.create(dt.get());
+                        }
+                        boolean changed = Double.compare(data.getHotWaterTemp(), hotWater.get()) != 0;
+                        if (changed) {
+                            data.setHotWaterTemp(hotWater.get());
+                        }
+                        progress.looked(System.nanoTime() - parsed);
+                        progress.record(dt.get(), created, changed);
+                        continue;
                     }
                 }
             }
+            progress.reject();
         }
     }
 
     @Override
     @Transactional(Transactional.TxType.REQUIRED)
     public void insertSystemData(LineNumberReader reader) throws IOException {
+        ImportProgress progress = new ImportProgress(HeatpumpFileType.SYSTEM, List.of());
+        importSystemData(reader, progress);
+        flush(progress);
+    }
+
+    private void importSystemData(LineNumberReader reader, ImportProgress progress) throws IOException {
         String line = readNextNoCommentLine(reader);
         if (line != null) {
+            HeatpumpDataLookup lookup = new HeatpumpDataLookup(progress);
             while ((line = readNextNoCommentLine(reader)) != null) {
+                long start = System.nanoTime();
                 String[] parts = line.split(";");
                 if (parts.length >= 2) {
                     Optional<LocalDateTime> dt = parseLocalDateTime(parts[0]);
+                    if (dt.isPresent() && progress.isImported(dt.get())) {
+                        progress.skip(dt.get());
+                        continue;
+                    }
                     if (dt.isPresent()) {
                         Optional<Double> outDoor = WeatherUtils.parseDoubleValue(parts[1]);
                         if (outDoor.isPresent()) {
-                            HeatpumpData data = findOrCreateHeatpumpData(dt.get());
-                            data.setOutdoorTemp(outDoor.get());
+                            long parsed = System.nanoTime();
+                            progress.parsed(parsed - start);
+                            HeatpumpData data = lookup.find(dt.get());
+                            boolean created = data == null;
+                            if (created) {
+                                data = lookup.create(dt.get());
+                            }
+                            boolean changed = Double.compare(data.getOutdoorTemp(), outDoor.get()) != 0;
+                            if (changed) {
+                                data.setOutdoorTemp(outDoor.get());
+                            }
+                            progress.looked(System.nanoTime() - parsed);
+                            progress.record(dt.get(), created, changed);
+                            continue;
                         }
                     }
                 }
+                progress.reject();
             }
         }
     }
@@ -187,6 +534,12 @@ public class HeatpumpServiceImpl implements HeatpumpService {
     @Override
     @Transactional(Transactional.TxType.REQUIRED)
     public void insertEnergyData(LineNumberReader reader) throws IOException {
+        ImportProgress progress = new ImportProgress(HeatpumpFileType.ENERGY, List.of());
+        importEnergyData(reader, progress);
+        flush(progress);
+    }
+
+    private void importEnergyData(LineNumberReader reader, ImportProgress progress) throws IOException {
         String line = readNextNoCommentLine(reader);
         if (line != null) {
             String[] parts = line.split(";");
@@ -198,19 +551,48 @@ public class HeatpumpServiceImpl implements HeatpumpService {
             OptionalInt heatGeneratedDomesticHotWaterIndex = findColumnIndex(parts, "HeatGenerated:DomesticHotWatery");
 
             while ((line = reader.readLine()) != null) {
+                long start = System.nanoTime();
                 parts = line.split(";");
                 if (parts.length >= 7) {
                     Optional<LocalDate> dt = parseLocalDate(parts[0]);
+                    if (dt.isPresent() && progress.isImported(dt.get().atStartOfDay())) {
+                        progress.skip(dt.get().atStartOfDay());
+                        continue;
+                    }
                     if (dt.isPresent()) {
-                        HeatpumpEnergy data = findOrCreateHeatpumpEnergy(dt.get());
-                        data.setConsumedElectricalEnergyDomesticHotWater(parseDouble(parts, consumedElectricalEnergyDomesticHotWaterIndex).orElse(null));
-                        data.setConsumedElectricalEnergyHeating(parseDouble(parts, consumedElectricalEnergyHeatingIndex).orElse(null));
-                        data.setEarnedEnvironmentEnergyDomesticHotWater(parseDouble(parts, earnedEnvironmentEnergyDomesticHotWaterIndex).orElse(null));
-                        data.setEarnedEnvironmentEnergyHeating(parseDouble(parts, earnedEnvironmentEnergyHeatingIndex).orElse(null));
-                        data.setHeatGeneratedDomesticHotWater(parseDouble(parts, heatGeneratedDomesticHotWaterIndex).orElse(null));
-                        data.setHeatGeneratedHeating(parseDouble(parts, heatGeneratedHeatingIndex).orElse(null));
+                        Double consumedHotWater = parseDouble(parts, consumedElectricalEnergyDomesticHotWaterIndex).orElse(null);
+                        Double consumedHeating = parseDouble(parts, consumedElectricalEnergyHeatingIndex).orElse(null);
+                        Double earnedHotWater = parseDouble(parts, earnedEnvironmentEnergyDomesticHotWaterIndex).orElse(null);
+                        Double earnedHeating = parseDouble(parts, earnedEnvironmentEnergyHeatingIndex).orElse(null);
+                        Double generatedHotWater = parseDouble(parts, heatGeneratedDomesticHotWaterIndex).orElse(null);
+                        Double generatedHeating = parseDouble(parts, heatGeneratedHeatingIndex).orElse(null);
+                        long parsed = System.nanoTime();
+                        progress.parsed(parsed - start);
+                        List<HeatpumpEnergy> existing = HeatpumpEnergy.find("sampleday", dt.get()).page(0, 1).list();
+                        boolean created = existing.isEmpty();
+                        HeatpumpEnergy data = created ? createHeatpumpEnergy(dt.get()) : existing.get(0);
+                        boolean changed = !Objects.equals(data.getConsumedElectricalEnergyDomesticHotWater(), consumedHotWater)
+                                || !Objects.equals(data.getConsumedElectricalEnergyHeating(), consumedHeating)
+                                || !Objects.equals(data.getEarnedEnvironmentEnergyDomesticHotWater(), earnedHotWater)
+                                || !Objects.equals(data.getEarnedEnvironmentEnergyHeating(), earnedHeating)
+                                || !Objects.equals(data.getHeatGeneratedDomesticHotWater(), generatedHotWater)
+                                || !Objects.equals(data.getHeatGeneratedHeating(), generatedHeating);
+                        if (changed) {
+                            data.setConsumedElectricalEnergyDomesticHotWater(consumedHotWater);
+                            data.setConsumedElectricalEnergyHeating(consumedHeating);
+                            data.setEarnedEnvironmentEnergyDomesticHotWater(earnedHotWater);
+                            data.setEarnedEnvironmentEnergyHeating(earnedHeating);
+                            data.setHeatGeneratedDomesticHotWater(generatedHotWater);
+                            data.setHeatGeneratedHeating(generatedHeating);
+                        }
+                        long looked = System.nanoTime() - parsed;
+                        progress.looked(looked);
+                        progress.dbTime(looked);
+                        progress.record(dt.get().atStartOfDay(), created, changed);
+                        continue;
                     }
                 }
+                progress.reject();
             }
         }
     }
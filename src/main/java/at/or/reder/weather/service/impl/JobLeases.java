@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Lets one replica run a scheduled job. The instance holding the lease renews it with every run, another
+ * one takes it over once it has expired. Without replica mode every job runs.
+ */
+@ApplicationScoped
+class JobLeases {
+
+    private static final Logger LOG = Logger.getLogger(JobLeases.class.getName());
+
+    private static final String RENEW =
+            "update joblease set leaseowner = ?, leaseuntil = ?"
+            + " where jobname = ? and (leaseowner = ? or leaseuntil < ?)";
+    private static final String CREATE = "insert into joblease (jobname, leaseowner, leaseuntil) values (?, ?, ?)";
+    private static final String EXISTS = "select count(*) from joblease where jobname = ?";
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @ConfigProperty(name = "weather.replica.enabled", defaultValue = "false")
+    boolean replicated;
+
+    /**
+     * Longer than the interval of any job that should stay on one instance.
+     */
+    @ConfigProperty(name = "weather.replica.lease", defaultValue = "PT30M")
+    Duration lease;
+
+    private final String owner = hostname() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private static String hostname() {
+        String hostname = System.getenv("HOSTNAME");
+        return hostname != null && !hostname.isBlank() ? hostname.substring(0, Math.min(hostname.length(), 48))
+                                                       : "weatherlog";
+    }
+
+    /**
+     * @return this instance holds the lease of {@code job} now
+     */
+    boolean tryAcquire(String job) {
+        if (!replicated) {
+            return true;
+        }
+        try {
+            return QuarkusTransaction.requiringNew().call(() -> acquire(job));
+        } catch (RuntimeException ex) {
+            // another instance created the lease at the same time
+            LOG.log(Level.FINE, "Lease " + job + " not acquired", ex);
+            return false;
+        }
+    }
+
+    private boolean acquire(String job) throws SQLException {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        try (Connection connection = ds.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(RENEW)) {
+                stmt.setString(1, owner);
+                stmt.setObject(2, now.plus(lease));
+                stmt.setString(3, job);
+                stmt.setString(4, owner);
+                stmt.setObject(5, now);
+                if (stmt.executeUpdate() == 1) {
+                    return true;
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(EXISTS)) {
+                stmt.setString(1, job);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) > 0) {
+                        return false;
+                    }
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(CREATE)) {
+                stmt.setString(1, job);
+                stmt.setString(2, owner);
+                stmt.setObject(3, now.plus(lease));
+                stmt.executeUpdate();
+            }
+            LOG.log(Level.INFO, "Instance {0} runs job {1}", new Object[]{owner, job});
+            return true;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Data quality checks by field column, e.g. {@code weather.quality.fields.tempout.max=60}. Fields without
+ * an entry are not checked.
+ */
+@ConfigMapping(prefix = "weather.quality")
+public interface QualityConfig {
+
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * Samples per station and field the median and MAD are taken of.
+     */
+    @WithDefault("15")
+    int window();
+
+    /**
+     * Robust z-score from which a value is an outlier.
+     */
+    @WithDefault("6")
+    double outlierThreshold();
+
+    /**
+     * Consecutive rejected values after which the state of a field is reset, so a real level shift, e.g.
+     * after replacing a sensor, is accepted.
+     */
+    @WithDefault("10")
+    int resetAfter();
+
+    Map<String, Field> fields();
+
+    interface Field {
+
+        OptionalDouble min();
+
+        OptionalDouble max();
+
+        /**
+         * Largest plausible change per minute.
+         */
+        OptionalDouble maxRate();
+
+        /**
+         * Lower bound of the scaled MAD, enables the outlier check. Keeps a field that was constant for
+         * the whole window from rejecting the first small change.
+         */
+        OptionalDouble minSpread();
+    }
+}
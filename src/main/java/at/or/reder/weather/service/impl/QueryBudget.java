@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Estimates the rows of a range read before it runs, from the rows stored during the last day, and picks
+ * the step a range above {@code weather.query.max-rows} is downsampled to. The row rate is measured at
+ * most every ten minutes and is at least one station at the default interval.
+ */
+@ApplicationScoped
+class QueryBudget {
+
+    private static final Logger LOG = Logger.getLogger(QueryBudget.class.getName());
+
+    enum OverBudget {
+        DOWNSAMPLE,
+        REJECT
+    }
+
+    private static final String RECENT =
+            "select count(*), count(distinct stationkey) from stationdata where sampletime >= ?";
+    private static final Duration MEASURED = Duration.ofDays(1);
+    private static final Duration REFRESH = Duration.ofMinutes(10);
+    private static final int DAY = 86400;
+    private static final int[] STEPS = {60, 120, 300, 600, 900, 1800, 3600, 7200, 10800, 21600, 43200, DAY};
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @ConfigProperty(name = "weather.query.max-rows", defaultValue = "200000")
+    long maxRows;
+
+    @ConfigProperty(name = "weather.query.over-budget", defaultValue = "downsample")
+    OverBudget overBudget;
+
+    @ConfigProperty(name = "weather.query.timeout", defaultValue = "PT30S")
+    Duration timeout;
+
+    @ConfigProperty(name = "weather.station.default-interval", defaultValue = "PT1M")
+    Duration defaultInterval;
+
+    private record RowRate(double rowsPerSecond, int stations, Instant measuredAt) {
+    }
+
+    private volatile RowRate rowRate;
+
+    /**
+     * JDBC statement timeout.
+     */
+    int timeoutSeconds() {
+        return (int) Math.max(1, timeout.toSeconds());
+    }
+
+    long estimateRows(LocalDateTime from, LocalDateTime to) {
+        return (long) Math.ceil(seconds(from, to) * rowRate().rowsPerSecond());
+    }
+
+    /**
+     * A range of samples as stored that is above the budget is always rejected, it cannot be downsampled.
+     */
+    void checkSamples(LocalDateTime from, LocalDateTime to) {
+        long rows = estimateRows(from, to);
+        if (rows > maxRows) {
+            throw overBudget(rows, from, to);
+        }
+    }
+
+    /**
+     * @param requested the step asked for in seconds, {@code 0} for the samples as stored
+     * @return the step to read, at least {@code requested}
+     * @throws BadRequestException if the range is above the budget and downsampling is off
+     */
+    int step(LocalDateTime from, LocalDateTime to, int requested) {
+        RowRate rate = rowRate();
+        long seconds = seconds(from, to);
+        long rows = (long) Math.ceil(seconds * rate.rowsPerSecond());
+        if (requested > 0) {
+            rows = Math.min(rows, steps(seconds, requested) * rate.stations());
+        }
+        if (rows <= maxRows) {
+            return requested;
+        }
+        if (overBudget == OverBudget.REJECT) {
+            throw overBudget(rows, from, to);
+        }
+        for (int step : STEPS) {
+            if (step >= requested && steps(seconds, step) * rate.stations() <= maxRows) {
+                return step;
+            }
+        }
+        long days = Math.max(1, (long) Math.ceil((double) seconds * rate.stations() / maxRows / DAY));
+        return (int) Math.min(Integer.MAX_VALUE / DAY, Math.max(days, requested / DAY)) * DAY;
+    }
+
+    private BadRequestException overBudget(long rows, LocalDateTime from, LocalDateTime to) {
+        return new BadRequestException("About " + rows + " rows between " + from + " and " + to
+                                       + ", more than " + maxRows + "; ask for a downsampled series");
+    }
+
+    private static long seconds(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, Duration.between(from, to).toSeconds());
+    }
+
+    private static long steps(long seconds, int step) {
+        return (seconds + step - 1) / step;
+    }
+
+    private RowRate rowRate() {
+        RowRate rate = rowRate;
+        Instant now = Instant.now();
+        if (rate == null || rate.measuredAt().plus(REFRESH).isBefore(now)) {
+            rate = measure(now);
+            rowRate = rate;
+        }
+        return rate;
+    }
+
+    private RowRate measure(Instant now) {
+        double minimum = 1d / Math.max(1, defaultInterval.toSeconds());
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(RECENT)) {
+            stmt.setObject(1, LocalDateTime.ofInstant(now.minus(MEASURED), ZoneOffset.UTC));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new RowRate(Math.max(minimum, rs.getLong(1) / (double) MEASURED.toSeconds()),
+                                       Math.max(1, rs.getInt(2)), now);
+                }
+            }
+        } catch (SQLException ex) {
+            LOG.log(Level.WARNING, "Cannot measure the row rate, assuming one station", ex);
+        }
+        return new RowRate(minimum, 1, now);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+/**
+ * Forward-only cursor over an ordered time series query. The first column is the sort key, all further
+ * columns are read as doubles into a reused array ({@code NaN} for SQL {@code NULL}), so walking the
+ * cursor does not allocate per value.
+ * <p>
+ * Every cursor holds its own connection: Jaybird closes open result sets of a connection in auto-commit
+ * mode as soon as another statement executes, so two cursors merged side by side must not share one.
+ */
+final class SampleCursor<T> implements AutoCloseable {
+
+    static final int FETCH_SIZE = 500;
+
+    private final Class<T> keyType;
+    private final Connection connection;
+    private final PreparedStatement stmt;
+    private final ResultSet rs;
+    private final double[] values;
+    private T key;
+    private boolean valid;
+
+    SampleCursor(DataSource ds, Class<T> keyType, String sql, Object... params) throws SQLException {
+        this.keyType = keyType;
+        this.connection = ds.getConnection();
+        try {
+            this.stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.length; ++i) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            this.rs = stmt.executeQuery();
+            this.values = new double[rs.getMetaData().getColumnCount() - 1];
+            advance();
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+    }
+
+    boolean advance() throws SQLException {
+        valid = rs.next();
+        if (valid) {
+            key = rs.getObject(1, keyType);
+            for (int i = 0; i < values.length; ++i) {
+                double v = rs.getDouble(i + 2);
+                values[i] = rs.wasNull() ? Double.NaN : v;
+            }
+        } else {
+            key = null;
+        }
+        return valid;
+    }
+
+    boolean isValid() { return valid; }
+    T key() { return key; }
+    double value(int index) { return values[index]; }
+
+    void cancel() throws SQLException {
+        stmt.cancel();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (connection; stmt) {
+            rs.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+/**
+ * Time ordered ring buffer of primitive samples for sliding windows. Adding and evicting are amortized
+ * O(1), the capacity doubles when the window holds more samples than expected.
+ */
+final class SampleRing {
+
+    private long[] times;
+    private double[] values;
+    private int head;
+    private int size;
+
+    SampleRing(int capacity) {
+        times = new long[Math.max(2, capacity)];
+        values = new double[times.length];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param time epoch seconds, not before {@link #lastTime()}
+     */
+    void add(long time, double value) {
+        if (size == times.length) {
+            grow();
+        }
+        int index = (head + size) % times.length;
+        times[index] = time;
+        values[index] = value;
+        ++size;
+    }
+
+    /**
+     * Removes the samples older than {@code time}.
+     */
+    void removeBefore(long time) {
+        while (size > 0 && times[head] < time) {
+            head = (head + 1) % times.length;
+            --size;
+        }
+    }
+
+    void removeFirst() {
+        head = (head + 1) % times.length;
+        --size;
+    }
+
+    /**
+     * Drops the newest sample, for monotonic deques.
+     */
+    void removeLast() {
+        --size;
+    }
+
+    long firstTime() {
+        return times[head];
+    }
+
+    double firstValue() {
+        return values[head];
+    }
+
+    long lastTime() {
+        return times[(head + size - 1) % times.length];
+    }
+
+    double lastValue() {
+        return values[(head + size - 1) % times.length];
+    }
+
+    private void grow() {
+        long[] newTimes = new long[times.length * 2];
+        double[] newValues = new double[newTimes.length];
+        int tail = times.length - head;
+        System.arraycopy(times, head, newTimes, 0, tail);
+        System.arraycopy(times, 0, newTimes, tail, head);
+        System.arraycopy(values, head, newValues, 0, tail);
+        System.arraycopy(values, 0, newValues, tail, head);
+        times = newTimes;
+        values = newValues;
+        head = 0;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.MigrationStatus;
+import at.or.reder.weather.model.MigrationStatus.State;
+import at.or.reder.weather.model.QuarantinedValue;
+import at.or.reder.weather.service.SchemaMigrated;
+import at.or.reder.weather.service.SchemaMigrationService;
+import at.or.reder.weather.service.WeatherRecordStored;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.Scope;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
+import liquibase.changelog.visitor.AbstractChangeExecListener;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Replaces {@code quarkus.liquibase.weather.migrate-at-start}: the migration runs on its own thread after
+ * startup, progress is tracked per change set. All state changes and the spool are guarded by
+ * {@code lock}, so a sample is either spooled or stored by the caller, never lost in between.
+ */
+@ApplicationScoped
+@Default
+public class SchemaMigrationServiceImpl implements SchemaMigrationService {
+
+    private static final Logger LOG = Logger.getLogger(SchemaMigrationServiceImpl.class.getName());
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @Inject
+    Event<SchemaMigrated> migrated;
+
+    @ConfigProperty(name = "weather.schema.migrate-in-background", defaultValue = "true")
+    boolean migrateInBackground;
+
+    @ConfigProperty(name = "quarkus.liquibase.weather.change-log", defaultValue = "at/or/reder/weather/jpa/changelog_0.0.1.xml")
+    String changeLog;
+
+    @ConfigProperty(name = "weather.schema.spool-size", defaultValue = "10000")
+    int spoolSize;
+
+    private final Object lock = new Object();
+    private final List<SchemaMigrated.Sample> spool = new ArrayList<>();
+    private State state = State.PENDING;
+    private int pendingChangeSets;
+    private int executedChangeSets;
+    private String currentChangeSet;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    void onStart(@Observes StartupEvent event) {
+        if (migrateInBackground) {
+            startMigration();
+        } else {
+            synchronized (lock) {
+                state = State.COMPLETED;
+            }
+        }
+    }
+
+    @Override
+    public boolean startMigration() {
+        synchronized (lock) {
+            if (state == State.RUNNING) {
+                return false;
+            }
+            state = State.RUNNING;
+            pendingChangeSets = 0;
+            executedChangeSets = 0;
+            currentChangeSet = null;
+            startedAt = Instant.now();
+            finishedAt = null;
+            error = null;
+        }
+        Thread.ofPlatform().name("schema-migration").daemon().start(this::migrate);
+        return true;
+    }
+
+    private void migrate() {
+        LOG.log(Level.INFO, "Schema migration started");
+        try {
+            Scope.child(Map.of(), () -> {
+                try (Connection connection = ds.getConnection()) {
+                    Database database = DatabaseFactory.getInstance()
+                            .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+                    Liquibase liquibase = new Liquibase(changeLog,
+                                                        new ClassLoaderResourceAccessor(getClass().getClassLoader()),
+                                                        database);
+                    int pending = liquibase.listUnrunChangeSets(new Contexts(), new LabelExpression()).size();
+                    synchronized (lock) {
+                        pendingChangeSets = pending;
+                    }
+                    liquibase.setChangeExecListener(new ProgressListener());
+                    liquibase.update(new Contexts(), new LabelExpression());
+                }
+            });
+        } catch (Exception ex) {
+            LOG.log(Level.SEVERE, "Schema migration failed", ex);
+            synchronized (lock) {
+                state = State.FAILED;
+                finishedAt = Instant.now();
+                error = ex.getMessage();
+            }
+            return;
+        }
+        List<SchemaMigrated.Sample> spooled;
+        synchronized (lock) {
+            state = State.COMPLETED;
+            currentChangeSet = null;
+            finishedAt = Instant.now();
+            spooled = List.copyOf(spool);
+            spool.clear();
+        }
+        LOG.log(Level.INFO, "Schema migration completed, {0} change sets applied, {1} spooled samples",
+                new Object[]{executedChangeSets, spooled.size()});
+        migrated.fire(new SchemaMigrated(spooled));
+    }
+
+    private final class ProgressListener extends AbstractChangeExecListener {
+
+        @Override
+        public void willRun(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                            ChangeSet.RunStatus runStatus) {
+            synchronized (lock) {
+                currentChangeSet = changeSet.getId();
+            }
+            LOG.log(Level.INFO, "Applying change set {0}", changeSet.getId());
+        }
+
+        @Override
+        public void ran(ChangeSet changeSet, DatabaseChangeLog databaseChangeLog, Database database,
+                        ChangeSet.ExecType execType) {
+            synchronized (lock) {
+                ++executedChangeSets;
+                currentChangeSet = null;
+            }
+        }
+    }
+
+    @Override
+    public MigrationStatus getStatus() {
+        synchronized (lock) {
+            return new MigrationStatus(state, pendingChangeSets, executedChangeSets, currentChangeSet,
+                                       startedAt, finishedAt, error, spool.size());
+        }
+    }
+
+    @Override
+    public boolean isCompleted() {
+        synchronized (lock) {
+            return state == State.COMPLETED;
+        }
+    }
+
+    @Override
+    public boolean spool(WeatherRecordStored sample, List<QuarantinedValue> quarantined) {
+        synchronized (lock) {
+            if (state == State.COMPLETED) {
+                return false;
+            }
+            if (state == State.FAILED) {
+                // the samples spooled so far wait for a new migration, further ones are not acknowledged
+                throw new ServiceUnavailableException("Schema migration failed", 60L);
+            }
+            if (spool.size() >= spoolSize) {
+                throw new ServiceUnavailableException("Schema migration in progress", 60L);
+            }
+            spool.add(new SchemaMigrated.Sample(sample, quarantined));
+            return true;
+        }
+    }
+}
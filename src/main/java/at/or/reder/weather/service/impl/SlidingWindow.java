@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+/**
+ * Mean, minimum and maximum of the samples within a sliding time window. The mean is kept as a running
+ * sum, minimum and maximum as monotonic deques, so adding and evicting are amortized O(1) and reading
+ * is O(1). A circular window averages angles in degrees as unit vectors and has no minimum and maximum.
+ * Not thread safe.
+ */
+final class SlidingWindow {
+
+    private final long windowSeconds;
+    private final boolean circular;
+    private final SampleRing samples;
+    private final SampleRing minima;
+    private final SampleRing maxima;
+    private double sum;
+    private double sumSin;
+    private double sumCos;
+
+    /**
+     * @param expectedSamples initial capacity, the buffers grow if the window holds more
+     */
+    SlidingWindow(long windowSeconds, boolean circular, int expectedSamples) {
+        this.windowSeconds = windowSeconds;
+        this.circular = circular;
+        samples = new SampleRing(expectedSamples);
+        minima = circular ? null : new SampleRing(16);
+        maxima = circular ? null : new SampleRing(16);
+    }
+
+    /**
+     * @param time epoch seconds, samples older than the newest one are ignored
+     */
+    void add(long time, double value) {
+        if (Double.isNaN(value) || (!samples.isEmpty() && time <= samples.lastTime())) {
+            return;
+        }
+        samples.add(time, value);
+        if (circular) {
+            double radians = Math.toRadians(value);
+            sumSin += Math.sin(radians);
+            sumCos += Math.cos(radians);
+        } else {
+            sum += value;
+            while (!minima.isEmpty() && minima.lastValue() >= value) {
+                minima.removeLast();
+            }
+            minima.add(time, value);
+            while (!maxima.isEmpty() && maxima.lastValue() <= value) {
+                maxima.removeLast();
+            }
+            maxima.add(time, value);
+        }
+        evict(time);
+    }
+
+    /**
+     * Removes the samples that are not within the window ending at {@code now}.
+     */
+    void evict(long now) {
+        long oldest = now - windowSeconds + 1;
+        while (!samples.isEmpty() && samples.firstTime() < oldest) {
+            double value = samples.firstValue();
+            samples.removeFirst();
+            if (circular) {
+                double radians = Math.toRadians(value);
+                sumSin -= Math.sin(radians);
+                sumCos -= Math.cos(radians);
+            } else {
+                sum -= value;
+            }
+        }
+        if (samples.isEmpty()) {
+            // drop the rounding error accumulated by the subtractions
+            sum = 0;
+            sumSin = 0;
+            sumCos = 0;
+        }
+        if (!circular) {
+            minima.removeBefore(oldest);
+            maxima.removeBefore(oldest);
+        }
+    }
+
+    int count() {
+        return samples.size();
+    }
+
+    /**
+     * @return the mean, for a circular window the direction of the mean vector in [0, 360), {@code NaN}
+     * if the window is empty or the directions cancel out
+     */
+    double mean() {
+        int count = samples.size();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (!circular) {
+            return sum / count;
+        }
+        if (Math.hypot(sumSin, sumCos) / count < 1e-6) {
+            return Double.NaN;
+        }
+        double degrees = Math.toDegrees(Math.atan2(sumSin, sumCos));
+        return degrees < 0 ? degrees + 360 : degrees;
+    }
+
+    double min() {
+        return minima == null || minima.isEmpty() ? Double.NaN : minima.firstValue();
+    }
+
+    double max() {
+        return maxima == null || maxima.isEmpty() ? Double.NaN : maxima.firstValue();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.WeatherRecord;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inserts single samples with plain JDBC in the current transaction. Neither Agroal nor Jaybird cache
+ * statements, so the prepared insert is kept per physical connection and reused by every transaction
+ * that borrows that connection; a physical connection is used by one transaction at a time. The id is
+ * taken from {@code stationdata_seq} within the insert, there is no extra round trip for it.
+ */
+@ApplicationScoped
+class StationDataInserter {
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    private final Map<Connection, PreparedStatement> statements = new ConcurrentHashMap<>();
+
+    void insert(WeatherRecord record) throws SQLException {
+        try (Connection connection = ds.getConnection()) {
+            PreparedStatement stmt = statement(connection.unwrap(Connection.class));
+            StationDataWriter.bind(stmt, record);
+            stmt.executeUpdate();
+        }
+    }
+
+    private PreparedStatement statement(Connection physical) throws SQLException {
+        PreparedStatement stmt = statements.get(physical);
+        if (stmt == null || stmt.isClosed()) {
+            // the pool closed some connections meanwhile, their statements are closed with them
+            statements.values().removeIf(StationDataInserter::isClosed);
+            stmt = physical.prepareStatement(StationDataWriter.INSERT);
+            statements.put(physical, stmt);
+        }
+        return stmt;
+    }
+
+    private static boolean isClosed(PreparedStatement stmt) {
+        try {
+            return stmt.isClosed();
+        } catch (SQLException ex) {
+            return true;
+        }
+    }
+}
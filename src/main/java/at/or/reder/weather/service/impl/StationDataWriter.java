@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.QuarantinedValue;
+import at.or.reder.weather.model.WeatherRecord;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plain JDBC inserts into {@code stationdata}, bypassing Hibernate for bulk writes. Ids are taken
+ * inline from {@code stationdata_seq}, which works on Firebird and H2 alike. The connection is owned
+ * by the caller.
+ */
+final class StationDataWriter implements AutoCloseable {
+
+    static final String INSERT =
+            "insert into stationdata (id, stationkey, sampletime, tempin, tempout, humidityin, humidityout,"
+            + " pressurerel, pressureabs, winddir, windspeed, windgust, maxdailygust, solarradiation, uv,"
+            + " rainrate, eventrain, hourlyrain, dailyrain, weeklyrain, monthlyrain, yearlyrain, totalrain)"
+            + " values (next value for stationdata_seq, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_QUARANTINE =
+            "insert into quarantine (id, stationkey, sampletime, fieldname, fieldvalue, qualitycheck)"
+            + " values (next value for quarantine_seq, ?, ?, ?, ?, ?)";
+    private static final String EXISTING =
+            "select stationkey, sampletime from stationdata where sampletime >= ? and sampletime <= ?";
+
+    record SampleKey(String stationkey, LocalDateTime sampleTime) {
+
+        static SampleKey of(WeatherRecord record) {
+            return new SampleKey(record.getStationkey(), record.getSampleTime());
+        }
+    }
+
+    private final Connection connection;
+    private final PreparedStatement insert;
+    private int pending;
+
+    StationDataWriter(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.insert = connection.prepareStatement(INSERT);
+    }
+
+    /**
+     * @return the samples stored between {@code from} and {@code to}, both inclusive
+     */
+    Set<SampleKey> existing(LocalDateTime from, LocalDateTime to) throws SQLException {
+        Set<SampleKey> result = new HashSet<>();
+        try (PreparedStatement stmt = connection.prepareStatement(EXISTING)) {
+            stmt.setObject(1, from);
+            stmt.setObject(2, to);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new SampleKey(rs.getString(1), rs.getObject(2, LocalDateTime.class)));
+                }
+            }
+        }
+        return result;
+    }
+
+    void add(WeatherRecord r) throws SQLException {
+        bind(insert, r);
+        insert.addBatch();
+        ++pending;
+    }
+
+    /**
+     * Executes the rows added since the last call.
+     */
+    void flush() throws SQLException {
+        if (pending > 0) {
+            insert.executeBatch();
+            pending = 0;
+        }
+    }
+
+    void insert(WeatherRecord r) throws SQLException {
+        bind(insert, r);
+        insert.executeUpdate();
+    }
+
+    /**
+     * @return the exception reports a violated unique constraint, SQLSTATE class 23 on Firebird and H2
+     */
+    static boolean isUniqueViolation(SQLException ex) {
+        return ex instanceof SQLIntegrityConstraintViolationException
+               || (ex.getSQLState() != null && ex.getSQLState().startsWith("23"));
+    }
+
+    /**
+     * Writes the values the data quality filter took out of stored samples.
+     */
+    static void quarantine(Connection connection, List<QuarantinedValue> values) throws SQLException {
+        if (values.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_QUARANTINE)) {
+            for (QuarantinedValue q : values) {
+                stmt.setString(1, q.getStationkey());
+                stmt.setObject(2, q.getSampleTime());
+                stmt.setString(3, q.getField());
+                stmt.setDouble(4, q.getValue());
+                stmt.setString(5, q.getCheck().name());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Sets the parameters of {@link #INSERT}.
+     */
+    static void bind(PreparedStatement insert, WeatherRecord r) throws SQLException {
+        insert.setString(1, r.getStationkey());
+        insert.setObject(2, r.getSampleTime());
+        insert.setObject(3, r.getTempin(), Types.DOUBLE);
+        insert.setObject(4, r.getTempout(), Types.DOUBLE);
+        insert.setObject(5, r.getHumidityin(), Types.DOUBLE);
+        insert.setObject(6, r.getHumidityout(), Types.DOUBLE);
+        insert.setObject(7, r.getPressurerel(), Types.DOUBLE);
+        insert.setObject(8, r.getPressureabs(), Types.DOUBLE);
+        insert.setObject(9, r.getWinddir(), Types.DOUBLE);
+        insert.setObject(10, r.getWindspeed(), Types.DOUBLE);
+        insert.setObject(11, r.getWindgust(), Types.DOUBLE);
+        insert.setObject(12, r.getMaxdailygust(), Types.DOUBLE);
+        insert.setObject(13, r.getSolarradiation(), Types.DOUBLE);
+        insert.setObject(14, r.getUv(), Types.INTEGER);
+        insert.setObject(15, r.getRainrate(), Types.DOUBLE);
+        insert.setObject(16, r.getEventrain(), Types.DOUBLE);
+        insert.setObject(17, r.getHourlyrain(), Types.DOUBLE);
+        insert.setObject(18, r.getDailyrain(), Types.DOUBLE);
+        insert.setObject(19, r.getWeeklyrain(), Types.DOUBLE);
+        insert.setObject(20, r.getMonthlyrain(), Types.DOUBLE);
+        insert.setObject(21, r.getYearlyrain(), Types.DOUBLE);
+        insert.setObject(22, r.getTotalrain(), Types.DOUBLE);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        insert.close();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.StationStatus;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.StationMonitorService;
+import at.or.reder.weather.service.WeatherMetrics;
+import at.or.reder.weather.service.WeatherRecordStored;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Monitors at most {@code weather.station.max-stations} stations; a station without sample for
+ * {@code weather.station.idle} is dropped with its meters. The summaries are tagged with the station, so
+ * they publish no histogram.
+ */
+@ApplicationScoped
+@Default
+public class StationMonitorServiceImpl implements StationMonitorService {
+
+    private static final Logger LOG = Logger.getLogger(StationMonitorServiceImpl.class.getName());
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    WeatherMetrics metrics;
+
+    @ConfigProperty(name = "weather.station.stale-factor", defaultValue = "3")
+    double staleFactor;
+
+    @ConfigProperty(name = "weather.station.default-interval", defaultValue = "PT1M")
+    Duration defaultInterval;
+
+    @ConfigProperty(name = "weather.station.max-stations", defaultValue = "1000")
+    int maxStations;
+
+    @ConfigProperty(name = "weather.station.idle", defaultValue = "P7D")
+    Duration idle;
+
+    private StationTable<StationState> stations;
+
+    @PostConstruct
+    void postConstruct() {
+        stations = new StationTable<>(maxStations, idle);
+    }
+
+    private final class StationState {
+
+        private final String stationkey;
+        private final DistributionSummary jitter;
+        private final DistributionSummary lag;
+        private final List<Meter> meters = new ArrayList<>();
+        private Instant lastReceived;
+        private LocalDateTime lastSampleTime;
+        private Duration interval;
+        private Duration lastLag;
+
+        StationState(String stationkey, Instant receivedAt) {
+            this.stationkey = stationkey;
+            lastReceived = receivedAt;
+            interval = defaultInterval;
+            jitter = DistributionSummary.builder("weather_station_interval_jitter")
+                    .description("Deviation of the sample interval from the interval reported by the station")
+                    .baseUnit("seconds")
+                    .tag(WeatherMetrics.STATION, stationkey)
+                    .register(meterRegistry);
+            lag = DistributionSummary.builder("weather_station_ingest_lag")
+                    .description("Receive time minus dateutc")
+                    .baseUnit("seconds")
+                    .tag(WeatherMetrics.STATION, stationkey)
+                    .register(meterRegistry);
+            meters.add(jitter);
+            meters.add(lag);
+            meters.add(Gauge.builder("weather_station_silence", this,
+                                     s -> s.silentFor(Instant.now()).toMillis() / 1000d)
+                    .description("Time since the station posted its last sample")
+                    .baseUnit("seconds")
+                    .tag(WeatherMetrics.STATION, stationkey)
+                    .register(meterRegistry));
+            meters.add(Gauge.builder("weather_station_last_lag", this, s -> s.currentLag(Instant.now()))
+                    .description("Ingest lag of the last sample, NaN while the station is stale")
+                    .baseUnit("seconds")
+                    .tag(WeatherMetrics.STATION, stationkey)
+                    .register(meterRegistry));
+            meters.add(Gauge.builder("weather_station_stale", this, s -> s.isStale(Instant.now()) ? 1 : 0)
+                    .tag(WeatherMetrics.STATION, stationkey)
+                    .register(meterRegistry));
+        }
+
+        /**
+         * @param local the sample was posted to this instance, a replicated sample carries neither the
+         *              interval of the post nor its arrival time
+         */
+        synchronized void received(WeatherRecord record, Instant receivedAt, boolean local) {
+            if (record.getInterval() > 0) {
+                interval = Duration.ofSeconds(record.getInterval());
+            } else if (local) {
+                interval = defaultInterval;
+            }
+            LocalDateTime sampleTime = record.getSampleTime();
+            if (sampleTime != null) {
+                if (lastSampleTime != null && sampleTime.isAfter(lastSampleTime)) {
+                    Duration actual = Duration.between(lastSampleTime, sampleTime);
+                    jitter.record(Math.abs(actual.minus(interval).toMillis()) / 1000d);
+                }
+                if (lastSampleTime == null || sampleTime.isAfter(lastSampleTime)) {
+                    lastSampleTime = sampleTime;
+                }
+                if (local) {
+                    lastLag = Duration.between(sampleTime.toInstant(ZoneOffset.UTC), receivedAt);
+                    // a station clock ahead of the server yields a negative lag, which the summary would drop
+                    lag.record(Math.max(0, lastLag.toMillis()) / 1000d);
+                }
+            }
+            lastReceived = receivedAt;
+        }
+
+        synchronized Duration silentFor(Instant now) {
+            return Duration.between(lastReceived, now);
+        }
+
+        synchronized boolean isStale(Instant now) {
+            return silentFor(now).toMillis() > interval.toMillis() * staleFactor;
+        }
+
+        synchronized double currentLag(Instant now) {
+            return lastLag == null || isStale(now) ? Double.NaN : lastLag.toMillis() / 1000d;
+        }
+
+        synchronized StationStatus status(Instant now) {
+            return new StationStatus(stationkey, lastReceived, interval, lastLag, silentFor(now), isStale(now));
+        }
+    }
+
+    void onStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) WeatherRecordStored event) {
+        String stationkey = event.record().getStationkey();
+        if (stationkey == null) {
+            return;
+        }
+        StationState state = stations.acquire(stationkey, k -> {
+            LOG.log(Level.INFO, "Monitoring new station {0}", k);
+            return new StationState(k, event.receivedAt());
+        });
+        if (state == null) {
+            LOG.log(Level.FINE, "{0} stations monitored, {1} is not", new Object[]{maxStations, stationkey});
+            return;
+        }
+        state.received(event.record(), event.receivedAt(), !event.replicated());
+    }
+
+    @Scheduled(every = "1m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evict() {
+        int evicted = stations.evict(state -> {
+            state.meters.forEach(meterRegistry::remove);
+            metrics.removeStation(state.stationkey);
+        });
+        if (evicted > 0) {
+            LOG.log(Level.INFO, "Dropped {0} stations without sample for {1}", new Object[]{evicted, idle});
+        }
+    }
+
+    @Override
+    public List<StationStatus> getStations(Instant now) {
+        return stations.values().stream()
+                .map(s -> s.status(now))
+                .sorted(Comparator.comparing(StationStatus::stationkey))
+                .toList();
+    }
+
+    @Override
+    public boolean isStale(String stationkey, Instant now) {
+        StationState state = stationkey != null ? stations.get(stationkey) : null;
+        return state == null || state.isStale(now);
+    }
+
+    @Override
+    public boolean isKnown(String stationkey) {
+        return stationkey != null && stations.contains(stationkey);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Per station state keyed by the PASSKEY a client sends, which is not authenticated. At most
+ * {@code maxStations} stations are kept, further stations are not tracked until {@link #evict} dropped
+ * the stations that were not acquired for {@code idle}.
+ */
+final class StationTable<S> {
+
+    private final class Entry {
+
+        private final S state;
+        private volatile long used = System.nanoTime();
+
+        Entry(S state) {
+            this.state = state;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxStations;
+    private final long idleNanos;
+
+    StationTable(int maxStations, Duration idle) {
+        this.maxStations = maxStations;
+        this.idleNanos = idle.toNanos();
+    }
+
+    /**
+     * @return the state of the station, created if there is room, {@code null} if the table is full
+     */
+    S acquire(String stationkey, Function<String, S> create) {
+        Entry entry = entries.get(stationkey);
+        if (entry == null) {
+            if (entries.size() >= maxStations) {
+                return null;
+            }
+            entry = entries.computeIfAbsent(stationkey, k -> new Entry(create.apply(k)));
+        }
+        entry.used = System.nanoTime();
+        return entry.state;
+    }
+
+    S get(String stationkey) {
+        Entry entry = entries.get(stationkey);
+        return entry != null ? entry.state : null;
+    }
+
+    boolean contains(String stationkey) {
+        return entries.containsKey(stationkey);
+    }
+
+    List<S> values() {
+        return entries.values().stream().map(e -> e.state).toList();
+    }
+
+    /**
+     * Drops the idle stations. {@code removed} runs before the station can be acquired again, so it can
+     * unregister meters that a new state of the same station registers.
+     *
+     * @return the number of dropped stations
+     */
+    int evict(Consumer<S> removed) {
+        long now = System.nanoTime();
+        int[] count = {0};
+        for (String stationkey : entries.keySet()) {
+            entries.computeIfPresent(stationkey, (k, entry) -> {
+                if (now - entry.used <= idleNanos) {
+                    return entry;
+                }
+                removed.accept(entry.state);
+                ++count[0];
+                return null;
+            });
+        }
+        return count[0];
+    }
+}
@@ -4,24 +4,60 @@
  */
 package at.or.reder.weather.service.impl;
 
+import at.or.reder.weather.model.IngestStatus;
+import at.or.reder.weather.model.QuarantinedValue;
+import at.or.reder.weather.model.WeatherField;
 import at.or.reder.weather.model.WeatherRecord;
 import at.or.reder.weather.model.WeatherSample;
+import at.or.reder.weather.model.WeatherSeries;
 import at.or.reder.weather.model.WeatherUtils;
+import at.or.reder.weather.service.DataQualityFilter;
+import at.or.reder.weather.service.DuplicateSampleException;
+import at.or.reder.weather.service.QueryCancellation;
+import at.or.reder.weather.service.SchemaMigrated;
+import at.or.reder.weather.service.SchemaMigrationService;
+import at.or.reder.weather.service.StationMonitorService;
+import at.or.reder.weather.service.WeatherMetrics;
+import at.or.reder.weather.service.WeatherRecordStored;
 import at.or.reder.weather.service.WeatherService;
+import at.or.reder.weather.service.impl.StationDataWriter.SampleKey;
+import io.agroal.api.AgroalDataSource;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.panache.common.Sort;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.inject.Default;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.AvailableHints;
 
 @ApplicationScoped
 @Default
@@ -29,10 +65,49 @@ public class WeatherServiceImpl implements WeatherService {
 
     private static final Logger LOG = Logger.getLogger(WeatherServiceImpl.class.getName());
     private static final AtomicReference<WeatherRecord> currentWeather = new AtomicReference<>();
+    private static final WeatherField[] FIELDS = WeatherField.values();
+    private static final String SERIES = Arrays.stream(FIELDS)
+            .map(WeatherField::getColumn)
+            .collect(Collectors.joining(", ", "select sampletime, stationkey, ",
+                                        " from stationdata where sampletime >= ? and sampletime < ? order by sampletime"));
+    private static final String STEP = "datediff(second, timestamp '1970-01-01 00:00:00', sampletime) / ";
+    private static final String DOWNSAMPLED = Arrays.stream(FIELDS)
+            .map(WeatherServiceImpl::aggregate)
+            .collect(Collectors.joining(", ", "select min(sampletime), stationkey, ",
+                                        ", avg(cos(winddir * pi() / 180)) from stationdata"
+                                        + " where sampletime >= ? and sampletime < ? group by stationkey, "));
 
     @Inject
     MeterRegistry meterRegistry;
 
+    @Inject
+    WeatherMetrics metrics;
+
+    @Inject
+    StationMonitorService stationMonitor;
+
+    @Inject
+    Event<WeatherRecordStored> recordStored;
+
+    @Inject
+    SchemaMigrationService schemaMigration;
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @Inject
+    StationDataInserter inserter;
+
+    @Inject
+    DataQualityFilter quality;
+
+    @Inject
+    QueryBudget budget;
+
+    @ConfigProperty(name = "weather.batch.chunk-size", defaultValue = "500")
+    int chunkSize;
+
     @PostConstruct
     void postConstruct() {
         registerGauge("temperatur",    "out", WeatherRecord::getTempout);
@@ -58,7 +133,8 @@ public class WeatherServiceImpl implements WeatherService {
         Gauge.builder("weather_" + name,
                       () -> {
                           WeatherRecord rec = currentWeather.get();
-                          if (rec == null) return Double.NaN;
+                          // a silent station must not keep reporting its last value
+                          if (rec == null || stationMonitor.isStale(rec.getStationkey(), Instant.now())) return Double.NaN;
                           Number val = valueSupplier.apply(rec);
                           return val != null ? val.doubleValue() : Double.NaN;
                       })
@@ -83,11 +159,17 @@ public class WeatherServiceImpl implements WeatherService {
     @Override
     public WeatherSample getWeatherData(LocalDateTime timeFrom, LocalDateTime timeTo) {
         LocalDateTime now = WeatherUtils.convertLocalToUTC(LocalDateTime.now());
+        checkSamples(timeFrom, timeTo);
+        long start = System.nanoTime();
+        // Hibernate executes the statement and hydrates the entities in one call, so "query" covers both
         List<WeatherRecord> records = WeatherRecord
                 .find("sampleTime >= ?1 and sampleTime < ?2",
                       Sort.by("sampleTime"),
                       timeFrom, timeTo)
+                .withHint(AvailableHints.HINT_SPEC_QUERY_TIMEOUT, budget.timeoutSeconds() * 1000)
                 .list();
+        metrics.record(WeatherMetrics.QUERY, "query", WeatherMetrics.RANGE, WeatherMetrics.rangeTag(timeFrom, timeTo),
+                       System.nanoTime() - start);
         return new WeatherSample()
                 .setGenerated(now)
                 .setQueryTo(timeTo)
@@ -95,10 +177,324 @@ public class WeatherServiceImpl implements WeatherService {
                 .setRecords(records);
     }
 
+    private void checkSamples(LocalDateTime timeFrom, LocalDateTime timeTo) {
+        try {
+            budget.checkSamples(timeFrom, timeTo);
+        } catch (BadRequestException ex) {
+            guard("rejected", timeFrom, timeTo);
+            throw ex;
+        }
+    }
+
+    private void guard(String result, LocalDateTime timeFrom, LocalDateTime timeTo) {
+        String range = WeatherMetrics.rangeTag(timeFrom, timeTo);
+        metrics.counter(WeatherMetrics.QUERY_GUARD, result, WeatherMetrics.RANGE, range).increment();
+    }
+
+    @Override
+    public WeatherSeries getWeatherSeries(LocalDateTime timeFrom, LocalDateTime timeTo) throws SQLException {
+        checkSamples(timeFrom, timeTo);
+        return readSeries(timeFrom, timeTo, 0, new QueryCancellation());
+    }
+
+    @Override
+    public WeatherSeries getWeatherSeries(LocalDateTime timeFrom, LocalDateTime timeTo, Duration step,
+                                          QueryCancellation cancellation) throws SQLException {
+        int requested = step != null ? (int) Math.min(Integer.MAX_VALUE, Math.max(1, step.toSeconds())) : 0;
+        int stepSeconds;
+        try {
+            stepSeconds = budget.step(timeFrom, timeTo, requested);
+        } catch (BadRequestException ex) {
+            guard("rejected", timeFrom, timeTo);
+            throw ex;
+        }
+        if (stepSeconds != requested) {
+            LOG.log(Level.FINE, "Range {0} - {1} downsampled to {2}s", new Object[]{timeFrom, timeTo, stepSeconds});
+            guard("downsampled", timeFrom, timeTo);
+        }
+        return readSeries(timeFrom, timeTo, stepSeconds, cancellation);
+    }
+
+    /**
+     * Reads into primitive arrays, a NULL value is not set in the row's presence mask. The statement runs
+     * with the query timeout and is cancelled by {@code cancellation}.
+     */
+    private WeatherSeries readSeries(LocalDateTime timeFrom, LocalDateTime timeTo, int stepSeconds,
+                                     QueryCancellation cancellation) throws SQLException {
+        if (cancellation.isCancelled()) {
+            throw new CancellationException("Range read cancelled");
+        }
+        LocalDateTime now = WeatherUtils.convertLocalToUTC(LocalDateTime.now());
+        long start = System.nanoTime();
+        long minutes = Math.max(0, Duration.between(timeFrom, timeTo).toMinutes());
+        // one minute samples, a day is the common range
+        WeatherSeries.Builder builder = new WeatherSeries.Builder(
+                (int) Math.min(1440, stepSeconds > 0 ? minutes * 60 / stepSeconds : minutes));
+        double[] row = new double[FIELDS.length];
+        String sql = stepSeconds > 0 ? DOWNSAMPLED + STEP + stepSeconds + " order by 1" : SERIES;
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setQueryTimeout(budget.timeoutSeconds());
+            stmt.setFetchSize(SampleCursor.FETCH_SIZE);
+            stmt.setObject(1, timeFrom);
+            stmt.setObject(2, timeTo);
+            cancellation.onCancel(() -> cancel(stmt));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next() && !cancellation.isCancelled()) {
+                    long sampleTime = rs.getObject(1, LocalDateTime.class).toEpochSecond(ZoneOffset.UTC);
+                    for (int f = 0; f < row.length; ++f) {
+                        double value = rs.getDouble(f + 3);
+                        row[f] = rs.wasNull() ? Double.NaN : value;
+                    }
+                    if (stepSeconds > 0 && !Double.isNaN(row[WeatherField.WINDDIR.ordinal()])) {
+                        row[WeatherField.WINDDIR.ordinal()] = meanDirection(row[WeatherField.WINDDIR.ordinal()],
+                                                                            rs.getDouble(FIELDS.length + 3));
+                    }
+                    builder.add(rs.getString(2), sampleTime, row);
+                }
+            }
+        } catch (SQLException ex) {
+            if (cancellation.isCancelled()) {
+                throw cancelled(ex, timeFrom, timeTo);
+            }
+            throw ex;
+        } finally {
+            cancellation.onCancel(null);
+        }
+        if (cancellation.isCancelled()) {
+            throw cancelled(null, timeFrom, timeTo);
+        }
+        metrics.record(WeatherMetrics.QUERY, "query", WeatherMetrics.RANGE, WeatherMetrics.rangeTag(timeFrom, timeTo),
+                       System.nanoTime() - start);
+        return builder.build(now, timeFrom, timeTo, stepSeconds);
+    }
+
+    /**
+     * Counters are summarized by their largest value, the wind direction by the mean of its unit vectors.
+     */
+    private static String aggregate(WeatherField field) {
+        String column = field.getColumn();
+        return switch (field) {
+            case WINDDIR -> "avg(sin(" + column + " * pi() / 180))";
+            case WINDGUST, MAXDAILYGUST, EVENTRAIN, HOURLYRAIN, DAILYRAIN, WEEKLYRAIN, MONTHLYRAIN, YEARLYRAIN,
+                 TOTALRAIN -> "max(" + column + ")";
+            // the average of an integer column is truncated by Firebird
+            case UV -> "avg(cast(" + column + " as double precision))";
+            default -> "avg(" + column + ")";
+        };
+    }
+
+    private static double meanDirection(double sin, double cos) {
+        return (Math.toDegrees(Math.atan2(sin, cos)) + 360) % 360;
+    }
+
+    private static void cancel(PreparedStatement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException ex) {
+            LOG.log(Level.FINE, "Cannot cancel the range read", ex);
+        }
+    }
+
+    private CancellationException cancelled(SQLException cause, LocalDateTime timeFrom, LocalDateTime timeTo) {
+        guard("cancelled", timeFrom, timeTo);
+        CancellationException ex = new CancellationException("Range read cancelled");
+        ex.initCause(cause);
+        return ex;
+    }
+
+    /**
+     * Written with plain JDBC, the record is not read back in this transaction, so there is no need for a
+     * managed entity.
+     */
     @Override
     @Transactional(Transactional.TxType.REQUIRED)
     public void storeCurrentWeather(WeatherRecord record) {
-        record.persist();
-        currentWeather.set(record);
+        // a spooled sample is checked as well, its quarantined values are stored with it
+        List<QuarantinedValue> quarantined = quality.check(record);
+        WeatherRecordStored stored = new WeatherRecordStored(record, Instant.now());
+        if (!schemaMigration.spool(stored, quarantined)) {
+            insert(record);
+            quarantine(quarantined);
+            recordStored.fire(stored);
+        }
+        updateCurrent(record);
+    }
+
+    /**
+     * Samples may arrive out of order, by batch upload or from other instances, the newest one wins.
+     */
+    private static void updateCurrent(WeatherRecord record) {
+        currentWeather.accumulateAndGet(record, (current, r) ->
+                current == null || r.getSampleTime().isAfter(current.getSampleTime()) ? r : current);
+    }
+
+    /**
+     * Samples stored by other instances, the live state is the same on every replica.
+     */
+    void onReplicated(@Observes WeatherRecordStored event) {
+        if (event.replicated()) {
+            updateCurrent(event.record());
+        }
+    }
+
+    private void insert(WeatherRecord record) {
+        try {
+            inserter.insert(record);
+        } catch (SQLException ex) {
+            String message = "Cannot store sample of " + record.getStationkey() + " at " + record.getSampleTime();
+            if (StationDataWriter.isUniqueViolation(ex)) {
+                throw new DuplicateSampleException(message, ex);
+            }
+            throw new IllegalStateException(message, ex);
+        }
+    }
+
+    private void quarantine(List<QuarantinedValue> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        try (Connection connection = ds.getConnection()) {
+            StationDataWriter.quarantine(connection, values);
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot quarantine values of " + values.get(0).getStationkey(), ex);
+        }
+    }
+
+    @Override
+    public List<IngestStatus> storeWeatherBatch(List<WeatherRecord> records) {
+        if (!schemaMigration.isCompleted()) {
+            throw new ServiceUnavailableException("Schema migration in progress", 60L);
+        }
+        Instant receivedAt = Instant.now();
+        IngestStatus[] result = new IngestStatus[records.size()];
+        List<List<QuarantinedValue>> quarantined = new ArrayList<>(records.size());
+        Set<SampleKey> seen = new HashSet<>();
+        List<Integer> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < records.size(); ++i) {
+            if (!seen.add(SampleKey.of(records.get(i)))) {
+                result[i] = IngestStatus.DUPLICATE;
+                quarantined.add(List.of());
+                continue;
+            }
+            quarantined.add(quality.check(records.get(i)));
+            chunk.add(i);
+            if (chunk.size() >= chunkSize) {
+                storeChunk(records, quarantined, chunk, result, receivedAt);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            storeChunk(records, quarantined, chunk, result, receivedAt);
+        }
+        for (int i = 0; i < result.length; ++i) {
+            if (result[i] == IngestStatus.ACCEPTED) {
+                updateCurrent(records.get(i));
+            }
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Stores one chunk in one transaction, skipping samples already in the database. If the batch fails,
+     * e.g. because a live post stored one of the samples meanwhile, the chunk is retried sample by sample.
+     */
+    private void storeChunk(List<WeatherRecord> records, List<List<QuarantinedValue>> quarantined,
+                            List<Integer> chunk, IngestStatus[] result, Instant receivedAt) {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (int i : chunk) {
+            LocalDateTime sampleTime = records.get(i).getSampleTime();
+            from = from == null || sampleTime.isBefore(from) ? sampleTime : from;
+            to = to == null || sampleTime.isAfter(to) ? sampleTime : to;
+        }
+        LocalDateTime first = from;
+        LocalDateTime last = to;
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                try (Connection connection = ds.getConnection();
+                     StationDataWriter writer = new StationDataWriter(connection)) {
+                    Set<SampleKey> existing = writer.existing(first, last);
+                    List<WeatherRecord> stored = new ArrayList<>(chunk.size());
+                    List<QuarantinedValue> rejected = new ArrayList<>();
+                    for (int i : chunk) {
+                        WeatherRecord record = records.get(i);
+                        if (existing.contains(SampleKey.of(record))) {
+                            result[i] = IngestStatus.DUPLICATE;
+                        } else {
+                            writer.add(record);
+                            stored.add(record);
+                            rejected.addAll(quarantined.get(i));
+                            result[i] = IngestStatus.ACCEPTED;
+                        }
+                    }
+                    writer.flush();
+                    StationDataWriter.quarantine(connection, rejected);
+                    stored.forEach(r -> recordStored.fire(new WeatherRecordStored(r, receivedAt)));
+                } catch (SQLException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+        } catch (RuntimeException ex) {
+            LOG.log(Level.WARNING, "Batch of " + chunk.size() + " samples failed, storing them one by one", ex);
+            for (int i : chunk) {
+                result[i] = storeSingle(records.get(i), quarantined.get(i), receivedAt);
+            }
+        }
+    }
+
+    private IngestStatus storeSingle(WeatherRecord record, List<QuarantinedValue> quarantined, Instant receivedAt) {
+        try {
+            return QuarkusTransaction.requiringNew().call(() -> {
+                try (Connection connection = ds.getConnection();
+                     StationDataWriter writer = new StationDataWriter(connection)) {
+                    if (writer.existing(record.getSampleTime(), record.getSampleTime()).contains(SampleKey.of(record))) {
+                        return IngestStatus.DUPLICATE;
+                    }
+                    try {
+                        writer.insert(record);
+                    } catch (SQLException ex) {
+                        if (StationDataWriter.isUniqueViolation(ex)) {
+                            // stored by another instance after the check above
+                            return IngestStatus.DUPLICATE;
+                        }
+                        throw ex;
+                    }
+                    StationDataWriter.quarantine(connection, quarantined);
+                    recordStored.fire(new WeatherRecordStored(record, receivedAt));
+                    return IngestStatus.ACCEPTED;
+                }
+            });
+        } catch (RuntimeException ex) {
+            LOG.log(Level.WARNING, "Cannot store sample of " + record.getStationkey() + " at "
+                                   + record.getSampleTime(), ex);
+            return IngestStatus.REJECTED;
+        }
+    }
+
+    /**
+     * Stores the samples spooled during a schema migration, each in its own transaction so a single
+     * rejected sample does not take the others with it. The quarantined values are written in the
+     * sample's transaction.
+     */
+    void onSchemaMigrated(@Observes SchemaMigrated event) {
+        int stored = 0;
+        for (SchemaMigrated.Sample sample : event.spooled()) {
+            WeatherRecord record = sample.stored().record();
+            try {
+                QuarkusTransaction.requiringNew().run(() -> {
+                    insert(record);
+                    quarantine(sample.quarantined());
+                    recordStored.fire(sample.stored());
+                });
+                ++stored;
+            } catch (RuntimeException ex) {
+                LOG.log(Level.WARNING, "Cannot store spooled sample of " + record.getStationkey()
+                                       + " at " + record.getSampleTime(), ex);
+            }
+        }
+        if (!event.spooled().isEmpty()) {
+            LOG.log(Level.INFO, "Stored {0} of {1} spooled samples", new Object[]{stored, event.spooled().size()});
+        }
     }
 }
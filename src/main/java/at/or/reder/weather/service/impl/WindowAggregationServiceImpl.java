@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 Wolfgang Reder.
+ * Licensed under the Apache License, Version 2.0
+ */
+package at.or.reder.weather.service.impl;
+
+import at.or.reder.weather.model.WeatherField;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.model.WindowAggregate;
+import at.or.reder.weather.service.WeatherMetrics;
+import at.or.reder.weather.service.WeatherRecordStored;
+import at.or.reder.weather.service.WindowAggregationService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Default;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Keeps windows for at most {@code weather.station.max-stations} stations; a station without sample for
+ * {@code weather.station.idle} is dropped and its gauges are removed.
+ */
+@ApplicationScoped
+@Default
+public class WindowAggregationServiceImpl implements WindowAggregationService {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "weather.window.durations", defaultValue = "PT10M,PT1H,PT24H")
+    List<Duration> durations;
+
+    @ConfigProperty(name = "weather.window.fields", defaultValue = "tempout,windspeed,windgust,winddir")
+    List<String> fieldNames;
+
+    @ConfigProperty(name = "weather.station.max-stations", defaultValue = "1000")
+    int maxStations;
+
+    @ConfigProperty(name = "weather.station.idle", defaultValue = "P7D")
+    Duration idle;
+
+    private List<WeatherField> fields;
+    private StationTable<StationWindows> stations;
+
+    @PostConstruct
+    void postConstruct() {
+        List<WeatherField> result = new ArrayList<>();
+        for (String name : fieldNames) {
+            WeatherField field = WeatherField.fromString(name.trim());
+            if (field == null) {
+                throw new IllegalArgumentException("weather.window.fields: unknown field " + name);
+            }
+            result.add(field);
+        }
+        fields = List.copyOf(result);
+        stations = new StationTable<>(maxStations, idle);
+    }
+
+    void onStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) WeatherRecordStored event) {
+        WeatherRecord record = event.record();
+        if (record.getStationkey() == null || record.getSampleTime() == null) {
+            return;
+        }
+        StationWindows windows = stations.acquire(record.getStationkey(), StationWindows::new);
+        if (windows != null) {
+            windows.add(record);
+        }
+    }
+
+    @Scheduled(every = "1m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evict() {
+        stations.evict(windows -> windows.meters.forEach(meterRegistry::remove));
+    }
+
+    /**
+     * The windows of one station, indexed by field and duration. Sample times are {@code dateutc}, the
+     * gauges evict relative to the server clock so the windows of a silent station run empty.
+     */
+    private final class StationWindows {
+
+        private final String stationkey;
+        private final SlidingWindow[][] windows;
+        private final List<Meter> meters = new ArrayList<>();
+
+        StationWindows(String stationkey) {
+            this.stationkey = stationkey;
+            windows = new SlidingWindow[fields.size()][durations.size()];
+            for (int f = 0; f < windows.length; ++f) {
+                WeatherField field = fields.get(f);
+                for (int d = 0; d < windows[f].length; ++d) {
+                    Duration duration = durations.get(d);
+                    // one sample per minute is the usual station interval
+                    int expected = (int) Math.min(2048, duration.toMinutes() + 1);
+                    SlidingWindow window = new SlidingWindow(duration.toSeconds(), field == WeatherField.WINDDIR,
+                                                             expected);
+                    windows[f][d] = window;
+                    register("weather_window_mean", field, duration, window, SlidingWindow::mean);
+                    if (field != WeatherField.WINDDIR) {
+                        register("weather_window_min", field, duration, window, SlidingWindow::min);
+                        register("weather_window_max", field, duration, window, SlidingWindow::max);
+                    }
+                }
+            }
+        }
+
+        private void register(String name, WeatherField field, Duration duration, SlidingWindow window,
+                              ToDoubleFunction<SlidingWindow> value) {
+            meters.add(Gauge.builder(name, this, s -> s.read(window, value))
+                    .tag(WeatherMetrics.STATION, stationkey)
+                    .tag("field", field.getColumn())
+                    .tag("window", windowTag(duration))
+                    .register(meterRegistry));
+        }
+
+        synchronized void add(WeatherRecord record) {
+            long time = record.getSampleTime().toEpochSecond(ZoneOffset.UTC);
+            for (int f = 0; f < windows.length; ++f) {
+                double value = fields.get(f).valueOf(record);
+                for (SlidingWindow window : windows[f]) {
+                    window.add(time, value);
+                }
+            }
+        }
+
+        synchronized double read(SlidingWindow window, ToDoubleFunction<SlidingWindow> value) {
+            window.evict(Instant.now().getEpochSecond());
+            return value.applyAsDouble(window);
+        }
+
+        synchronized List<WindowAggregate> aggregates(Instant now) {
+            List<WindowAggregate> result = new ArrayList<>(fields.size() * durations.size());
+            for (int f = 0; f < windows.length; ++f) {
+                for (int d = 0; d < windows[f].length; ++d) {
+                    SlidingWindow window = windows[f][d];
+                    window.evict(now.getEpochSecond());
+                    result.add(new WindowAggregate(stationkey, fields.get(f), durations.get(d), window.count(),
+                                                   window.mean(), window.min(), window.max()));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * {@code 10m}, {@code 1h}, {@code 24h} rather than the ISO form.
+     */
+    static String windowTag(Duration duration) {
+        long minutes = duration.toMinutes();
+        if (minutes > 0 && minutes % 60 == 0) {
+            return minutes / 60 + "h";
+        }
+        return minutes > 0 && duration.toSecondsPart() == 0 ? minutes + "m" : duration.toSeconds() + "s";
+    }
+
+    @Override
+    public List<WindowAggregate> getAggregates(String stationkey, Instant now) {
+        StationWindows station = stationkey != null ? stations.get(stationkey) : null;
+        return station != null ? station.aggregates(now) : List.of();
+    }
+}
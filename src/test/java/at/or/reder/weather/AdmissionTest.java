@@ -0,0 +1,95 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.model.WeatherRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * NOISY may post a burst of 2 and one sample every 5 seconds, FLOOD a burst of 2 and one sample per
+ * minute (see the test application.properties).
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class AdmissionTest {
+
+    private static final DateTimeFormatter DATEUTC = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    private final LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+
+    @BeforeEach
+    void setUp() {
+        helper.clearWeatherData();
+    }
+
+    private ValidatableResponse post(String passKey, LocalDateTime dateutc) {
+        return given()
+            .contentType(ContentType.URLENC)
+            .formParam("PASSKEY", passKey)
+            .formParam("stationtype", "test")
+            .formParam("dateutc", dateutc.format(DATEUTC))
+            .formParam("tempf", 68.0)
+            .formParam("interval", 1)
+        .when()
+            .post("/weather/current")
+        .then();
+    }
+
+    private double throttled(String passKey, String result) {
+        return meterRegistry.get("weather_ingest_throttled")
+                .tag("result", result)
+                .tag("station", passKey)
+                .counter()
+                .count();
+    }
+
+    @Test
+    public void noisyStation_latestHeldSampleStored() throws Exception {
+        for (int i = 0; i < 4; ++i) {
+            post("NOISY", start.plusSeconds(i)).statusCode(204);
+        }
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (WeatherRecord.count("stationkey", "NOISY") < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(3, WeatherRecord.count("stationkey", "NOISY"));
+        assertEquals(0, WeatherRecord.count("stationkey = ?1 and sampleTime = ?2", "NOISY", start.plusSeconds(2)));
+        assertEquals(1, WeatherRecord.count("stationkey = ?1 and sampleTime = ?2", "NOISY", start.plusSeconds(3)));
+        assertEquals(1.0, throttled("NOISY", "deferred"), 0.001);
+        assertEquals(1.0, throttled("NOISY", "coalesced"), 0.001);
+    }
+
+    @Test
+    public void floodingStation_rejectedWithRetryAfter() {
+        post("FLOOD", start).statusCode(204);
+        post("FLOOD", start.plusSeconds(1)).statusCode(204);
+
+        post("FLOOD", start.plusSeconds(2))
+            .statusCode(429)
+            .header("Retry-After", allOf(notNullValue(), not("0")));
+
+        assertEquals(2, WeatherRecord.count("stationkey", "FLOOD"));
+        assertEquals(1.0, throttled("FLOOD", "rejected"), 0.001);
+    }
+}
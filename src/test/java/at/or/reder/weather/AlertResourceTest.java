@@ -0,0 +1,86 @@
+package at.or.reder.weather;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class AlertResourceTest {
+
+    private static final DateTimeFormatter DATEUTC = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        helper.clearWeatherData();
+    }
+
+    private void post(String passkey, LocalDateTime sampleTime, double tempf, double baromrelin) {
+        given()
+            .contentType(ContentType.URLENC)
+            .formParam("PASSKEY", passkey).formParam("stationtype", "test")
+            .formParam("dateutc", sampleTime.format(DATEUTC)).formParam("freq", "868M")
+            .formParam("model", "GW2000A").formParam("runtime", 0).formParam("heap", 0)
+            .formParam("tempinf", 71.6).formParam("humidityin", 50.0)
+            .formParam("baromrelin", baromrelin).formParam("baromabsin", baromrelin)
+            .formParam("tempf", tempf)
+            .formParam("humidity", 60.0).formParam("winddir", 180)
+            .formParam("windspeedmph", 0.0).formParam("windgustmph", 0.0)
+            .formParam("maxdailygust", 0.0).formParam("solarradiation", 0.0)
+            .formParam("uv", 0).formParam("rainratein", 0.0).formParam("eventrainin", 0.0)
+            .formParam("hourlyrainin", 0.0).formParam("dailyrainin", 0.0)
+            .formParam("weeklyrainin", 0.0).formParam("monthlyrainin", 0.0)
+            .formParam("yearlyrainin", 0.0).formParam("totalrainin", 0.0)
+            .formParam("wh65batt", 0).formParam("interval", 60)
+        .when().post("/weather/current").then().statusCode(204);
+    }
+
+    private void assertFiring(String passkey, String rule, boolean firing) {
+        given()
+            .queryParam("firing", true)
+            .when().get("/weather/alerts")
+            .then()
+            .statusCode(200)
+            .body("findAll { it.stationkey == '" + passkey + "' }.rule",
+                  firing ? hasItem(rule) : not(hasItem(rule)));
+    }
+
+    @Test
+    public void frostFiresAndResolvesWithHysteresis() {
+        LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC).withNano(0).minusMinutes(10);
+        // 28.4 °F = -2 °C
+        post("ALERTFROST", start, 28.4, 29.9212);
+        assertFiring("ALERTFROST", "frost", true);
+        // 32.9 °F = 0.5 °C, above the threshold but below the clear value of 1 °C
+        post("ALERTFROST", start.plusMinutes(1), 32.9, 29.9212);
+        assertFiring("ALERTFROST", "frost", true);
+        // 35.6 °F = 2 °C
+        post("ALERTFROST", start.plusMinutes(2), 35.6, 29.9212);
+        assertFiring("ALERTFROST", "frost", false);
+    }
+
+    @Test
+    public void pressureDropWithinWindowFires() {
+        LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC).withNano(0).minusHours(2);
+        post("ALERTPRESSURE", start, 50, 29.9212);
+        post("ALERTPRESSURE", start.plusHours(1), 50, 29.8621);
+        assertFiring("ALERTPRESSURE", "pressure-drop", false);
+        // 29.7735 inHg is 5 hPa below the first sample
+        post("ALERTPRESSURE", start.plusHours(2), 50, 29.7735);
+        assertFiring("ALERTPRESSURE", "pressure-drop", true);
+    }
+}
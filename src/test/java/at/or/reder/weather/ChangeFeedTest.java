@@ -0,0 +1,151 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherRecordFixture;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.ChangeFeedService;
+import at.or.reder.weather.service.WeatherService;
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(ReplicaTestProfile.class)
+public class ChangeFeedTest {
+
+    private static final String INSERT =
+            "insert into stationdata (id, stationkey, sampletime, tempout) values (%s, ?, ?, ?)";
+    private static final String NEXT_ID = "next value for stationdata_seq";
+
+    @Inject
+    ChangeFeedService changeFeed;
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    private final LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+
+    @BeforeEach
+    void setUp() {
+        helper.clearWeatherData();
+        // positions the feed on the first call, skips what earlier tests stored otherwise
+        changeFeed.poll();
+    }
+
+    /**
+     * Inserts a sample the way another instance does, without any event on this one.
+     */
+    private void insertRemote(String id, String stationkey, LocalDateTime sampleTime, double tempout)
+            throws SQLException {
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(String.format(INSERT, id))) {
+            stmt.setString(1, stationkey);
+            stmt.setObject(2, sampleTime);
+            stmt.setDouble(3, tempout);
+            stmt.executeUpdate();
+        }
+    }
+
+    private long reserveId() throws SQLException {
+        try (Connection connection = ds.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("select next value for stationdata_seq");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private double currentTempout() {
+        return meterRegistry.get("weather_temperatur").tag("scope", "out").gauge().value();
+    }
+
+    /**
+     * The live state is kept across the tests, the others store samples before {@code now}.
+     */
+    @Test
+    public void remoteSample_updatesLiveStateIfNewer() throws Exception {
+        insertRemote(NEXT_ID, "TEST_STATION", now, 17.25);
+        assertEquals(1, changeFeed.poll());
+        assertEquals(17.25, currentTempout(), 0.001);
+
+        insertRemote(NEXT_ID, "TEST_STATION", now.minusMinutes(5), 30.0);
+        assertEquals(1, changeFeed.poll());
+        assertEquals(17.25, currentTempout(), 0.001);
+        assertEquals(0, changeFeed.poll());
+    }
+
+    @Test
+    public void localSample_notReplicated() {
+        weatherService.storeCurrentWeather(new WeatherRecordFixture().withSampleTime(now.minusMinutes(3)).build());
+
+        assertEquals(0, changeFeed.poll());
+    }
+
+    @Test
+    public void lowerIdCommittedLater_stillDelivered() throws Exception {
+        long reserved = reserveId();
+        insertRemote(NEXT_ID, "REMOTE", now.minusMinutes(1), 10.0);
+        assertEquals(1, changeFeed.poll());
+
+        insertRemote(Long.toString(reserved), "REMOTE", now.minusMinutes(2), 11.0);
+        assertEquals(1, changeFeed.poll());
+        assertEquals(0, changeFeed.poll());
+    }
+
+    @Test
+    public void retransmitStoredByOtherInstance_acknowledged() throws Exception {
+        LocalDateTime first = now.minusMinutes(2);
+        LocalDateTime second = now.minusMinutes(1);
+        post(first);
+        insertRemote(NEXT_ID, "TEST", second, 20.0);
+
+        post(second);
+
+        assertEquals(1, WeatherRecord.count("stationkey = ?1 and sampleTime = ?2", "TEST", second));
+        assertEquals(1.0, meterRegistry.get("weather_ingest_samples")
+                .tag("result", "duplicate").tag("station", "TEST").counter().count(), 0.001);
+    }
+
+    private void post(LocalDateTime dateutc) {
+        given()
+            .contentType(ContentType.URLENC)
+            .formParam("PASSKEY", "TEST")
+            .formParam("stationtype", "test")
+            .formParam("dateutc", dateutc.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
+            .formParam("freq", "915M")
+            .formParam("model", "WS2900")
+            .formParam("tempf", 68.0)
+            .formParam("interval", 60)
+        .when()
+            .post("/weather/current")
+        .then()
+            .statusCode(204);
+    }
+}
@@ -0,0 +1,105 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherRecordFixture;
+import at.or.reder.weather.model.WeatherUtils;
+import at.or.reder.weather.service.ClimateService;
+import at.or.reder.weather.service.WeatherService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import io.restassured.config.JsonConfig;
+import io.restassured.path.json.config.JsonPathConfig;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class ClimateTest {
+
+    private final LocalDate date = LocalDate.now().minusDays(1);
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    ClimateService climate;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.config = RestAssured.config()
+                .jsonConfig(JsonConfig.jsonConfig()
+                        .numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE));
+        helper.clearWeatherData();
+        store(date.minusYears(2), 12, 5.0);
+        store(date.minusYears(2), 14, 9.0);
+        store(date.minusYears(1), 12, 15.0);
+        store(date, 12, 12.0);
+    }
+
+    private void store(LocalDate day, int hour, double tempout) {
+        weatherService.storeCurrentWeather(new WeatherRecordFixture()
+                .withSampleTime(WeatherUtils.convertLocalToUTC(day.atTime(hour, 0)))
+                .withTempout(tempout)
+                .build());
+    }
+
+    @Test
+    public void report_comparesWithPreviousYears() {
+        assertTrue(climate.closeDays() >= 730);
+
+        given()
+            .queryParam("date", date.toString())
+            .queryParam("station", "TEST_STATION")
+        .when()
+            .get("/weather/climate")
+        .then()
+            .statusCode(200)
+            .body("size()", is(1))
+            .body("[0].years", is(2))
+            .body("[0].day.tempmax", closeTo(12.0, 0.001))
+            .body("[0].tempmax.min", closeTo(9.0, 0.001))
+            .body("[0].tempmax.median", closeTo(12.0, 0.001))
+            .body("[0].tempmax.max", closeTo(15.0, 0.001))
+            .body("[0].tempmax.recordHigh", is(date.minusYears(1).getYear()))
+            .body("[0].tempmax.rank", closeTo(50.0, 0.001))
+            .body("[0].tempmin.min", closeTo(5.0, 0.001))
+            .body("[0].history.size()", is(2));
+    }
+
+    @Test
+    public void lateSample_summarizedAgain() {
+        climate.closeDays();
+        store(date.minusYears(2), 16, 20.0);
+        assertEquals(1, climate.closeDays());
+
+        given()
+            .queryParam("date", date.toString())
+        .when()
+            .get("/weather/climate")
+        .then()
+            .statusCode(200)
+            .body("[0].tempmax.max", closeTo(20.0, 0.001))
+            .body("[0].tempmax.recordHigh", is(date.minusYears(2).getYear()));
+    }
+
+    @Test
+    public void invalidDate_returnsBadRequest() {
+        given()
+            .queryParam("date", "yesterday")
+        .when()
+            .get("/weather/climate")
+        .then()
+            .statusCode(400);
+    }
+}
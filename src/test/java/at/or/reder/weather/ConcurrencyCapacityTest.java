@@ -0,0 +1,200 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherSeriesFixture;
+import at.or.reder.weather.service.WeatherService;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput and latency of {@code GET /weather/current/day} at increasing client concurrency while every
+ * database connection is delayed, with a liveness probe running alongside. Not part of the regular test
+ * run, start with {@code ./gradlew capacityBenchmark} and compare with
+ * {@code -Dweather.concurrency.virtual-threads=false}. Configured with {@code weather.capacity.concurrency}
+ * (default {@code 10,50,200}), {@code weather.capacity.duration} and {@code weather.capacity.latency};
+ * results are written to {@code build/reports/capacity/results.json}.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+@Tag("performance")
+public class ConcurrencyCapacityTest {
+
+    private static final Logger LOG = Logger.getLogger(ConcurrencyCapacityTest.class.getName());
+    private static final Duration PROBE_INTERVAL = Duration.ofMillis(100);
+
+    @TestHTTPResource("/")
+    URL baseUrl;
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private record Result(int concurrency, int requests, int unavailable, int failed, double throughput,
+                          double p50Millis, double p99Millis, int probes, int probesFailed, double probeP99Millis) {
+
+        String format() {
+            return String.format(Locale.ROOT,
+                                 "concurrency=%4d requests=%6d 503=%5d failed=%4d throughput=%8.1f/s p50=%8.1fms"
+                                 + " p99=%8.1fms health probes=%4d failed=%2d p99=%7.1fms",
+                                 concurrency, requests, unavailable, failed, throughput, p50Millis, p99Millis,
+                                 probes, probesFailed, probeP99Millis);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        InjectedLatencyInterceptor.latency = Duration.ZERO;
+        helper.clearWeatherData();
+    }
+
+    @Test
+    public void concurrentDayQueries() throws Exception {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).withNano(0);
+        new WeatherSeriesFixture()
+                .withStationkey("CAPACITY")
+                .withStart(now.minusHours(2))
+                .build(120)
+                .forEach(weatherService::storeCurrentWeather);
+        InjectedLatencyInterceptor.latency = Duration.parse(System.getProperty("weather.capacity.latency", "PT0.05S"));
+        Duration duration = Duration.parse(System.getProperty("weather.capacity.duration", "PT10S"));
+        List<Result> results = new ArrayList<>();
+        for (String level : System.getProperty("weather.capacity.concurrency", "10,50,200").split(",")) {
+            results.add(run(Integer.parseInt(level.trim()), duration));
+        }
+        results.forEach(r -> LOG.info(r.format()));
+        write(results, Path.of("build", "reports", "capacity", "results.json"));
+        for (Result result : results) {
+            assertEquals(0, result.probesFailed(), () -> "liveness failed under load: " + result.format());
+        }
+    }
+
+    private Result run(int concurrency, Duration duration) throws InterruptedException {
+        URI base = URI.create(baseUrl.toString());
+        HttpRequest query = HttpRequest.newBuilder(base.resolve("/weather/current/day?running=true"))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest probe = HttpRequest.newBuilder(base.resolve("/q/health/live"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        List<Long> probeLatencies = new ArrayList<>();
+        AtomicInteger unavailable = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int probesFailed = 0;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; ++i) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        int status = send(query);
+                        if (status == 200) {
+                            latencies.add(System.nanoTime() - sent);
+                        } else if (status == 503) {
+                            unavailable.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            while (System.nanoTime() < end) {
+                long sent = System.nanoTime();
+                if (send(probe) != 200) {
+                    ++probesFailed;
+                }
+                probeLatencies.add(System.nanoTime() - sent);
+                Thread.sleep(PROBE_INTERVAL);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] probeSorted = probeLatencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Result(concurrency, sorted.length, unavailable.get(), failed.get(), sorted.length / seconds,
+                          percentile(sorted, 0.5), percentile(sorted, 0.99), probeSorted.length, probesFailed,
+                          percentile(probeSorted, 0.99));
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            return -1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static void write(List<Result> results, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file);
+             JsonGenerator json = Json.createGenerator(writer)) {
+            json.writeStartArray();
+            for (Result r : results) {
+                json.writeStartObject()
+                        .write("concurrency", r.concurrency())
+                        .write("requests", r.requests())
+                        .write("unavailable", r.unavailable())
+                        .write("failed", r.failed())
+                        .write("throughput", r.throughput())
+                        .write("healthProbes", r.probes())
+                        .write("healthProbesFailed", r.probesFailed());
+                writeMillis(json, "p50Millis", r.p50Millis());
+                writeMillis(json, "p99Millis", r.p99Millis());
+                writeMillis(json, "healthP99Millis", r.probeP99Millis());
+                json.writeEnd();
+            }
+            json.writeEnd();
+        }
+    }
+
+    private static void writeMillis(JsonGenerator json, String name, double millis) {
+        if (Double.isNaN(millis)) {
+            json.writeNull(name);
+        } else {
+            json.write(name, millis);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package at.or.reder.weather;
 
+import at.or.reder.weather.model.StationStatus;
+import at.or.reder.weather.service.StationMonitorService;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.TestProfile;
 import io.restassured.RestAssured;
@@ -10,12 +12,17 @@ import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 @TestProfile(H2TestProfile.class)
@@ -24,6 +31,9 @@ public class CurrentWeatherResourceTest {
     @Inject
     WeatherTestHelper helper;
 
+    @Inject
+    StationMonitorService stationMonitor;
+
     @BeforeEach
     void setUp() {
         // Parse JSON numbers as Double (REST-Assured Groovy parser defaults to Float)
@@ -98,6 +108,23 @@ public class CurrentWeatherResourceTest {
         // 204 is asserted inside postWeatherReading
     }
 
+    @Test
+    public void postWeather_stationTrackedAndStaleAfterSilence() {
+        postWeatherReading(nowUtcString());
+
+        Instant now = Instant.now();
+        StationStatus status = stationMonitor.getStations(now).stream()
+                .filter(s -> s.stationkey().equals("TEST"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(Duration.ofSeconds(60), status.interval());
+        assertFalse(status.stale());
+        assertFalse(stationMonitor.isStale("TEST", now));
+        // default factor 3 -> stale after 180 s of silence
+        assertTrue(stationMonitor.isStale("TEST", now.plusSeconds(181)));
+        assertTrue(stationMonitor.isStale("UNKNOWN", now));
+    }
+
     @Test
     public void postThenGet_tempoutConvertedFromFahrenheit() {
         postWeatherReading(nowUtcString());
@@ -163,6 +190,41 @@ public class CurrentWeatherResourceTest {
             .body("records", hasSize(1));
     }
 
+    @Test
+    public void getDayWeather_include_writesOnlyRequestedFields() {
+        String dateutc = nowUtcString();
+        postWeatherReading(dateutc);
+
+        given()
+            .queryParam("running", true)
+            .when().get("/weather/current/day")
+            .then()
+            .statusCode(200)
+            .body("records[0]", not(hasKey("stationkey")))
+            .body("records[0].sampleTime", is(dateutc.replace(' ', 'T')))
+            .body("records[0].humidityout", closeTo(60.0, 0.05));
+
+        given()
+            .queryParam("running", true)
+            .queryParam("include", "stationkey", "humidityout")
+            .when().get("/weather/current/day")
+            .then()
+            .statusCode(200)
+            .body("records[0].stationkey", is("TEST"))
+            .body("records[0].humidityout", closeTo(60.0, 0.05));
+
+        given()
+            .queryParam("running", true)
+            .queryParam("include", "tempout")
+            .when().get("/weather/current/day")
+            .then()
+            .statusCode(200)
+            .body("records[0].tempout", closeTo(20.0, 0.05))
+            .body("records[0].sampleTime", is(dateutc.replace(' ', 'T')))
+            .body("records[0]", not(hasKey("humidityout")))
+            .body("records[0]", not(hasKey("stationkey")));
+    }
+
     @Test
     public void postTwice_getCurrentReturnsLaterRecord() {
         String earlier = LocalDateTime.now(ZoneOffset.UTC).minusMinutes(5)
@@ -198,4 +260,67 @@ public class CurrentWeatherResourceTest {
             .statusCode(200)
             .body("tempout", closeTo(20.0, 0.05));
     }
+
+    @Test
+    public void postBatch_ndjsonStoresAndReportsDuplicates() {
+        LocalDateTime base = LocalDateTime.now(ZoneOffset.UTC).withNano(0).minusHours(2);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        String first = "{\"PASSKEY\":\"BATCH\",\"dateutc\":\"" + base.format(format)
+                       + "\",\"tempf\":68.0,\"baromrelin\":29.9212,\"interval\":60}";
+        // five minutes apart, a drop of 10 °C within a minute would be quarantined
+        String second = "{\"PASSKEY\":\"BATCH\",\"dateutc\":\"" + base.plusMinutes(5).format(format)
+                        + "\",\"tempf\":\"50.0\",\"interval\":60}";
+        String body = first + "\n" + second + "\n" + first + "\n\n{\"PASSKEY\":\"BATCH\",\"dateutc\":\"garbage\"}\n";
+
+        given()
+            .contentType("application/x-ndjson")
+            .body(body)
+            .when().post("/weather/current/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", is(2))
+            .body("duplicates", is(1))
+            .body("rejected", is(1))
+            .body("items.line", contains(1, 2, 3, 5))
+            .body("items.status", contains("ACCEPTED", "ACCEPTED", "DUPLICATE", "REJECTED"));
+
+        // replaying the same upload, as after a retried relay run, only yields duplicates
+        given()
+            .contentType(ContentType.TEXT)
+            .body("PASSKEY=BATCH&dateutc=" + base.format(format).replace(" ", "+") + "&tempf=68.0\n")
+            .when().post("/weather/current/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", is(0))
+            .body("duplicates", is(1));
+
+        given()
+            .queryParam("running", true)
+            .when().get("/weather/current/day")
+            .then()
+            .statusCode(200)
+            .body("records", hasSize(2))
+            .body("records[0].tempout", closeTo(20.0, 0.05))
+            .body("records[1].tempout", closeTo(10.0, 0.05));
+    }
+
+    @Test
+    public void postRetransmit_acknowledgedAndStoredOnce() {
+        String dateutc = nowUtcString();
+        postWeatherReading(dateutc);
+        // the gateway did not get the first response in time and sends the same sample again
+        postWeatherReading(dateutc);
+
+        given()
+            .queryParam("running", true)
+            .when().get("/weather/current/day")
+            .then()
+            .statusCode(200)
+            .body("records", hasSize(1));
+        given()
+            .when().get("/q/metrics")
+            .then()
+            .statusCode(200)
+            .body(containsString("result=\"duplicate\""));
+    }
 }
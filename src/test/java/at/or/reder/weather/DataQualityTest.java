@@ -0,0 +1,107 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherRecordFixture;
+import at.or.reder.weather.model.QualityCheck;
+import at.or.reder.weather.model.QuarantinedValue;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.WeatherService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class DataQualityTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        helper.clearWeatherData();
+    }
+
+    private WeatherRecord store(int minute, double tempout) {
+        WeatherRecord record = new WeatherRecordFixture()
+                .withSampleTime(START.plusMinutes(minute))
+                .withTempout(tempout)
+                .build();
+        weatherService.storeCurrentWeather(record);
+        return record;
+    }
+
+    private void storeSteady(int samples) {
+        for (int minute = 0; minute < samples; ++minute) {
+            store(minute, 20.0 + (minute % 2) * 0.1);
+        }
+    }
+
+    private List<QuarantinedValue> quarantined() {
+        return QuarantinedValue.findByStation("TEST_STATION", START, START.plusDays(1));
+    }
+
+    @Test
+    public void negativeSolarradiation_quarantined() {
+        WeatherRecord record = new WeatherRecordFixture()
+                .withSampleTime(START)
+                .withSolarradiation(-3.0)
+                .build();
+        weatherService.storeCurrentWeather(record);
+
+        assertNull(record.getSolarradiation());
+        assertEquals(20.0, record.getTempout(), 0.001);
+        List<QuarantinedValue> values = quarantined();
+        assertEquals(1, values.size());
+        assertEquals("solarradiation", values.get(0).getField());
+        assertEquals(-3.0, values.get(0).getValue(), 0.001);
+        assertEquals(QualityCheck.RANGE, values.get(0).getCheck());
+    }
+
+    @Test
+    public void temperatureJump_quarantinedAndNextValueAccepted() {
+        storeSteady(5);
+        WeatherRecord spike = store(5, 58.0);
+        WeatherRecord next = store(6, 20.2);
+
+        assertNull(spike.getTempout());
+        assertEquals(20.2, next.getTempout(), 0.001);
+        List<QuarantinedValue> values = quarantined();
+        assertEquals(1, values.size());
+        assertEquals(QualityCheck.RATE, values.get(0).getCheck());
+        assertEquals(START.plusMinutes(5), values.get(0).getSampleTime());
+    }
+
+    @Test
+    public void valueFarFromMedian_quarantinedAsOutlier() {
+        storeSteady(15);
+        // within the rate limit, but far off the median of the window
+        WeatherRecord outlier = store(17, 24.5);
+
+        assertNull(outlier.getTempout());
+        assertEquals(QualityCheck.OUTLIER, quarantined().get(0).getCheck());
+    }
+
+    @Test
+    public void persistentLevelShift_acceptedAfterResetLimit() {
+        storeSteady(15);
+        WeatherRecord last = null;
+        for (int i = 0; i < 10; ++i) {
+            last = store(20 + i * 5, 30.0);
+        }
+
+        assertEquals(30.0, last.getTempout(), 0.001);
+        assertEquals(9, quarantined().size());
+    }
+}
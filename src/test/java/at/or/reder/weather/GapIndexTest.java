@@ -0,0 +1,170 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherRecordFixture;
+import at.or.reder.weather.service.GapIndexService;
+import at.or.reder.weather.service.WeatherService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class GapIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 1, 15, 0, 0);
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    GapIndexService gapIndex;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        helper.clearWeatherData();
+    }
+
+    private void store(LocalDateTime sampleTime) {
+        weatherService.storeCurrentWeather(new WeatherRecordFixture().withSampleTime(sampleTime).build());
+    }
+
+    /**
+     * One sample per minute from 10:00 to 10:05 and from 11:00 to 11:02.
+     */
+    private void storeWithOutage() {
+        for (int minute = 0; minute <= 5; ++minute) {
+            store(DAY.withHour(10).withMinute(minute));
+        }
+        for (int minute = 0; minute <= 2; ++minute) {
+            store(DAY.withHour(11).withMinute(minute));
+        }
+    }
+
+    @Test
+    public void coverage_outage_reportsGap() {
+        storeWithOutage();
+        assertEquals(1, gapIndex.scan());
+
+        given()
+            .queryParam("from", "2024-01-15T10:00:00")
+            .queryParam("to", "2024-01-15T11:03:00")
+            .queryParam("station", "TEST_STATION")
+        .when()
+            .get("/weather/coverage")
+        .then()
+            .statusCode(200)
+            .body("size()", is(1))
+            .body("[0].gaps.size()", is(1))
+            .body("[0].gaps[0].from", is("2024-01-15T10:05:00"))
+            .body("[0].gaps[0].to", is("2024-01-15T11:00:00"))
+            .body("[0].missingSeconds", is(3240))
+            .body("[0].coverage", closeTo(14.29, 0.01));
+    }
+
+    /**
+     * Samples without interval every five minutes, the scan takes the interval from the data.
+     */
+    @Test
+    public void scan_unknownInterval_infersFromSpacing() {
+        for (int minute = 0; minute <= 30; minute += 5) {
+            store(DAY.withHour(10).withMinute(minute));
+        }
+        for (int minute = 30; minute <= 45; minute += 5) {
+            store(DAY.withHour(11).withMinute(minute));
+        }
+        assertEquals(1, gapIndex.scan());
+
+        given()
+            .queryParam("from", "2024-01-15T10:00:00")
+            .queryParam("to", "2024-01-15T11:45:00")
+            .queryParam("station", "TEST_STATION")
+        .when()
+            .get("/weather/coverage")
+        .then()
+            .statusCode(200)
+            .body("[0].intervalSeconds", is(300))
+            .body("[0].gaps.size()", is(1))
+            .body("[0].gaps[0].from", is("2024-01-15T10:30:00"))
+            .body("[0].gaps[0].to", is("2024-01-15T11:30:00"))
+            .body("[0].missingSeconds", is(3300));
+    }
+
+    @Test
+    public void coverage_lateSample_splitsGap() {
+        storeWithOutage();
+        gapIndex.scan();
+        store(DAY.withHour(10).withMinute(30));
+
+        given()
+            .queryParam("from", "2024-01-15T10:00:00")
+            .queryParam("to", "2024-01-15T11:03:00")
+        .when()
+            .get("/weather/coverage")
+        .then()
+            .statusCode(200)
+            .body("[0].gaps.size()", is(2))
+            .body("[0].gaps[0].to", is("2024-01-15T10:30:00"))
+            .body("[0].gaps[1].from", is("2024-01-15T10:30:00"));
+    }
+
+    @Test
+    public void scan_repeated_findsNoNewGaps() {
+        storeWithOutage();
+        assertEquals(1, gapIndex.scan());
+        assertEquals(0, gapIndex.scan());
+
+        given()
+            .queryParam("from", "2024-01-15T00:00:00")
+            .queryParam("to", "2024-01-16T00:00:00")
+        .when()
+            .get("/weather/coverage")
+        .then()
+            .statusCode(200)
+            .body("[0].gaps.findAll { !it.open }.size()", is(2));
+    }
+
+    @Test
+    public void coverage_invalidRange_returnsBadRequest() {
+        given()
+            .queryParam("from", "2024-01-15T10:00:00")
+            .queryParam("to", "2024-01-15T09:00:00")
+        .when()
+            .get("/weather/coverage")
+        .then()
+            .statusCode(400);
+    }
+
+    @Test
+    public void getDay_breaks_addsNullRecordInGap() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+        store(now.minusMinutes(30));
+        store(now.minusMinutes(29));
+        store(now.minusMinutes(1));
+        gapIndex.scan();
+
+        given()
+            .queryParam("running", true)
+            .queryParam("breaks", true)
+            .queryParam("include", "tempout")
+        .when()
+            .get("/weather/current/day")
+        .then()
+            .statusCode(200)
+            .body("records.size()", is(4))
+            .body("records[2].tempout", nullValue())
+            .body("records[3].tempout", notNullValue());
+    }
+}
@@ -20,7 +20,9 @@ public class H2TestProfile implements QuarkusTestProfile {
             "quarkus.datasource.weather.jdbc.driver",          "org.h2.Driver",
             "quarkus.hibernate-orm.dialect",                   "org.hibernate.dialect.H2Dialect",
             "quarkus.hibernate-orm.database.generation",       "drop-and-create",
-            "quarkus.liquibase.weather.migrate-at-start",      "false"
+            "quarkus.liquibase.weather.migrate-at-start",      "false",
+            "weather.schema.migrate-in-background",            "false",
+            "quarkus.scheduler.enabled",                       "false"
         );
     }
 }
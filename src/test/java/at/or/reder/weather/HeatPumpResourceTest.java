@@ -0,0 +1,110 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.model.HeatpumpImport;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class HeatPumpResourceTest {
+
+    private static final String ZONE = "Time;CurrentRoomTemperature;RoomTemperatureSetpoint\n"
+            + "2024-01-15 12:00:00;21.0;21.5\n"
+            + "2024-01-15 12:05:00;21.1;21.5\n";
+    private static final String SYSTEM = "Time;OutdoorTemperature\n"
+            + "2024-01-15 12:00:00;4.0\n"
+            + "2024-01-15 12:05:00;4.2\n";
+    private static final String HOT_WATER = "2024-01-15 12:00:00;48.0\n"
+            + "2024-01-15 12:05:00;48.5\n"
+            + "2024-01-15 12:10:00;49.0\n";
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        helper.clearHeatpumpData();
+    }
+
+    private static byte[] zip() throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(result)) {
+            zip.putNextEntry(new ZipEntry("export/zone_1.csv"));
+            zip.write(ZONE.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("export/system_2024.csv"));
+            zip.write(SYSTEM.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return result.toByteArray();
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(result)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return result.toByteArray();
+    }
+
+    @Test
+    public void upload_zipAndGzip_importsEntries() throws IOException {
+        given()
+            .multiPart("file", "heatpump_export.zip", zip(), "application/zip")
+            .multiPart("file", "domestic_hot_water_2024.csv.gz", gzip(HOT_WATER), "application/gzip")
+        .when()
+            .post("/weather/heatpump")
+        .then()
+            .statusCode(204);
+
+        List<HeatpumpImport> imports = helper.listHeatpumpImports();
+        assertEquals(3, imports.size());
+        assertEquals("domestic_hot_water_2024.csv", imports.get(0).getFileName());
+        assertEquals(3, imports.get(0).getTotalRows());
+        assertEquals("heatpump_export.zip!export/system_2024.csv", imports.get(1).getFileName());
+        assertEquals(2, imports.get(1).getTotalRows());
+        assertEquals("heatpump_export.zip!export/zone_1.csv", imports.get(2).getFileName());
+        assertEquals(2, imports.get(2).getTotalRows());
+        // the three files share the sample times 12:00 and 12:05
+        assertEquals(3, helper.countHeatpumpData());
+    }
+
+    @Test
+    public void upload_importedArchive_isSkipped() throws IOException {
+        byte[] archive = zip();
+        given()
+            .multiPart("file", "heatpump_export.zip", archive, "application/zip")
+        .when()
+            .post("/weather/heatpump")
+        .then()
+            .statusCode(204);
+
+        given()
+            .multiPart("file", "heatpump_export_copy.zip", archive, "application/zip")
+            .multiPart("file", "zone_1.csv.gz", gzip(ZONE), "application/gzip")
+        .when()
+            .post("/weather/heatpump")
+        .then()
+            .statusCode(204);
+
+        List<HeatpumpImport> imports = helper.listHeatpumpImports();
+        assertEquals(2, imports.size());
+        assertEquals("heatpump_export.zip!export/system_2024.csv", imports.get(0).getFileName());
+        assertEquals("heatpump_export.zip!export/zone_1.csv", imports.get(1).getFileName());
+        assertEquals(2, helper.countHeatpumpData());
+    }
+}
@@ -0,0 +1,90 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherRecordFixture;
+import at.or.reder.weather.model.AlignmentMode;
+import at.or.reder.weather.model.HeatpumpWeatherRow;
+import at.or.reder.weather.service.HeatpumpAnalyticsService;
+import at.or.reder.weather.service.WeatherService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class HeatpumpAnalyticsServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 1, 15, 12, 0, 0);
+
+    @Inject
+    HeatpumpAnalyticsService analyticsService;
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        helper.clearWeatherData();
+        helper.clearHeatpumpData();
+        helper.storeHeatpumpData(NOON, 21.0, 9.0);
+        helper.storeHeatpumpData(NOON.plusMinutes(5), 21.5, 9.5);
+        storeWeather(NOON.plusMinutes(1), 10.0);
+        storeWeather(NOON.plusMinutes(3), 12.0);
+        storeWeather(NOON.plusMinutes(6), 14.0);
+    }
+
+    private void storeWeather(LocalDateTime sampleTime, double tempout) {
+        weatherService.storeCurrentWeather(new WeatherRecordFixture()
+                .withSampleTime(sampleTime)
+                .withTempout(tempout)
+                .build());
+    }
+
+    private List<HeatpumpWeatherRow> align(AlignmentMode mode) throws Exception {
+        List<HeatpumpWeatherRow> rows = new ArrayList<>();
+        analyticsService.alignWithWeather(NOON, NOON.plusHours(1), Duration.ofMinutes(5), mode, null, rows::add);
+        return rows;
+    }
+
+    @Test
+    public void alignWithWeather_bucket_averagesWeatherPerBucket() throws Exception {
+        List<HeatpumpWeatherRow> rows = align(AlignmentMode.BUCKET);
+
+        assertEquals(2, rows.size());
+        assertEquals(NOON, rows.get(0).time());
+        assertEquals(1, rows.get(0).heatpumpSamples());
+        assertEquals(2, rows.get(0).weatherSamples());
+        assertEquals(11.0, rows.get(0).tempout(), 0.001);
+        assertEquals(NOON.plusMinutes(5), rows.get(1).time());
+        assertEquals(14.0, rows.get(1).tempout(), 0.001);
+        assertEquals(21.5, rows.get(1).roomTemp(), 0.001);
+    }
+
+    @Test
+    public void alignWithWeather_nearest_picksClosestSample() throws Exception {
+        List<HeatpumpWeatherRow> rows = align(AlignmentMode.NEAREST);
+
+        assertEquals(2, rows.size());
+        assertEquals(10.0, rows.get(0).tempout(), 0.001);
+        assertEquals(14.0, rows.get(1).tempout(), 0.001);
+    }
+
+    @Test
+    public void alignWithWeather_emptyRange_returnsNothing() throws Exception {
+        List<HeatpumpWeatherRow> rows = new ArrayList<>();
+        analyticsService.alignWithWeather(NOON.minusDays(2), NOON.minusDays(1), Duration.ofMinutes(5),
+                AlignmentMode.BUCKET, null, rows::add);
+        assertTrue(rows.isEmpty());
+    }
+}
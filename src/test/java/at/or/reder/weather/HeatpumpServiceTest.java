@@ -0,0 +1,141 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.model.HeatpumpDataBucket;
+import at.or.reder.weather.model.HeatpumpField;
+import at.or.reder.weather.model.HeatpumpFileType;
+import at.or.reder.weather.model.HeatpumpImport;
+import at.or.reder.weather.service.HeatpumpService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class HeatpumpServiceTest {
+
+    private static final String ZONE_HEADER = "Time;CurrentRoomTemperature;RoomTemperatureSetpoint\n";
+
+    @Inject
+    HeatpumpService heatpumpService;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        helper.clearHeatpumpData();
+    }
+
+    private HeatpumpImport importZone(String hash, String rows) throws IOException {
+        return heatpumpService.importFile(HeatpumpFileType.ZONE, "zone_test.csv", hash,
+                new LineNumberReader(new StringReader(ZONE_HEADER + rows)));
+    }
+
+    @Test
+    public void fileTypeFromFilename_recognisesPrefixes() {
+        assertEquals(HeatpumpFileType.HOT_WATER, HeatpumpFileType.fromFilename("domestic_hot_water_2024.csv"));
+        assertEquals(HeatpumpFileType.SYSTEM, HeatpumpFileType.fromFilename("system_2024.csv"));
+        assertEquals(HeatpumpFileType.ZONE, HeatpumpFileType.fromFilename("zone_1.csv"));
+        assertEquals(HeatpumpFileType.ENERGY, HeatpumpFileType.fromFilename("energy.csv"));
+        assertNull(HeatpumpFileType.fromFilename("readme.txt"));
+    }
+
+    @Test
+    public void importFile_recordsHashAndRange() throws IOException {
+        HeatpumpImport result = importZone("hash-a",
+                "2024-01-15 12:00:00;21.0;21.5\n"
+                + "2024-01-15 12:05:00;21.1;21.5\n");
+
+        assertTrue(heatpumpService.isImported("hash-a"));
+        assertFalse(heatpumpService.isImported("hash-b"));
+        assertEquals(2, result.getTotalRows());
+        assertEquals(2, result.getInsertedRows());
+        assertNotNull(result.getRangeFrom());
+        assertTrue(result.getRangeTo().isAfter(result.getRangeFrom()));
+    }
+
+    @Test
+    public void importFile_overlappingFile_skipsImportedRange() throws IOException {
+        importZone("hash-a",
+                "2024-01-15 12:00:00;21.0;21.5\n"
+                + "2024-01-15 12:05:00;21.1;21.5\n");
+
+        HeatpumpImport result = importZone("hash-b",
+                "2024-01-15 12:00:00;21.0;21.5\n"
+                + "2024-01-15 12:05:00;21.3;21.5\n"
+                + "2024-01-15 12:10:00;21.2;21.5\n");
+
+        assertEquals(3, result.getTotalRows());
+        assertEquals(2, result.getUnchangedRows());
+        assertEquals(0, result.getUpdatedRows());
+        assertEquals(1, result.getInsertedRows());
+    }
+
+    @Test
+    public void importFile_olderFile_isImportedBeforeHighWaterMark() throws IOException {
+        importZone("hash-a",
+                "2024-01-15 12:00:00;21.0;21.5\n"
+                + "2024-01-15 12:05:00;21.1;21.5\n");
+
+        HeatpumpImport result = importZone("hash-b",
+                "2024-01-14 12:00:00;20.0;21.5\n"
+                + "2024-01-14 12:05:00;20.1;21.5\n");
+
+        assertEquals(2, result.getInsertedRows());
+        assertEquals(0, result.getUnchangedRows());
+    }
+
+    @Test
+    public void highWaterMark_isEndOfNewestImport() throws IOException {
+        HeatpumpImport result = importZone("hash-a", "2024-01-15 12:00:00;21.0;21.5\n");
+
+        LocalDateTime mark = helper.findHighWaterMark(HeatpumpFileType.ZONE);
+        assertEquals(result.getRangeTo(), mark);
+        assertNull(helper.findHighWaterMark(HeatpumpFileType.SYSTEM));
+    }
+
+    @Test
+    public void streamData_downsamplesToMaxPoints() throws Exception {
+        LocalDateTime noon = LocalDateTime.of(2024, 1, 15, 12, 0, 0);
+        helper.storeHeatpumpData(noon, 20.0, 5.0);
+        helper.storeHeatpumpData(noon.plusMinutes(5), 21.0, 6.0);
+        helper.storeHeatpumpData(noon.plusMinutes(10), 22.0, 7.0);
+
+        List<HeatpumpDataBucket> buckets = new ArrayList<>();
+        long bucketSeconds = heatpumpService.streamData(noon, noon.plusHours(1),
+                List.of(HeatpumpField.ROOM_TEMP), 1, buckets::add);
+
+        assertEquals(3600, bucketSeconds);
+        assertEquals(1, buckets.size());
+        assertEquals(3, buckets.get(0).samples());
+        assertEquals(20.0, buckets.get(0).min()[0], 0.001);
+        assertEquals(22.0, buckets.get(0).max()[0], 0.001);
+        assertEquals(21.0, buckets.get(0).avg()[0], 0.001);
+    }
+
+    @Test
+    public void streamData_skipsEmptyBuckets() throws Exception {
+        LocalDateTime noon = LocalDateTime.of(2024, 1, 15, 12, 0, 0);
+        helper.storeHeatpumpData(noon, 20.0, 5.0);
+        helper.storeHeatpumpData(noon.plusMinutes(50), 21.0, 6.0);
+
+        List<HeatpumpDataBucket> buckets = new ArrayList<>();
+        heatpumpService.streamData(noon, noon.plusHours(1),
+                List.of(HeatpumpField.OUTDOOR_TEMP, HeatpumpField.ROOM_TEMP), 12, buckets::add);
+
+        assertEquals(2, buckets.size());
+        assertEquals(5.0, buckets.get(0).avg()[0], 0.001);
+        assertEquals(21.0, buckets.get(1).avg()[1], 0.001);
+    }
+}
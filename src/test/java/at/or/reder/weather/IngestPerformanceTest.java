@@ -0,0 +1,127 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherSeriesFixture;
+import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.WeatherRecordStored;
+import at.or.reder.weather.service.WeatherService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Per-sample latency and allocation of the single sample ingest, the plain JDBC path of
+ * {@link WeatherService#storeCurrentWeather} against persisting the entity with Hibernate. Both run one
+ * transaction per sample and fire the stored event. Not part of the regular test run, start with
+ * {@code ./gradlew ingestBenchmark}; {@code weather.ingest.samples} sets the samples per variant.
+ * Results are written to {@code build/reports/ingest-benchmark/results.json}.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+@Tag("performance")
+public class IngestPerformanceTest {
+
+    private static final Logger LOG = Logger.getLogger(IngestPerformanceTest.class.getName());
+    private static final int WARMUP = 500;
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    Event<WeatherRecordStored> recordStored;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    private record Result(String path, int samples, double meanMicros, double p99Micros, long allocatedPerSample) {
+
+        String format() {
+            return String.format(Locale.ROOT, "%-9s samples=%6d mean=%8.1fus p99=%8.1fus allocated=%7d bytes/sample",
+                                 path, samples, meanMicros, p99Micros, allocatedPerSample);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        helper.clearWeatherData();
+    }
+
+    @Test
+    public void singleSampleIngest() throws Exception {
+        int samples = Integer.getInteger("weather.ingest.samples", 5000);
+        Result hibernate = measure("hibernate", samples, r -> QuarkusTransaction.requiringNew().run(() -> {
+            r.persist();
+            recordStored.fire(new WeatherRecordStored(r, Instant.now()));
+        }));
+        Result jdbc = measure("jdbc", samples, weatherService::storeCurrentWeather);
+        LOG.info(hibernate.format());
+        LOG.info(jdbc.format());
+        write(List.of(hibernate, jdbc), Path.of("build", "reports", "ingest-benchmark", "results.json"));
+        assertEquals(WARMUP + samples, WeatherRecord.count("stationkey", "INGEST_JDBC"));
+    }
+
+    /**
+     * Every variant stores its own station, so the unique index sees no collisions.
+     */
+    private Result measure(String path, int samples, Consumer<WeatherRecord> store) {
+        List<WeatherRecord> records = new WeatherSeriesFixture()
+                .withStationkey("INGEST_" + path.toUpperCase(Locale.ROOT))
+                .withStart(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build(WARMUP + samples);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP; ++i) {
+            store.accept(records.get(i));
+        }
+        long[] nanos = new long[samples];
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < samples; ++i) {
+            long start = System.nanoTime();
+            store.accept(records.get(WARMUP + i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        double mean = Arrays.stream(nanos).average().orElse(0) / 1e3;
+        Arrays.sort(nanos);
+        return new Result(path, samples, mean, nanos[(int) Math.ceil(samples * 0.99) - 1] / 1e3,
+                          allocated / samples);
+    }
+
+    private static void write(List<Result> results, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file);
+             JsonGenerator json = Json.createGenerator(writer)) {
+            json.writeStartArray();
+            for (Result r : results) {
+                json.writeStartObject()
+                        .write("path", r.path())
+                        .write("samples", r.samples())
+                        .write("meanMicros", r.meanMicros())
+                        .write("p99Micros", r.p99Micros())
+                        .write("allocatedPerSample", r.allocatedPerSample())
+                        .writeEnd();
+            }
+            json.writeEnd();
+        }
+    }
+}
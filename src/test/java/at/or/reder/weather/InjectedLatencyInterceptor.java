@@ -0,0 +1,30 @@
+package at.or.reder.weather;
+
+import io.agroal.api.AgroalPoolInterceptor;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.sql.Connection;
+import java.time.Duration;
+
+/**
+ * Delays every connection handed out by the weather pool, to simulate a remote or loaded database.
+ * Off unless a test sets {@link #latency}.
+ */
+@ApplicationScoped
+@DataSource("weather")
+public class InjectedLatencyInterceptor implements AgroalPoolInterceptor {
+
+    static volatile Duration latency = Duration.ZERO;
+
+    @Override
+    public void onConnectionAcquire(Connection connection) {
+        Duration delay = latency;
+        if (!delay.isZero()) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherRecordFixture;
+import at.or.reder.weather.service.WeatherService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import io.restassured.config.JsonConfig;
+import io.restassured.path.json.config.JsonPathConfig;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The test profile allows ten million rows, with one station at one sample per minute that is a range
+ * of about 19 years.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class QueryGuardTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 1, 15, 10, 0, 0);
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.config = RestAssured.config()
+                .jsonConfig(JsonConfig.jsonConfig()
+                        .numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE));
+        helper.clearWeatherData();
+        store(HOUR, 10.0, 1.0);
+        store(HOUR.plusMinutes(20), 12.0, 2.0);
+        store(HOUR.plusMinutes(40), 14.0, 3.0);
+        store(HOUR.plusMinutes(70), 15.0, 3.5);
+    }
+
+    private void store(LocalDateTime sampleTime, double tempout, double dailyrain) {
+        weatherService.storeCurrentWeather(new WeatherRecordFixture()
+                .withStationkey("GUARD")
+                .withSampleTime(sampleTime)
+                .withTempout(tempout)
+                .withDailyrain(dailyrain)
+                .build());
+    }
+
+    @Test
+    public void range_withStep_aggregatesPerStep() {
+        given()
+            .queryParam("from", "2024-01-15T00:00:00")
+            .queryParam("to", "2024-01-16T00:00:00")
+            .queryParam("step", "PT1H")
+        .when()
+            .get("/weather/current/range")
+        .then()
+            .statusCode(200)
+            .body("step", is(3600.0))
+            .body("records", hasSize(2))
+            .body("records[0].sampleTime", is("2024-01-15T10:00:00"))
+            .body("records[0].tempout", closeTo(12.0, 0.001))
+            .body("records[0].dailyrain", closeTo(3.0, 0.001))
+            .body("records[1].sampleTime", is("2024-01-15T11:10:00"));
+    }
+
+    @Test
+    public void range_withinBudget_returnsSamples() {
+        given()
+            .queryParam("from", "2024-01-15T00:00:00")
+            .queryParam("to", "2024-01-16T00:00:00")
+        .when()
+            .get("/weather/current/range")
+        .then()
+            .statusCode(200)
+            .body("$", not(hasKey("step")))
+            .body("records", hasSize(4));
+    }
+
+    @Test
+    public void range_overBudget_downsampled() {
+        given()
+            .queryParam("from", "1990-01-01")
+            .queryParam("to", "2040-01-01")
+            .queryParam("include", "tempout")
+        .when()
+            .get("/weather/current/range")
+        .then()
+            .statusCode(200)
+            .body("step", greaterThanOrEqualTo(300.0))
+            .body("records.size()", greaterThan(0));
+    }
+
+    @Test
+    public void samples_overBudget_rejected() {
+        LocalDateTime from = LocalDateTime.of(1990, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2040, 1, 1, 0, 0);
+        assertThrows(BadRequestException.class, () -> weatherService.getWeatherData(from, to));
+        assertThrows(BadRequestException.class, () -> weatherService.getWeatherSeries(from, to));
+    }
+
+    @Test
+    public void invalidRange_returnsBadRequest() {
+        given()
+            .queryParam("from", "2024-01-16T00:00:00")
+            .queryParam("to", "2024-01-15T00:00:00")
+        .when()
+            .get("/weather/current/range")
+        .then()
+            .statusCode(400);
+
+        given()
+            .queryParam("from", "2024-01-15T00:00:00")
+            .queryParam("to", "2024-01-16T00:00:00")
+            .queryParam("step", "hourly")
+        .when()
+            .get("/weather/current/range")
+        .then()
+            .statusCode(400);
+    }
+}
@@ -0,0 +1,169 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.load.SyntheticDatasetGenerator;
+import at.or.reder.weather.model.HeatpumpField;
+import at.or.reder.weather.model.WeatherSample;
+import at.or.reder.weather.service.HeatpumpService;
+import at.or.reder.weather.service.WeatherService;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Range query latency and allocation over a multi-year synthetic dataset. Not part of the regular test
+ * run, start with {@code ./gradlew queryBenchmark}; dataset size is configured with the
+ * {@code weather.dataset.*} system properties. Results are logged and written to
+ * {@code build/reports/query-benchmark/results.json}.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+@Tag("performance")
+public class QueryPerformanceTest {
+
+    private static final Logger LOG = Logger.getLogger(QueryPerformanceTest.class.getName());
+    private static final int WARMUP = 2;
+    private static final int MEASURE = 5;
+    private static final List<Duration> RANGES = List.of(
+            Duration.ofDays(1), Duration.ofDays(7), Duration.ofDays(30), Duration.ofDays(365));
+
+    private static SyntheticDatasetGenerator generator;
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    HeatpumpService heatpumpService;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @Inject
+    @DataSource("weather")
+    AgroalDataSource ds;
+
+    private record Result(String query, Duration range, int rows, double medianMillis, double maxMillis,
+                          long allocatedBytes) {
+
+        String format() {
+            return String.format(Locale.ROOT, "%-10s %-6s rows=%8d median=%9.2fms max=%9.2fms allocated=%8.1fMB",
+                                 query, range, rows, medianMillis, maxMillis, allocatedBytes / (1024d * 1024));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Query {
+
+        int run(LocalDateTime from, LocalDateTime to) throws Exception;
+    }
+
+    @BeforeEach
+    void loadDataset() throws Exception {
+        if (generator != null) {
+            return;
+        }
+        helper.clearWeatherData();
+        helper.clearHeatpumpData();
+        generator = new SyntheticDatasetGenerator()
+                .withStations(Integer.getInteger("weather.dataset.stations", 2))
+                .withYears(Integer.getInteger("weather.dataset.years", 2))
+                .withInterval(Duration.parse(System.getProperty("weather.dataset.interval", "PT5M")))
+                .withEnd(LocalDate.of(2025, 1, 1));
+        try (Connection connection = ds.getConnection()) {
+            generator.load(connection);
+        }
+    }
+
+    @Test
+    public void rangeQueries() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (Duration range : RANGES) {
+            results.add(measure("weather", range, (from, to) -> {
+                WeatherSample sample = weatherService.getWeatherData(from, to);
+                return sample.getRecords().size();
+            }));
+            results.add(measure("series", range, (from, to) -> weatherService.getWeatherSeries(from, to).size()));
+            results.add(measure("heatpump", range, (from, to) -> {
+                AtomicInteger buckets = new AtomicInteger();
+                heatpumpService.streamData(from, to, Arrays.asList(HeatpumpField.values()), 1000,
+                                           b -> buckets.incrementAndGet());
+                return buckets.get();
+            }));
+        }
+        results.forEach(r -> LOG.info(r.format()));
+        write(results, Path.of("build", "reports", "query-benchmark", "results.json"));
+        for (Result result : results) {
+            assertTrue(result.rows() > 0, () -> "no rows for " + result.format());
+        }
+    }
+
+    /**
+     * Runs the query for the range that ends with the dataset, the allocation is the median invocation's
+     * allocation of the calling thread.
+     */
+    private Result measure(String name, Duration range, Query query) throws Exception {
+        LocalDateTime to = generator.getEnd();
+        LocalDateTime from = to.minus(range);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP; ++i) {
+            query.run(from, to);
+        }
+        long[] nanos = new long[MEASURE];
+        long[] allocated = new long[MEASURE];
+        int rows = 0;
+        for (int i = 0; i < MEASURE; ++i) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            rows = query.run(from, to);
+            nanos[i] = System.nanoTime() - start;
+            allocated[i] = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(allocated);
+        return new Result(name, range, rows, nanos[MEASURE / 2] / 1e6, nanos[MEASURE - 1] / 1e6,
+                          allocated[MEASURE / 2]);
+    }
+
+    private static void write(List<Result> results, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file);
+             JsonGenerator json = Json.createGenerator(writer)) {
+            json.writeStartArray();
+            for (Result r : results) {
+                json.writeStartObject()
+                        .write("query", r.query())
+                        .write("range", r.range().toString())
+                        .write("rows", r.rows())
+                        .write("medianMillis", r.medianMillis())
+                        .write("maxMillis", r.maxMillis())
+                        .write("allocatedBytes", r.allocatedBytes())
+                        .writeEnd();
+            }
+            json.writeEnd();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package at.or.reder.weather;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link H2TestProfile} with replica mode on, the tests poll the change feed themselves.
+ */
+public class ReplicaTestProfile extends H2TestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+        overrides.put("weather.replica.enabled", "true");
+        return overrides;
+    }
+}
@@ -0,0 +1,55 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.load.FleetReport;
+import at.or.reder.weather.load.FleetScenario;
+import at.or.reder.weather.load.StationFleetSimulator;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ingest throughput of a simulated station fleet against the in-process server. Not part of the
+ * regular test run, start with {@code ./gradlew loadTest}; the scenario is configured with the
+ * {@code weather.load.*} system properties, see {@link FleetScenario}.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+@Tag("performance")
+public class StationFleetLoadTest {
+
+    private static final Logger LOG = Logger.getLogger(StationFleetLoadTest.class.getName());
+
+    @TestHTTPResource("/")
+    URL baseUrl;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @AfterEach
+    void tearDown() {
+        helper.clearWeatherData();
+    }
+
+    @Test
+    public void stationFleet() throws Exception {
+        StationFleetSimulator simulator = new StationFleetSimulator(URI.create(baseUrl.toString()),
+                                                                    FleetScenario.fromSystemProperties());
+        List<FleetReport> reports = simulator.runAll();
+        for (FleetReport report : reports) {
+            LOG.info(report.format());
+        }
+        for (FleetReport report : reports) {
+            assertEquals(0, report.failed(), () -> "failed requests: " + report.format());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package at.or.reder.weather;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class SystemResourceTest {
+
+    @Test
+    public void testFlightRecordingDumpHasNoEnvironment() throws IOException {
+        byte[] body = given()
+            .queryParam("minutes", 1)
+            .when().get("/weather/system/jfr")
+            .then()
+            .statusCode(200)
+            .extract().asByteArray();
+        Path file = Files.createTempFile("weatherlog-test-", ".jfr");
+        try {
+            Files.write(file, body);
+            Set<String> leaking = Set.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty",
+                    "jdk.JVMInformation");
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                assertFalse(leaking.contains(event.getEventType().getName()), event.getEventType().getName());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFlightRecordingDump() {
+        byte[] body = given()
+            .queryParam("minutes", 1)
+            .when().get("/weather/system/jfr")
+            .then()
+            .statusCode(200)
+            .header("Content-Disposition", containsString(".jfr"))
+            .extract().asByteArray();
+        // JFR chunks start with the magic "FLR\0"
+        assertTrue(body.length > 4);
+        assertArrayEquals(new byte[]{'F', 'L', 'R', 0}, Arrays.copyOf(body, 4));
+    }
+
+    @Test
+    public void testFlightRecordingRejectsInvalidMinutes() {
+        given()
+            .queryParam("minutes", 0)
+            .when().get("/weather/system/jfr")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    public void testMigrationStatusCompletedWithoutBackgroundMigration() {
+        given()
+            .when().get("/weather/system/migration")
+            .then()
+            .statusCode(200)
+            .body("state", is("COMPLETED"))
+            .body("spooledSamples", is(0));
+    }
+}
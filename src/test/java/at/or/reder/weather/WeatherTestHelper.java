@@ -1,14 +1,83 @@
 package at.or.reder.weather;
 
+import at.or.reder.weather.model.ClimateDay;
+import at.or.reder.weather.model.HeatpumpData;
+import at.or.reder.weather.model.HeatpumpEnergy;
+import at.or.reder.weather.model.HeatpumpFileType;
+import at.or.reder.weather.model.HeatpumpImport;
+import at.or.reder.weather.model.QuarantinedValue;
+import at.or.reder.weather.model.StationGap;
+import at.or.reder.weather.model.StationGapMark;
 import at.or.reder.weather.model.WeatherRecord;
+import at.or.reder.weather.service.ClimateService;
+import at.or.reder.weather.service.DataQualityFilter;
+import at.or.reder.weather.service.DuplicateFilter;
+import at.or.reder.weather.service.GapIndexService;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @ApplicationScoped
 class WeatherTestHelper {
 
+    @Inject
+    DuplicateFilter duplicateFilter;
+
+    @Inject
+    GapIndexService gapIndex;
+
+    @Inject
+    DataQualityFilter quality;
+
+    @Inject
+    ClimateService climate;
+
     @Transactional
     public void clearWeatherData() {
         WeatherRecord.deleteAll();
+        duplicateFilter.clear();
+        StationGap.deleteAll();
+        StationGapMark.deleteAll();
+        gapIndex.clear();
+        QuarantinedValue.deleteAll();
+        quality.clear();
+        ClimateDay.deleteAll();
+        climate.clear();
+    }
+
+    @Transactional
+    public void clearHeatpumpData() {
+        HeatpumpData.deleteAll();
+        HeatpumpEnergy.deleteAll();
+        HeatpumpImport.deleteAll();
+    }
+
+    @Transactional
+    public void storeHeatpumpData(LocalDateTime sampleTime, double roomTemp, double outdoorTemp) {
+        HeatpumpData data = new HeatpumpData();
+        data.setSampletime(sampleTime);
+        data.setRoomTemp(roomTemp);
+        data.setRoomTempSet(21.0);
+        data.setOutdoorTemp(outdoorTemp);
+        data.setHotWaterTemp(48.0);
+        data.persist();
+    }
+
+    @Transactional
+    public LocalDateTime findHighWaterMark(HeatpumpFileType fileType) {
+        return HeatpumpImport.findHighWaterMark(fileType).orElse(null);
+    }
+
+    @Transactional
+    public List<HeatpumpImport> listHeatpumpImports() {
+        return HeatpumpImport.listAll(Sort.by("fileName"));
+    }
+
+    @Transactional
+    public long countHeatpumpData() {
+        return HeatpumpData.count();
     }
 }
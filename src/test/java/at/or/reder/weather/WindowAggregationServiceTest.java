@@ -0,0 +1,91 @@
+package at.or.reder.weather;
+
+import at.or.reder.weather.fixture.WeatherRecordFixture;
+import at.or.reder.weather.model.WeatherField;
+import at.or.reder.weather.model.WindowAggregate;
+import at.or.reder.weather.service.WeatherService;
+import at.or.reder.weather.service.WindowAggregationService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+public class WindowAggregationServiceTest {
+
+    @Inject
+    WeatherService weatherService;
+
+    @Inject
+    WindowAggregationService windowAggregation;
+
+    @Inject
+    WeatherTestHelper helper;
+
+    @BeforeEach
+    void setUp() {
+        helper.clearWeatherData();
+    }
+
+    private WindowAggregate find(String stationkey, Instant now, WeatherField field, Duration window) {
+        return windowAggregation.getAggregates(stationkey, now).stream()
+                .filter(a -> a.field() == field && a.window().equals(window))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    public void meanMinMaxOverWindows() {
+        Instant now = Instant.now();
+        LocalDateTime end = LocalDateTime.ofInstant(now, ZoneOffset.UTC).withNano(0);
+        // the first gust is 30 minutes old, outside the 10 minute window
+        double[] gusts = {40, 20, 30, 10};
+        int[] minutesAgo = {30, 8, 5, 1};
+        for (int i = 0; i < gusts.length; ++i) {
+            weatherService.storeCurrentWeather(new WeatherRecordFixture()
+                    .withStationkey("WINDOW")
+                    .withSampleTime(end.minusMinutes(minutesAgo[i]))
+                    .withWindgust(gusts[i])
+                    .build());
+        }
+
+        WindowAggregate tenMinutes = find("WINDOW", now, WeatherField.WINDGUST, Duration.ofMinutes(10));
+        assertEquals(3, tenMinutes.count());
+        assertEquals(20.0, tenMinutes.mean(), 1e-9);
+        assertEquals(10.0, tenMinutes.min(), 1e-9);
+        assertEquals(30.0, tenMinutes.max(), 1e-9);
+
+        WindowAggregate hour = find("WINDOW", now, WeatherField.WINDGUST, Duration.ofHours(1));
+        assertEquals(4, hour.count());
+        assertEquals(40.0, hour.max(), 1e-9);
+
+        // two hours later the hour window is empty
+        assertTrue(Double.isNaN(find("WINDOW", now.plus(Duration.ofHours(2)), WeatherField.WINDGUST,
+                                     Duration.ofHours(1)).mean()));
+    }
+
+    @Test
+    public void windDirectionVectorMeanWrapsAroundNorth() {
+        LocalDateTime end = LocalDateTime.now(ZoneOffset.UTC).withNano(0);
+        weatherService.storeCurrentWeather(new WeatherRecordFixture()
+                .withStationkey("WINDOWDIR").withSampleTime(end.minusMinutes(2)).withWinddir(350).build());
+        weatherService.storeCurrentWeather(new WeatherRecordFixture()
+                .withStationkey("WINDOWDIR").withSampleTime(end.minusMinutes(1)).withWinddir(10).build());
+
+        WindowAggregate direction = find("WINDOWDIR", Instant.now(), WeatherField.WINDDIR, Duration.ofMinutes(10));
+        double mean = direction.mean();
+        // 0 and 360 are both north
+        assertEquals(0.0, Math.min(mean, 360 - mean), 1e-6);
+        assertTrue(Double.isNaN(direction.min()));
+    }
+}
@@ -43,6 +43,101 @@ public class WeatherRecordFixture {
         return this;
     }
 
+    public WeatherRecordFixture withTempin(double tempin) {
+        this.tempin = tempin;
+        return this;
+    }
+
+    public WeatherRecordFixture withPressurerel(double pressurerel) {
+        this.pressurerel = pressurerel;
+        return this;
+    }
+
+    public WeatherRecordFixture withHumidityout(double humidityout) {
+        this.humidityout = humidityout;
+        return this;
+    }
+
+    public WeatherRecordFixture withHumidityin(double humidityin) {
+        this.humidityin = humidityin;
+        return this;
+    }
+
+    public WeatherRecordFixture withWindspeed(double windspeed) {
+        this.windspeed = windspeed;
+        return this;
+    }
+
+    public WeatherRecordFixture withWindgust(double windgust) {
+        this.windgust = windgust;
+        return this;
+    }
+
+    public WeatherRecordFixture withMaxdailygust(double maxdailygust) {
+        this.maxdailygust = maxdailygust;
+        return this;
+    }
+
+    public WeatherRecordFixture withWinddir(double winddir) {
+        this.winddir = winddir;
+        return this;
+    }
+
+    public WeatherRecordFixture withSolarradiation(double solarradiation) {
+        this.solarradiation = solarradiation;
+        return this;
+    }
+
+    public WeatherRecordFixture withUv(int uv) {
+        this.uv = uv;
+        return this;
+    }
+
+    public WeatherRecordFixture withRainrate(double rainrate) {
+        this.rainrate = rainrate;
+        return this;
+    }
+
+    public WeatherRecordFixture withEventrain(double eventrain) {
+        this.eventrain = eventrain;
+        return this;
+    }
+
+    public WeatherRecordFixture withHourlyrain(double hourlyrain) {
+        this.hourlyrain = hourlyrain;
+        return this;
+    }
+
+    public WeatherRecordFixture withDailyrain(double dailyrain) {
+        this.dailyrain = dailyrain;
+        return this;
+    }
+
+    public WeatherRecordFixture withWeeklyrain(double weeklyrain) {
+        this.weeklyrain = weeklyrain;
+        return this;
+    }
+
+    public WeatherRecordFixture withMonthlyrain(double monthlyrain) {
+        this.monthlyrain = monthlyrain;
+        return this;
+    }
+
+    public WeatherRecordFixture withYearlyrain(double yearlyrain) {
+        this.yearlyrain = yearlyrain;
+        return this;
+    }
+
+    public WeatherRecordFixture withTotalrain(double totalrain) {
+        this.totalrain = totalrain;
+        return this;
+    }
+
+    public WeatherRecordFixture withStationkey(String stationkey) {
+        this.stationkey = stationkey;
+        return this;
+    }
+
     public WeatherRecord build() {
         WeatherRecord r = new WeatherRecord();
         r.setStationkey(stationkey);
@@ -0,0 +1,167 @@
+package at.or.reder.weather.fixture;
+
+import at.or.reder.weather.model.WeatherRecord;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic series of realistic station samples: seasonal and diurnal temperature cycles,
+ * solar radiation following the sun, random walk pressure and wind, rain events and the rain
+ * counter resets of an Ecowitt gateway (daily, weekly on Monday, monthly, yearly, event rain after
+ * a dry day). The same seed always yields the same series.
+ */
+public class WeatherSeriesFixture {
+
+    private LocalDateTime start = LocalDateTime.of(2024, 6, 1, 0, 0, 0);
+    private Duration interval = Duration.ofMinutes(1);
+    private String stationkey = "TEST_STATION";
+    private long seed = 42;
+
+    public WeatherSeriesFixture withStart(LocalDateTime start) {
+        this.start = start;
+        return this;
+    }
+
+    public WeatherSeriesFixture withInterval(Duration interval) {
+        this.interval = interval;
+        return this;
+    }
+
+    public WeatherSeriesFixture withStationkey(String stationkey) {
+        this.stationkey = stationkey;
+        return this;
+    }
+
+    public WeatherSeriesFixture withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int samplesIn(Duration span) {
+        return (int) (span.toSeconds() / interval.toSeconds());
+    }
+
+    public List<WeatherRecord> build(int count) {
+        List<WeatherRecord> result = new ArrayList<>(count);
+        generate(count, result::add);
+        return result;
+    }
+
+    public List<WeatherRecord> build(Duration span) {
+        return build(samplesIn(span));
+    }
+
+    /**
+     * Streams {@code count} samples to the consumer without keeping them, for multi-year series.
+     */
+    public void generate(long count, Consumer<WeatherRecord> consumer) {
+        Random random = new Random(seed);
+        double hours = interval.toSeconds() / 3600d;
+        double pressure = 1013 + random.nextGaussian() * 5;
+        double windspeed = 8;
+        double winddir = 225;
+        double humidity = 70;
+        double maxdailygust = 0;
+        double rainrate = 0;
+        int rainLeft = 0;
+        double eventrain = 0;
+        double dailyrain = 0;
+        double weeklyrain = 0;
+        double monthlyrain = 0;
+        double yearlyrain = 0;
+        double totalrain = 0;
+        double[] lastHour = new double[Math.max(1, (int) Math.round(1 / hours))];
+        LocalDateTime lastRain = start;
+        LocalDateTime previous = null;
+        for (long i = 0; i < count; ++i) {
+            LocalDateTime time = start.plus(interval.multipliedBy(i));
+            if (previous != null && !time.toLocalDate().equals(previous.toLocalDate())) {
+                dailyrain = 0;
+                maxdailygust = 0;
+                if (time.getDayOfWeek() == DayOfWeek.MONDAY) weeklyrain = 0;
+                if (time.getDayOfMonth() == 1) monthlyrain = 0;
+                if (time.getDayOfYear() == 1) yearlyrain = 0;
+            }
+            previous = time;
+            double dayOfYear = time.getDayOfYear();
+            double hourOfDay = time.getHour() + time.getMinute() / 60d;
+            // seasonal mean peaks mid July, daily maximum around 15:00 local
+            double seasonal = 9 + 10 * Math.sin(2 * Math.PI * (dayOfYear - 105) / 365);
+            double diurnal = 5 * Math.sin(2 * Math.PI * (hourOfDay - 9) / 24);
+            double tempout = seasonal + diurnal + random.nextGaussian() * 0.3;
+            double sun = Math.max(0, Math.sin(2 * Math.PI * (hourOfDay - 6) / 24));
+            double daylight = 0.6 + 0.4 * Math.sin(2 * Math.PI * (dayOfYear - 80) / 365);
+            pressure += random.nextGaussian() * 0.05 * hours * 60;
+            pressure += (1013 - pressure) * 0.001;
+            windspeed = Math.max(0, windspeed + random.nextGaussian() * 0.8 + (8 - windspeed) * 0.02);
+            winddir = (winddir + random.nextGaussian() * 10 + 360) % 360;
+            double windgust = windspeed * (1.2 + random.nextDouble() * 0.6);
+            maxdailygust = Math.max(maxdailygust, windgust);
+            // on average a rain event every ~20 hours, lasting 10 minutes to 4 hours
+            if (rainLeft == 0 && random.nextDouble() < hours / 20) {
+                rainLeft = (int) Math.max(1, (10 + random.nextInt(230)) / (hours * 60));
+                rainrate = 0.5 + random.nextDouble() * 6;
+            }
+            double rain = 0;
+            if (rainLeft > 0) {
+                --rainLeft;
+                rainrate = Math.max(0.1, rainrate + random.nextGaussian() * 0.3);
+                rain = rainrate * hours;
+                lastRain = time;
+            } else {
+                rainrate = 0;
+            }
+            if (Duration.between(lastRain, time).toHours() >= 24) {
+                eventrain = 0;
+            }
+            eventrain += rain;
+            dailyrain += rain;
+            weeklyrain += rain;
+            monthlyrain += rain;
+            yearlyrain += rain;
+            totalrain += rain;
+            lastHour[(int) (i % lastHour.length)] = rain;
+            double hourlyrain = 0;
+            for (double r : lastHour) {
+                hourlyrain += r;
+            }
+            double cloud = rainLeft > 0 ? 0.2 : 0.7 + random.nextDouble() * 0.3;
+            double solarradiation = 900 * daylight * sun * cloud;
+            humidity = Math.min(100, Math.max(20, humidity + random.nextGaussian() - diurnal * 0.05
+                                                  + (rainLeft > 0 ? 1 : 0)));
+            consumer.accept(new WeatherRecordFixture()
+                    .withStationkey(stationkey)
+                    .withSampleTime(time)
+                    .withTempout(round(tempout))
+                    .withTempin(round(21 + diurnal * 0.1))
+                    .withPressureabs(round(pressure))
+                    .withPressurerel(round(pressure + 5.3))
+                    .withHumidityout(round(humidity))
+                    .withHumidityin(45)
+                    .withWindspeed(round(windspeed))
+                    .withWindgust(round(windgust))
+                    .withMaxdailygust(round(maxdailygust))
+                    .withWinddir(Math.round(winddir))
+                    .withSolarradiation(round(solarradiation))
+                    .withUv((int) (solarradiation / 100))
+                    .withRainrate(round(rainrate))
+                    .withEventrain(round(eventrain))
+                    .withHourlyrain(round(hourlyrain))
+                    .withDailyrain(round(dailyrain))
+                    .withWeeklyrain(round(weeklyrain))
+                    .withMonthlyrain(round(monthlyrain))
+                    .withYearlyrain(round(yearlyrain))
+                    .withTotalrain(round(totalrain))
+                    .build());
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10d;
+    }
+}
@@ -0,0 +1,64 @@
+package at.or.reder.weather.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of one fleet size step.
+ *
+ * @param latenciesNanos latencies of all requests, sorted
+ * @param statusCounts responses per HTTP status, {@code -1} for transport errors
+ */
+public record FleetReport(int stations,
+                          Duration elapsed,
+                          long[] latenciesNanos,
+                          Map<Integer, Long> statusCounts,
+                          long retransmits,
+                          ServerMetrics server) {
+
+    public long requests() {
+        return latenciesNanos.length;
+    }
+
+    public long accepted() {
+        return statusCounts.getOrDefault(204, 0L);
+    }
+
+    public long failed() {
+        return requests() - accepted();
+    }
+
+    public double throughput() {
+        return accepted() / (elapsed.toNanos() / 1e9);
+    }
+
+    public double percentileMillis(double percentile) {
+        if (latenciesNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latenciesNanos.length) - 1;
+        return latenciesNanos[Math.max(0, Math.min(index, latenciesNanos.length - 1))] / 1e6;
+    }
+
+    static FleetReport of(int stations, Duration elapsed, long[] latenciesNanos, Map<Integer, Long> statusCounts,
+                          long retransmits, ServerMetrics server) {
+        long[] sorted = latenciesNanos.clone();
+        Arrays.sort(sorted);
+        return new FleetReport(stations, elapsed, sorted, statusCounts, retransmits, server);
+    }
+
+    public String format() {
+        return String.format(Locale.ROOT,
+                "stations=%d requests=%d accepted=%d failed=%d retransmits=%d throughput=%.1f/s"
+                + " latency p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms"
+                + " pool wait=%.0fms (max %.0fms, awaiting %.0f)"
+                + " gc pauses=%.0f (%.3fs) allocated=%.1fMB status=%s",
+                stations, requests(), accepted(), failed(), retransmits, throughput(),
+                percentileMillis(50), percentileMillis(95), percentileMillis(99), percentileMillis(100),
+                server.poolBlockingMillis(), server.poolMaxBlockingMillis(), server.poolAwaiting(),
+                server.gcPauseCount(), server.gcPauseSeconds(), server.allocatedBytes() / (1024 * 1024),
+                statusCounts);
+    }
+}
@@ -0,0 +1,42 @@
+package at.or.reder.weather.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Parameters of a simulated station fleet, read from system properties so the same scenario runs
+ * from {@code ./gradlew loadTest} and from {@link StationFleetSimulator#main}.
+ *
+ * @param stationSteps fleet sizes run one after the other, e.g. {@code 10,50,200}
+ * @param stepDuration how long each step runs
+ * @param interval posting interval of each station (compressed compared to real gateways)
+ * @param jitter relative random deviation of the interval, 0.2 means +/-20 %
+ * @param burstProbability chance per post that a station sends its next samples back to back
+ * @param burstSize samples sent in one burst
+ * @param stormProbability chance per post that a station retransmits its recent samples
+ * @param stormSize samples retransmitted in one storm
+ */
+public record FleetScenario(int[] stationSteps,
+                            Duration stepDuration,
+                            Duration interval,
+                            double jitter,
+                            double burstProbability,
+                            int burstSize,
+                            double stormProbability,
+                            int stormSize) {
+
+    public static FleetScenario fromSystemProperties() {
+        return new FleetScenario(
+                Arrays.stream(System.getProperty("weather.load.stations", "10,50,100").split(","))
+                        .map(String::trim)
+                        .mapToInt(Integer::parseInt)
+                        .toArray(),
+                Duration.parse(System.getProperty("weather.load.duration", "PT30S")),
+                Duration.parse(System.getProperty("weather.load.interval", "PT2S")),
+                Double.parseDouble(System.getProperty("weather.load.jitter", "0.2")),
+                Double.parseDouble(System.getProperty("weather.load.burst-probability", "0.02")),
+                Integer.getInteger("weather.load.burst-size", 5),
+                Double.parseDouble(System.getProperty("weather.load.storm-probability", "0.005")),
+                Integer.getInteger("weather.load.storm-size", 30));
+    }
+}
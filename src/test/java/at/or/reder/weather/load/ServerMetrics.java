@@ -0,0 +1,82 @@
+package at.or.reder.weather.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of the server side counters the load report needs, scraped from the Prometheus endpoint so
+ * it works for the in-process test server as well as a separately started instance. Values of the
+ * same metric with different labels are summed up.
+ */
+public record ServerMetrics(double poolBlockingMillis,
+                            double poolMaxBlockingMillis,
+                            double poolAwaiting,
+                            double gcPauseSeconds,
+                            double gcPauseCount,
+                            double allocatedBytes) {
+
+    static final ServerMetrics EMPTY = new ServerMetrics(Double.NaN, Double.NaN, Double.NaN,
+                                                         Double.NaN, Double.NaN, Double.NaN);
+
+    public static ServerMetrics scrape(HttpClient client, URI metricsUri) {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(metricsUri).GET().build(),
+                                                         HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return EMPTY;
+            }
+            Map<String, Double> values = parse(response.body());
+            return new ServerMetrics(
+                    values.getOrDefault("agroal_blocking_time_total_milliseconds", Double.NaN),
+                    values.getOrDefault("agroal_blocking_time_max_milliseconds", Double.NaN),
+                    values.getOrDefault("agroal_awaiting_count", Double.NaN),
+                    values.getOrDefault("jvm_gc_pause_seconds_sum", Double.NaN),
+                    values.getOrDefault("jvm_gc_pause_seconds_count", Double.NaN),
+                    values.getOrDefault("jvm_gc_memory_allocated_bytes_total", Double.NaN));
+        } catch (IOException ex) {
+            return EMPTY;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return EMPTY;
+        }
+    }
+
+    private static Map<String, Double> parse(String body) {
+        Map<String, Double> result = new TreeMap<>();
+        for (String line : body.split("\n")) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int nameEnd = line.indexOf('{');
+            int valueStart = line.lastIndexOf(' ');
+            if (valueStart < 0) {
+                continue;
+            }
+            String name = line.substring(0, nameEnd >= 0 ? nameEnd : valueStart);
+            try {
+                result.merge(name, Double.parseDouble(line.substring(valueStart + 1)), Double::sum);
+            } catch (NumberFormatException ex) {
+                // NaN/Inf spellings of the exposition format are not needed here
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counter deltas between two snapshots. The awaiting count and the max blocking time are gauges and
+     * are taken from {@code after}.
+     */
+    public ServerMetrics since(ServerMetrics before) {
+        return new ServerMetrics(poolBlockingMillis - before.poolBlockingMillis,
+                                 poolMaxBlockingMillis,
+                                 poolAwaiting,
+                                 gcPauseSeconds - before.gcPauseSeconds,
+                                 gcPauseCount - before.gcPauseCount,
+                                 allocatedBytes - before.allocatedBytes);
+    }
+}
@@ -0,0 +1,120 @@
+package at.or.reder.weather.load;
+
+import at.or.reder.weather.fixture.WeatherSeriesFixture;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Time from process start to the first sample accepted by {@code POST /weather/current}, with and
+ * without the AOT cache. This is the window in which station posts fail during a rollout, so it
+ * includes the schema migration. The application uses its regular configuration, pass the datasource
+ * as {@code -Dweather.startup.jvm-args="-Dquarkus.datasource.weather.jdbc.url=..."}.
+ * <p>
+ * Run with {@code ./gradlew aotCache startupBenchmark}.
+ */
+public class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final Path appDir;
+    private final List<String> jvmArgs;
+    private final int port;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    public StartupBenchmark(Path appDir, List<String> jvmArgs, int port) {
+        this.appDir = appDir;
+        this.jvmArgs = jvmArgs;
+        this.port = port;
+    }
+
+    /**
+     * @return milliseconds to the first accepted sample
+     */
+    public long measure(Path aotCache, String passkey) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (aotCache != null) {
+            command.add("-XX:AOTCache=" + aotCache);
+        }
+        command.addAll(jvmArgs);
+        command.add("-Dquarkus.http.port=" + port);
+        command.add("-jar");
+        command.add(appDir.resolve("quarkus-run.jar").toString());
+        String body = StationFleetSimulator.formBody(passkey, new WeatherSeriesFixture()
+                .withStationkey(passkey)
+                .withStart(LocalDateTime.now(ZoneOffset.UTC).withNano(0))
+                .build(1)
+                .get(0));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/weather/current"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(5))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(appDir.toFile(), "startup-benchmark.log"))
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 204) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException ex) {
+                    // not listening yet
+                }
+                Thread.sleep(20);
+            }
+            throw new IllegalStateException("No sample accepted within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path appDir = Path.of(args.length > 0 ? args[0] : "build/quarkus-app");
+        Path aotCache = appDir.resolve("app.aot");
+        int runs = Integer.getInteger("weather.startup.runs", 5);
+        String extra = System.getProperty("weather.startup.jvm-args", "").trim();
+        List<String> jvmArgs = extra.isEmpty() ? List.of() : Arrays.asList(extra.split("\\s+"));
+        StartupBenchmark benchmark = new StartupBenchmark(appDir, jvmArgs, Integer.getInteger("weather.startup.port", 18081));
+        long[] without = new long[runs];
+        long[] with = new long[runs];
+        for (int i = 0; i < runs; ++i) {
+            // alternate, so drifting disk caches affect both variants alike
+            without[i] = benchmark.measure(null, String.format(Locale.ROOT, "STARTUP%02d", 2 * i));
+            with[i] = Files.isRegularFile(aotCache)
+                    ? benchmark.measure(aotCache, String.format(Locale.ROOT, "STARTUP%02d", 2 * i + 1))
+                    : -1;
+        }
+        System.out.println(report("without AOT cache", without));
+        System.out.println(Files.isRegularFile(aotCache)
+                ? report("with AOT cache   ", with)
+                : "no AOT cache at " + aotCache + ", run ./gradlew aotCache first");
+    }
+
+    private static String report(String name, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        return String.format(Locale.ROOT, "%s: first accepted sample after median %d ms (min %d ms, max %d ms)",
+                             name, sorted[sorted.length / 2], sorted[0], sorted[sorted.length - 1]);
+    }
+}
@@ -0,0 +1,228 @@
+package at.or.reder.weather.load;
+
+import at.or.reder.weather.fixture.WeatherSeriesFixture;
+import at.or.reder.weather.model.WeatherRecord;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates a fleet of Ecowitt gateways posting to {@code /weather/current}. Every station has its own
+ * PASSKEY and a deterministic sample series, posts at the scenario interval with jitter, sometimes sends
+ * a burst of samples back to back and sometimes retransmits its recent samples (retransmit storm).
+ * <p>
+ * Samples carry synthetic {@code dateutc} values that advance by the reported interval of 60 s per
+ * post, independent of the compressed posting interval, so they never collide within one station.
+ * <p>
+ * Run against a separately started instance with
+ * {@code ./gradlew fleetSimulation -Ptarget=http://localhost:8080}. The compressed interval is above the
+ * default ingest admission rate, start the instance with {@code WEATHER_ADMISSION_ENABLED=false}.
+ */
+public class StationFleetSimulator {
+
+    private static final DateTimeFormatter DATEUTC = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int REPORTED_INTERVAL = 60;
+
+    private final URI baseUri;
+    private final FleetScenario scenario;
+    private final HttpClient client;
+    private int run;
+
+    public StationFleetSimulator(URI baseUri, FleetScenario scenario) {
+        this.baseUri = baseUri;
+        this.scenario = scenario;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public List<FleetReport> runAll() throws InterruptedException {
+        List<FleetReport> result = new ArrayList<>();
+        for (int stations : scenario.stationSteps()) {
+            result.add(run(stations));
+        }
+        return result;
+    }
+
+    public FleetReport run(int stations) throws InterruptedException {
+        int runIndex = run++;
+        // separate sample times per run, so a second run never repeats (stationkey, sampletime)
+        LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC).withNano(0)
+                .minusDays(30)
+                .plusDays(runIndex);
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        LongAdder retransmits = new LongAdder();
+        URI metricsUri = baseUri.resolve("/q/metrics");
+        ServerMetrics before = ServerMetrics.scrape(client, metricsUri);
+        long begin = System.nanoTime();
+        long deadline = begin + scenario.stepDuration().toNanos();
+        List<Future<long[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < stations; ++i) {
+                String passkey = String.format(Locale.ROOT, "LOAD%04d", i);
+                WeatherSeriesFixture series = new WeatherSeriesFixture()
+                        .withStationkey(passkey)
+                        .withSeed(i)
+                        .withStart(start)
+                        .withInterval(Duration.ofSeconds(REPORTED_INTERVAL));
+                long seed = i;
+                results.add(executor.submit(() -> simulateStation(passkey, series, seed, deadline,
+                                                                  statusCounts, retransmits)));
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - begin);
+        long[] latencies = results.stream()
+                .map(StationFleetSimulator::join)
+                .flatMapToLong(Arrays::stream)
+                .toArray();
+        ServerMetrics server = ServerMetrics.scrape(client, metricsUri).since(before);
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return FleetReport.of(stations, elapsed, latencies, counts, retransmits.sum(), server);
+    }
+
+    private long[] simulateStation(String passkey,
+                                   WeatherSeriesFixture series,
+                                   long seed,
+                                   long deadline,
+                                   Map<Integer, LongAdder> statusCounts,
+                                   LongAdder retransmits) throws InterruptedException {
+        Random random = new Random(seed);
+        long expectedPosts = scenario.stepDuration().toNanos() / scenario.interval().toNanos() + 1;
+        List<WeatherRecord> samples = series.build((int) (expectedPosts * (1 + scenario.burstSize()) + 16));
+        long[] latencies = new long[16];
+        int count = 0;
+        int next = 0;
+        // spread the first posts over one interval, real gateways are not synchronized
+        Thread.sleep((long) (random.nextDouble() * scenario.interval().toMillis()));
+        while (System.nanoTime() < deadline && next < samples.size()) {
+            int toSend = random.nextDouble() < scenario.burstProbability() ? scenario.burstSize() : 1;
+            for (int b = 0; b < toSend && next < samples.size(); ++b) {
+                latencies = grow(latencies, count);
+                latencies[count++] = post(passkey, samples.get(next++), statusCounts);
+            }
+            if (next > 1 && random.nextDouble() < scenario.stormProbability()) {
+                for (int r = Math.max(0, next - scenario.stormSize()); r < next; ++r) {
+                    latencies = grow(latencies, count);
+                    latencies[count++] = post(passkey, samples.get(r), statusCounts);
+                    retransmits.increment();
+                }
+            }
+            double factor = 1 + scenario.jitter() * (2 * random.nextDouble() - 1);
+            Thread.sleep(Math.max(0, (long) (scenario.interval().toMillis() * factor)));
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private long post(String passkey, WeatherRecord sample, Map<Integer, LongAdder> statusCounts)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/weather/current"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(formBody(passkey, sample)))
+                .build();
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            status = -1;
+        }
+        long latency = System.nanoTime() - start;
+        statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+        return latency;
+    }
+
+    /**
+     * The form a gateway posts, with the metric sample converted back to the imperial units on the wire.
+     */
+    static String formBody(String passkey, WeatherRecord r) {
+        StringBuilder body = new StringBuilder(768);
+        append(body, "PASSKEY", passkey);
+        append(body, "stationtype", "EasyWeatherPro_V5.1.6");
+        append(body, "runtime", "86400");
+        append(body, "heap", "24000");
+        append(body, "dateutc", r.getSampleTime().format(DATEUTC));
+        append(body, "tempinf", toFahrenheit(r.getTempin()));
+        append(body, "humidityin", r.getHumidityin());
+        append(body, "baromrelin", r.getPressurerel() / 33.863889532610884);
+        append(body, "baromabsin", r.getPressureabs() / 33.863889532610884);
+        append(body, "tempf", toFahrenheit(r.getTempout()));
+        append(body, "humidity", r.getHumidityout());
+        append(body, "winddir", String.valueOf(r.getWinddir().intValue()));
+        append(body, "windspeedmph", r.getWindspeed() / 1.609344);
+        append(body, "windgustmph", r.getWindgust() / 1.609344);
+        append(body, "maxdailygust", r.getMaxdailygust() / 1.609344);
+        append(body, "solarradiation", r.getSolarradiation());
+        append(body, "uv", String.valueOf(r.getUv()));
+        append(body, "rainratein", r.getRainrate() / 25.4);
+        append(body, "eventrainin", r.getEventrain() / 25.4);
+        append(body, "hourlyrainin", r.getHourlyrain() / 25.4);
+        append(body, "dailyrainin", r.getDailyrain() / 25.4);
+        append(body, "weeklyrainin", r.getWeeklyrain() / 25.4);
+        append(body, "monthlyrainin", r.getMonthlyrain() / 25.4);
+        append(body, "yearlyrainin", r.getYearlyrain() / 25.4);
+        append(body, "totalrainin", r.getTotalrain() / 25.4);
+        append(body, "wh65batt", "0");
+        append(body, "freq", "868M");
+        append(body, "model", "GW2000A_V3.1.4");
+        append(body, "interval", String.valueOf(REPORTED_INTERVAL));
+        return body.toString();
+    }
+
+    private static double toFahrenheit(Double celsius) {
+        return celsius * 9 / 5 + 32;
+    }
+
+    private static void append(StringBuilder body, String name, Number value) {
+        append(body, name, String.format(Locale.ROOT, "%.3f", value.doubleValue()));
+    }
+
+    private static void append(StringBuilder body, String name, String value) {
+        if (!body.isEmpty()) {
+            body.append('&');
+        }
+        body.append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+    }
+
+    private static long[] grow(long[] array, int size) {
+        return size < array.length ? array : Arrays.copyOf(array, array.length * 2);
+    }
+
+    private static long[] join(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Station simulation failed", ex);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        URI target = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        StationFleetSimulator simulator = new StationFleetSimulator(target, FleetScenario.fromSystemProperties());
+        for (FleetReport report : simulator.runAll()) {
+            System.out.println(report.format());
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package at.or.reder.weather.load;
+
+import at.or.reder.weather.fixture.WeatherSeriesFixture;
+import at.or.reder.weather.model.WeatherRecord;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deterministic multi-year dataset for query performance tests: {@code stationdata} of several stations
+ * from {@link WeatherSeriesFixture} plus matching {@code heatpumpdata} and {@code heatpumpenergy} that
+ * follow the outdoor temperature of the first station. Rows go in through JDBC batches with ids taken
+ * inline from the sequences, which works on H2 and Firebird alike.
+ * <p>
+ * Load into a local database with
+ * {@code ./gradlew generateDataset -Pjdbc=jdbc:firebirdsql://localhost/weather -Puser=sysdba -Ppassword=...}.
+ */
+public class SyntheticDatasetGenerator {
+
+    private static final Logger LOG = Logger.getLogger(SyntheticDatasetGenerator.class.getName());
+
+    private static final String INSERT_STATION =
+            "insert into stationdata (id, stationkey, sampletime, tempin, tempout, humidityin, humidityout,"
+            + " pressurerel, pressureabs, winddir, windspeed, windgust, maxdailygust, solarradiation, uv,"
+            + " rainrate, eventrain, hourlyrain, dailyrain, weeklyrain, monthlyrain, yearlyrain, totalrain)"
+            + " values (next value for stationdata_seq, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_HEATPUMP =
+            "insert into heatpumpdata (id, sampletime, roomTemp, roomTempSet, outdoorTemp, hotWaterTemp)"
+            + " values (next value for heatpumpdata_seq, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ENERGY =
+            "insert into heatpumpenergy (id, sampleday, earnedEnvironmentEnergyHeating,"
+            + " consumedElectricalEnergyDomesticHotWater, consumedElectricalEnergyHeating, heatGeneratedHeating,"
+            + " earnedEnvironmentEnergyDomesticHotWater, heatGeneratedDomesticHotWater)"
+            + " values (next value for heatpumpenergy_seq, ?, ?, ?, ?, ?, ?, ?)";
+
+    private int stations = 2;
+    private int years = 2;
+    private LocalDate end = LocalDate.of(2025, 1, 1);
+    private Duration interval = Duration.ofMinutes(5);
+    private int batchSize = 1000;
+    private long seed = 4711;
+
+    public SyntheticDatasetGenerator withStations(int stations) {
+        this.stations = stations;
+        return this;
+    }
+
+    public SyntheticDatasetGenerator withYears(int years) {
+        this.years = years;
+        return this;
+    }
+
+    /**
+     * @param end first day not covered, the dataset ends at midnight UTC of this day
+     */
+    public SyntheticDatasetGenerator withEnd(LocalDate end) {
+        this.end = end;
+        return this;
+    }
+
+    public SyntheticDatasetGenerator withInterval(Duration interval) {
+        this.interval = interval;
+        return this;
+    }
+
+    public SyntheticDatasetGenerator withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public SyntheticDatasetGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public LocalDateTime getStart() {
+        return end.minusYears(years).atStartOfDay();
+    }
+
+    public LocalDateTime getEnd() {
+        return end.atStartOfDay();
+    }
+
+    public static String stationkey(int index) {
+        return String.format(Locale.ROOT, "SYN%03d", index);
+    }
+
+    /**
+     * Loads the dataset, committing after every batch. Existing rows are not touched, loading the same
+     * range twice violates the unique sample time indexes.
+     */
+    public Counts load(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long samples = ChronoUnit.SECONDS.between(getStart(), getEnd()) / interval.toSeconds();
+        long begin = System.nanoTime();
+        long stationRows = 0;
+        long heatpumpRows = 0;
+        long energyRows = 0;
+        try (PreparedStatement station = connection.prepareStatement(INSERT_STATION);
+             PreparedStatement heatpump = connection.prepareStatement(INSERT_HEATPUMP);
+             PreparedStatement energy = connection.prepareStatement(INSERT_ENERGY)) {
+            for (int i = 0; i < stations; ++i) {
+                Batch stationBatch = new Batch(connection, station);
+                Batch heatpumpBatch = new Batch(connection, heatpump);
+                Batch energyBatch = new Batch(connection, energy);
+                HeatpumpModel model = i == 0 ? new HeatpumpModel(new Random(seed), heatpumpBatch, energyBatch) : null;
+                new WeatherSeriesFixture()
+                        .withStationkey(stationkey(i))
+                        .withSeed(seed + i)
+                        .withStart(getStart())
+                        .withInterval(interval)
+                        .generate(samples, r -> {
+                            bindStation(station, r);
+                            stationBatch.add();
+                            if (model != null) {
+                                model.sample(r);
+                            }
+                        });
+                if (model != null) {
+                    model.finish();
+                }
+                stationRows += stationBatch.finish();
+                heatpumpRows += heatpumpBatch.finish();
+                energyRows += energyBatch.finish();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        Counts result = new Counts(stationRows, heatpumpRows, energyRows, Duration.ofNanos(System.nanoTime() - begin));
+        LOG.log(Level.INFO, "Synthetic dataset loaded: {0}", result);
+        return result;
+    }
+
+    public record Counts(long stationRows, long heatpumpRows, long energyRows, Duration elapsed) {
+    }
+
+    private static void bindStation(PreparedStatement ps, WeatherRecord r) {
+        try {
+            ps.setString(1, r.getStationkey());
+            ps.setTimestamp(2, Timestamp.valueOf(r.getSampleTime()));
+            ps.setDouble(3, r.getTempin());
+            ps.setDouble(4, r.getTempout());
+            ps.setDouble(5, r.getHumidityin());
+            ps.setDouble(6, r.getHumidityout());
+            ps.setDouble(7, r.getPressurerel());
+            ps.setDouble(8, r.getPressureabs());
+            ps.setDouble(9, r.getWinddir());
+            ps.setDouble(10, r.getWindspeed());
+            ps.setDouble(11, r.getWindgust());
+            ps.setDouble(12, r.getMaxdailygust());
+            ps.setDouble(13, r.getSolarradiation());
+            ps.setInt(14, r.getUv());
+            ps.setDouble(15, r.getRainrate());
+            ps.setDouble(16, r.getEventrain());
+            ps.setDouble(17, r.getHourlyrain());
+            ps.setDouble(18, r.getDailyrain());
+            ps.setDouble(19, r.getWeeklyrain());
+            ps.setDouble(20, r.getMonthlyrain());
+            ps.setDouble(21, r.getYearlyrain());
+            ps.setDouble(22, r.getTotalrain());
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * JDBC batch that commits every {@code batchSize} rows.
+     */
+    private final class Batch {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private int pending;
+        private long rows;
+
+        Batch(Connection connection, PreparedStatement statement) {
+            this.connection = connection;
+            this.statement = statement;
+        }
+
+        void add() {
+            try {
+                statement.addBatch();
+                ++rows;
+                if (++pending >= batchSize) {
+                    flush();
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        long finish() throws SQLException {
+            flush();
+            return rows;
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                connection.commit();
+                pending = 0;
+            }
+        }
+    }
+
+    /**
+     * A heatpump heating a house to 21 °C: room temperature sags slightly in cold weather, the hot
+     * water tank cycles between 45 and 52 °C, and the daily energy follows the heating degree hours
+     * with a COP that drops with the outdoor temperature.
+     */
+    private final class HeatpumpModel {
+
+        private final Random random;
+        private final Batch data;
+        private final Batch energy;
+        private final PreparedStatement dataStatement;
+        private final PreparedStatement energyStatement;
+        private LocalDate day;
+        private double hotWater = 50;
+        private double heatingKwh;
+        private double consumedHeatingKwh;
+
+        HeatpumpModel(Random random, Batch data, Batch energy) {
+            this.random = random;
+            this.data = data;
+            this.energy = energy;
+            this.dataStatement = data.statement;
+            this.energyStatement = energy.statement;
+        }
+
+        void sample(WeatherRecord r) {
+            LocalDate sampleDay = r.getSampleTime().toLocalDate();
+            if (day != null && !day.equals(sampleDay)) {
+                writeDay();
+            }
+            day = sampleDay;
+            double outdoor = r.getTempout() + random.nextGaussian() * 0.5;
+            double hours = interval.toSeconds() / 3600d;
+            double load = Math.max(0, 20 - outdoor) * 0.35 * hours;
+            double cop = Math.max(2, 4.5 - Math.max(0, 7 - outdoor) * 0.1);
+            heatingKwh += load;
+            consumedHeatingKwh += load / cop;
+            hotWater -= 0.4 * hours * 12;
+            if (hotWater < 45) {
+                hotWater = 52;
+            }
+            try {
+                dataStatement.setTimestamp(1, Timestamp.valueOf(r.getSampleTime()));
+                dataStatement.setDouble(2, round(21 - Math.max(0, 5 - outdoor) * 0.05 + random.nextGaussian() * 0.1));
+                dataStatement.setDouble(3, 21);
+                dataStatement.setDouble(4, round(outdoor));
+                dataStatement.setDouble(5, round(hotWater));
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+            data.add();
+        }
+
+        void finish() {
+            if (day != null) {
+                writeDay();
+            }
+        }
+
+        private void writeDay() {
+            double hotWaterKwh = 3 + random.nextDouble();
+            double consumedHotWaterKwh = hotWaterKwh / 3;
+            try {
+                energyStatement.setObject(1, day);
+                energyStatement.setDouble(2, round(heatingKwh - consumedHeatingKwh));
+                energyStatement.setDouble(3, round(consumedHotWaterKwh));
+                energyStatement.setDouble(4, round(consumedHeatingKwh));
+                energyStatement.setDouble(5, round(heatingKwh));
+                energyStatement.setDouble(6, round(hotWaterKwh - consumedHotWaterKwh));
+                energyStatement.setDouble(7, round(hotWaterKwh));
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+            energy.add();
+            heatingKwh = 0;
+            consumedHeatingKwh = 0;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10d;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 3) {
+            System.err.println("usage: SyntheticDatasetGenerator <jdbc-url> <user> <password>");
+            return;
+        }
+        SyntheticDatasetGenerator generator = new SyntheticDatasetGenerator()
+                .withStations(Integer.getInteger("weather.dataset.stations", 2))
+                .withYears(Integer.getInteger("weather.dataset.years", 2))
+                .withInterval(Duration.parse(System.getProperty("weather.dataset.interval", "PT5M")))
+                .withEnd(LocalDate.parse(System.getProperty("weather.dataset.end", "2025-01-01")));
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            System.out.println(generator.load(connection));
+        }
+    }
+}
@@ -92,9 +92,9 @@ const HeatpumpUpload: React.FC = () => {
         <MultipleFileUpload onFileDrop={handleFileDrop}>
           <MultipleFileUploadMain
             titleIcon={<CloudUploadAltIcon />}
-            titleText="Drag and drop CSV files here"
+            titleText="Drag and drop CSV, GZ or ZIP files here"
             titleTextSeparator="or"
-            infoText="Accepted: system, zone, energy, domestic_hot_water files"
+            infoText="Accepted: system, zone, energy, domestic_hot_water files, plain, gzipped or as ZIP archive"
           />
           {fileEntries.length > 0 && (
             <MultipleFileUploadStatus
@@ -1,7 +1,9 @@
-export type DataType = 'System' | 'Zone' | 'Energy' | 'HotWater'
+export type DataType = 'System' | 'Zone' | 'Energy' | 'HotWater' | 'Archive'
 
 export function detectFileType(filename: string): DataType | null {
-  const lower = filename.toLowerCase()
+  let lower = filename.toLowerCase()
+  if (lower.endsWith('.zip'))                return 'Archive'
+  if (lower.endsWith('.gz'))                 lower = lower.slice(0, -3)
   if (lower.startsWith('domestic_hot_water')) return 'HotWater'
   if (lower.startsWith('system'))            return 'System'
   if (lower.startsWith('zone'))             return 'Zone'
@@ -15,16 +17,18 @@ export function labelForType(type: DataType): string {
     Zone:     'Zone',
     Energy:   'Energy',
     HotWater: 'Hot Water',
+    Archive:  'ZIP Archive',
   }
   return labels[type]
 }
 
-export function colorForType(type: DataType): 'green' | 'purple' | 'blue' | 'teal' {
-  const colors: Record<DataType, 'green' | 'purple' | 'blue' | 'teal'> = {
+export function colorForType(type: DataType): 'green' | 'purple' | 'blue' | 'teal' | 'grey' {
+  const colors: Record<DataType, 'green' | 'purple' | 'blue' | 'teal' | 'grey'> = {
     System:   'green',
     Zone:     'purple',
     Energy:   'blue',
     HotWater: 'teal',
+    Archive:  'grey',
   }
   return colors[type]
 }